@@ -1,6 +1,10 @@
 package com.magiccode.backend.config;
 
+import com.magiccode.backend.exceptions.QueryCancelledException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -10,7 +14,10 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 import org.springframework.web.server.ResponseStatusException;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +27,9 @@ import java.util.Map;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+    private final MeterRegistry meterRegistry;
 
     @ExceptionHandler(BadCredentialsException.class)
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
@@ -61,6 +70,22 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError(reason), status);
     }
 
+    @ExceptionHandler({QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class,
+            AsyncRequestTimeoutException.class})
+    public ResponseEntity<?> handleQueryTimeout(RuntimeException ex, WebRequest request) {
+        String endpoint = countAborted("timeout", request);
+        log.warn("query timed out endpoint={} type={}", endpoint, ex.getClass().getSimpleName());
+        return new ResponseEntity<>(apiError("The request took too long. Please narrow it down and try again."),
+                HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(QueryCancelledException.class)
+    public ResponseEntity<?> handleQueryCancelled(QueryCancelledException ex, WebRequest request) {
+        String endpoint = countAborted("disconnect", request);
+        log.info("query cancelled endpoint={}", endpoint);
+        return new ResponseEntity<>(apiError(ex.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntimeException(RuntimeException ex, WebRequest request) {
         HttpStatus status = ex.getMessage() != null && ex.getMessage().toLowerCase().contains("already")
@@ -94,6 +119,14 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError("Internal server error"), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    private String countAborted(String reason, WebRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        String endpoint = pattern == null ? "unknown" : pattern.toString();
+        meterRegistry.counter("blog.query.aborted", "reason", reason, "endpoint", endpoint).increment();
+        return endpoint;
+    }
+
     private Map<String, Object> apiError(String message) {
         return apiError(message, Map.of());
     }
@@ -0,0 +1,343 @@
+package com.magiccode.backend.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Replays the stored response when a client retries a public POST with the
+ * same {@code Idempotency-Key} header.
+ *
+ * <p>Responses are kept per method, path and key in a bounded LRU map for
+ * {@code ttl-ms}. A request arriving while the first one with its key is still
+ * running waits for it and gets the same response. Keys are tied to a hash of
+ * the query string and body, so reusing a key for a different request is
+ * refused with {@code 422}. Server errors and {@code 429} are not stored, and
+ * the next retry runs again, unless the handler left a
+ * {@link #PENDING_RESPONSE_ATTRIBUTE}: then the work is still going on (a
+ * queued comment that missed its wait), the key stays in flight, and repeats
+ * wait for that final response instead. Bodies over {@link #MAX_BODY} bytes
+ * are refused with {@code 413}. Entries live in memory only, per
+ * instance.</p>
+ *
+ * <p>Runs after Spring Security so CORS and authentication apply to replays
+ * too.</p>
+ */
+@Slf4j
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String HEADER_NAME = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    /**
+     * Request attribute a handler sets to a {@code CompletionStage<ResponseEntity<?>>}
+     * when it answers with an error but the request's effect will still happen.
+     */
+    public static final String PENDING_RESPONSE_ATTRIBUTE = IdempotencyFilter.class.getName() + ".pending";
+    static final int MAX_KEY_LENGTH = 255;
+    // Request and stored response bodies; a comment is at most a few KB of JSON.
+    static final int MAX_BODY = 64 * 1024;
+    private static final List<String> ROUTES = List.of("/api/comments/post/*", "/api/posts/*/like");
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final long waitMillis;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Entry> entries;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+
+    public IdempotencyFilter(@Value("${blog.idempotency.enabled:true}") boolean enabled,
+                             @Value("${blog.idempotency.max-entries:10000}") int maxEntries,
+                             @Value("${blog.idempotency.ttl-ms:86400000}") long ttlMillis,
+                             @Value("${blog.idempotency.wait-ms:10000}") long waitMillis,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttlMillis = ttlMillis;
+        this.waitMillis = Math.max(waitMillis, 1);
+        this.objectMapper = objectMapper;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.executed = Counter.builder("blog.idempotency.requests").tag("result", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("blog.idempotency.requests").tag("result", "replayed").register(meterRegistry);
+        this.rejected = Counter.builder("blog.idempotency.requests").tag("result", "rejected").register(meterRegistry);
+        Gauge.builder("blog.idempotency.entries", this, IdempotencyFilter::size).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"POST".equals(request.getMethod()) || request.getHeader(HEADER_NAME) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return ROUTES.stream().noneMatch(route -> pathMatcher.match(route, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER_NAME).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            rejected.increment();
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    HEADER_NAME + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        if (request.getContentLengthLong() > MAX_BODY) {
+            rejected.increment();
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large");
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY + 1);
+        if (body.length > MAX_BODY) {
+            rejected.increment();
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large");
+            return;
+        }
+        byte[] fingerprint = fingerprint(request.getQueryString(), body);
+        String cacheKey = request.getMethod() + " " + request.getRequestURI() + " " + key;
+
+        while (true) {
+            Entry entry;
+            boolean owner = false;
+            long now = System.currentTimeMillis();
+            synchronized (entries) {
+                entry = entries.get(cacheKey);
+                if (entry == null || entry.expiresAt < now) {
+                    entry = new Entry(fingerprint, now + ttlMillis);
+                    entries.put(cacheKey, entry);
+                    owner = true;
+                }
+            }
+            if (!Arrays.equals(entry.fingerprint, fingerprint)) {
+                rejected.increment();
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        HEADER_NAME + " was already used for a different request");
+                return;
+            }
+            if (owner) {
+                executed.increment();
+                execute(cacheKey, entry, new CachedBodyRequest(request, body), response, filterChain);
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = entry.response.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                rejected.increment();
+                writeError(response, HttpStatus.CONFLICT,
+                        "A request with this " + HEADER_NAME + " is still being processed");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                // The first request failed and left nothing to replay; run this one instead.
+                continue;
+            }
+            replayed.increment();
+            log.info("idempotent request replayed status={} path={}", stored.status(), request.getRequestURI());
+            stored.writeTo(response);
+            return;
+        }
+    }
+
+    private void execute(String cacheKey, Entry entry, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        boolean deferred = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            byte[] content = wrapper.getContentAsByteArray();
+            int status = wrapper.getStatus();
+            if (status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value() && content.length <= MAX_BODY) {
+                stored = new StoredResponse(status, wrapper.getContentType(), content);
+            } else if (request.getAttribute(PENDING_RESPONSE_ATTRIBUTE) instanceof CompletionStage<?> pending) {
+                deferred = true;
+                pending.whenComplete((result, error) -> completeDeferred(cacheKey, entry, result, error));
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            if (stored != null) {
+                entry.response.complete(stored);
+            } else if (!deferred) {
+                forget(cacheKey, entry);
+            }
+        }
+    }
+
+    private void completeDeferred(String cacheKey, Entry entry, Object result, Throwable error) {
+        if (error == null && result instanceof ResponseEntity<?> outcome) {
+            try {
+                byte[] content = objectMapper.writeValueAsBytes(outcome.getBody());
+                entry.response.complete(new StoredResponse(outcome.getStatusCode().value(),
+                        MediaType.APPLICATION_JSON_VALUE, content));
+                return;
+            } catch (JsonProcessingException e) {
+                log.warn("idempotent deferred response not stored type={}", e.getClass().getSimpleName());
+            }
+        }
+        forget(cacheKey, entry);
+    }
+
+    private void forget(String cacheKey, Entry entry) {
+        synchronized (entries) {
+            entries.remove(cacheKey, entry);
+        }
+        entry.response.completeExceptionally(new IllegalStateException("response not stored"));
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message, "errors", Map.of()));
+    }
+
+    private static byte[] fingerprint(String queryString, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (queryString != null) {
+                digest.update(queryString.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            digest.update(body);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+        private Entry(byte[] fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private record StoredResponse(int status, String contentType, byte[] body) {
+        void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            response.setHeader(REPLAYED_HEADER, "true");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /** Hands the already-read body to the rest of the chain. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory, so a listener is told about all of it at once.
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
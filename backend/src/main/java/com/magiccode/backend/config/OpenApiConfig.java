@@ -5,8 +5,10 @@ import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 import io.swagger.v3.oas.models.tags.Tag;
+import org.springdoc.core.utils.SpringDocUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.util.List;
 
@@ -15,6 +17,11 @@ public class OpenApiConfig {
 
     public static final String BEARER_AUTH = "bearerAuth";
 
+    static {
+        // Document async endpoints by the response they complete with.
+        SpringDocUtils.getConfig().addResponseWrapperToIgnore(WebAsyncTask.class);
+    }
+
     @Bean
     public OpenAPI blogOpenApi() {
         return new OpenAPI()
@@ -36,6 +43,7 @@ public class OpenApiConfig {
                         new Tag().name("Admin Auth").description("Admin login and token validation."),
                         new Tag().name("Admin Posts").description("Authenticated article, category, and collection management."),
                         new Tag().name("Admin Comments").description("Authenticated comment moderation."),
+                        new Tag().name("Admin Search").description("Authenticated search analytics."),
                         new Tag().name("Admin Media").description("Authenticated media upload and deletion."),
                         new Tag().name("Admin Maintenance").description("Authenticated maintenance mode management."),
                         new Tag().name("Admin Config").description("Authenticated site, sidebar, and browser icon configuration.")
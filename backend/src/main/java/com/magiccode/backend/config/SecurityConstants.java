@@ -12,6 +12,7 @@ public final class SecurityConstants {
             "/api/home/**",
             "/api/categories/**",
             "/api/posts/**",
+            "/api/search/**",
             "/api/socials",
             "/api/videos/**",
             "/api/comments/**",
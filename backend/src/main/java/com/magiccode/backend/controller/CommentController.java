@@ -1,16 +1,25 @@
 package com.magiccode.backend.controller;
 
+import com.magiccode.backend.config.IdempotencyFilter;
 import com.magiccode.backend.config.OpenApiConfig;
 import com.magiccode.backend.dto.ApiErrorResponse;
 import com.magiccode.backend.dto.AdminCommentPageResponse;
+import com.magiccode.backend.dto.BlockedKeywordsDto;
+import com.magiccode.backend.dto.BlockedKeywordsRequest;
 import com.magiccode.backend.dto.BulkCommentRequest;
 import com.magiccode.backend.dto.BulkCommentResponse;
 import com.magiccode.backend.dto.CommentDto;
+import com.magiccode.backend.dto.CommentQueuePageResponse;
 import com.magiccode.backend.dto.CommentSearchResultDto;
 import com.magiccode.backend.dto.CommentStatsDto;
+import com.magiccode.backend.dto.CommentThreadPageResponse;
 import com.magiccode.backend.dto.CreateCommentRequest;
 import com.magiccode.backend.dto.ValidationErrorResponse;
+import com.magiccode.backend.exceptions.CommentStillQueuedException;
 import com.magiccode.backend.model.CommentStatus;
+import com.magiccode.backend.service.CancellableQueries;
+import com.magiccode.backend.service.CommentIngestService;
+import com.magiccode.backend.service.CommentModerationService;
 import com.magiccode.backend.service.CommentService;
 import com.magiccode.backend.service.RateLimitService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,6 +38,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -40,6 +51,9 @@ public class CommentController {
     private CommentService commentService;
     private final RateLimitService rateLimitService;
     private final HttpServletRequest httpServletRequest;
+    private final CancellableQueries cancellableQueries;
+    private final CommentModerationService commentModerationService;
+    private final CommentIngestService commentIngestService;
 
     @Operation(summary = "List approved post comments", description = "Returns only APPROVED comments for the public post page. PENDING and REJECTED comments are hidden.")
     @GetMapping("/post/{postId}")
@@ -51,6 +65,15 @@ public class CommentController {
         return new ResponseEntity<>(commentDto, HttpStatus.OK);
     }
 
+    @Operation(summary = "List approved comment threads", description = "Returns APPROVED top-level comments oldest first, each with its APPROVED replies nested up to three levels deep and a total reply count. Pass the returned nextCursor to fetch the next threads; no total count is computed.")
+    @GetMapping("/post/{postId}/threads")
+    public ResponseEntity<CommentThreadPageResponse> getCommentThreads(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(commentService.getCommentThreads(postId, cursor, size));
+    }
+
     @Operation(summary = "Create admin comment", description = "Creates an admin-authored comment and publishes it as APPROVED.")
     @SecurityRequirement(name = OpenApiConfig.BEARER_AUTH)
     @PostMapping("/admin/post/{postId}")
@@ -66,17 +89,30 @@ public class CommentController {
         return new ResponseEntity<>(commentDto, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Submit visitor comment", description = "Creates a visitor comment with status PENDING. It becomes public only after admin approval.")
+    @Operation(summary = "Submit visitor comment", description = "Creates a visitor comment with status PENDING. It becomes public only after admin approval. With the ingest queue enabled the comment is group-committed and the response is 202 once it is saved.")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Comment submitted"),
+            @ApiResponse(responseCode = "202", description = "Comment saved through the ingest queue"),
             @ApiResponse(responseCode = "400", description = "Validation failed",
-                    content = @Content(schema = @Schema(implementation = ValidationErrorResponse.class)))
+                    content = @Content(schema = @Schema(implementation = ValidationErrorResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Commenting too fast, or the ingest queue is full",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
     })
     @PostMapping("/post/{postId}")
     public ResponseEntity<CommentDto> addComment(@PathVariable Long postId, @Valid @RequestBody CreateCommentRequest request) {
         String ip = httpServletRequest.getRemoteAddr();
         if (!rateLimitService.tryAcquire(ip)) {
-            throw new RuntimeException("Too many comments, please try again later.");
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many comments, please try again later.");
+        }
+        if (commentIngestService.isAccepting()) {
+            try {
+                return new ResponseEntity<>(commentIngestService.submit(postId, request), HttpStatus.ACCEPTED);
+            } catch (CommentStillQueuedException e) {
+                // The comment will still be written; an idempotent retry should get it rather than resubmit.
+                httpServletRequest.setAttribute(IdempotencyFilter.PENDING_RESPONSE_ATTRIBUTE,
+                        e.getResult().thenApply(dto -> new ResponseEntity<>(dto, HttpStatus.ACCEPTED)));
+                throw e;
+            }
         }
         CommentDto commentDto = commentService.addComment(postId, request, false);
         return new ResponseEntity<>(commentDto, HttpStatus.CREATED);
@@ -108,29 +144,45 @@ public class CommentController {
         return ResponseEntity.ok(commentService.updateStatus(commentId, status));
     }
 
-    @Operation(summary = "Search comments", description = "Searches comments for admin moderation.")
+    @Operation(summary = "Search comments", description = "Searches comments for admin moderation. Returns 504 when the search exceeds its time budget.")
     @SecurityRequirement(name = OpenApiConfig.BEARER_AUTH)
     @Tag(name = "Admin Comments")
     @PreAuthorize("hasRole('ROOT')")
     @GetMapping("/search")
-    public ResponseEntity<List<CommentSearchResultDto>> searchComments(@RequestParam String q) {
-        List<CommentSearchResultDto> results = commentService.searchComments(q);
-        return ResponseEntity.ok(results);
+    public WebAsyncTask<ResponseEntity<List<CommentSearchResultDto>>> searchComments(@RequestParam String q) {
+        return cancellableQueries.run(() -> ResponseEntity.ok(commentService.searchComments(q)));
     }
 
-    @Operation(summary = "List comments for moderation", description = "Lists admin comments with optional status, keyword, post, paging, and createdAt sorting filters. Status defaults to PENDING.")
+    @Operation(summary = "List comments for moderation", description = "Lists admin comments with optional status, keyword, post, paging, and createdAt sorting filters. Status defaults to PENDING. Returns 504 when the listing exceeds its time budget.")
     @SecurityRequirement(name = OpenApiConfig.BEARER_AUTH)
     @Tag(name = "Admin Comments")
     @PreAuthorize("hasRole('ROOT')")
     @GetMapping("/admin")
-    public ResponseEntity<AdminCommentPageResponse> listAdminComments(
+    public WebAsyncTask<ResponseEntity<AdminCommentPageResponse>> listAdminComments(
             @RequestParam(defaultValue = "PENDING") String status,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Long postId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt desc") String sort) {
-        return ResponseEntity.ok(commentService.listAdminComments(status, keyword, postId, page, size, sort));
+        return cancellableQueries.run(() ->
+                ResponseEntity.ok(commentService.listAdminComments(status, keyword, postId, page, size, sort)));
+    }
+
+    @Operation(summary = "Moderation queue", description = "Lists comments for moderation with keyset paging on createdAt and id. Status defaults to PENDING; keyword matches name, email, or content. Pass nextCursor from the previous response to continue. Returns 504 when the query exceeds its time budget.")
+    @SecurityRequirement(name = OpenApiConfig.BEARER_AUTH)
+    @Tag(name = "Admin Comments")
+    @PreAuthorize("hasRole('ROOT')")
+    @GetMapping("/admin/queue")
+    public WebAsyncTask<ResponseEntity<CommentQueuePageResponse>> getModerationQueue(
+            @RequestParam(defaultValue = "PENDING") String status,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt desc") String sort) {
+        return cancellableQueries.run(() ->
+                ResponseEntity.ok(commentService.getModerationQueue(status, keyword, postId, cursor, size, sort)));
     }
 
     @Operation(summary = "Get comment moderation stats", description = "Returns pending, approved, rejected, and total comment counts.")
@@ -150,4 +202,22 @@ public class CommentController {
     public ResponseEntity<BulkCommentResponse> bulkAction(@Valid @RequestBody BulkCommentRequest request) {
         return ResponseEntity.ok(commentService.bulkAction(request));
     }
+
+    @Operation(summary = "List blocked keywords", description = "Returns the admin-managed blocked keywords and how many keywords the moderation matcher is using, including those from configuration.")
+    @SecurityRequirement(name = OpenApiConfig.BEARER_AUTH)
+    @Tag(name = "Admin Comments")
+    @PreAuthorize("hasRole('ROOT')")
+    @GetMapping("/admin/moderation/keywords")
+    public ResponseEntity<BlockedKeywordsDto> getBlockedKeywords() {
+        return ResponseEntity.ok(commentModerationService.getBlockedKeywords());
+    }
+
+    @Operation(summary = "Replace blocked keywords", description = "Replaces the admin-managed blocked keywords. Comments submitted after the call are checked against the new list; no restart is needed.")
+    @SecurityRequirement(name = OpenApiConfig.BEARER_AUTH)
+    @Tag(name = "Admin Comments")
+    @PreAuthorize("hasRole('ROOT')")
+    @PutMapping("/admin/moderation/keywords")
+    public ResponseEntity<BlockedKeywordsDto> replaceBlockedKeywords(@Valid @RequestBody BlockedKeywordsRequest request) {
+        return ResponseEntity.ok(commentModerationService.replaceBlockedKeywords(request.getKeywords()));
+    }
 }
@@ -1,12 +1,15 @@
 package com.magiccode.backend.controller;
 
 import com.magiccode.backend.dto.LikeResponseDto;
+import com.magiccode.backend.dto.PostCursorPageResponse;
 import com.magiccode.backend.dto.PostDetailDto;
 import com.magiccode.backend.dto.PostSummaryDto;
+import com.magiccode.backend.dto.SuggestionDto;
 import com.magiccode.backend.config.OpenApiConfig;
 import com.magiccode.backend.dto.ApiErrorResponse;
 import com.magiccode.backend.service.LikeLogService;
 import com.magiccode.backend.service.PostService;
+import com.magiccode.backend.service.SuggestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -33,6 +36,7 @@ import java.util.List;
 public class PostController {
     private final PostService postService;
     private final LikeLogService likeLogService;
+    private final SuggestService suggestService;
 
     @Operation(summary = "List posts by category", description = "Returns public post summaries for a category slug.")
     @GetMapping("/category/{slug}")
@@ -44,6 +48,15 @@ public class PostController {
         return ResponseEntity.ok(postSummaryPage);
     }
 
+    @Operation(summary = "List posts by category with a cursor", description = "Returns public post summaries for a category slug, newest first. Pass the returned nextCursor to fetch the next slice; no total count is computed.")
+    @GetMapping("/category/{slug}/cursor")
+    public ResponseEntity<PostCursorPageResponse> getPostByCategoryCursor(
+            @PathVariable String slug,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(postService.getPostByCategorySlug(slug, cursor, size));
+    }
+
     @Operation(summary = "Get post detail", description = "Returns a public post detail by slug, including approved comments and media.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Post found"),
@@ -97,6 +110,14 @@ public class PostController {
         return ResponseEntity.ok(dto);
     }
 
+    @Operation(summary = "List recent posts with a cursor", description = "Returns public post summaries, newest first. Pass the returned nextCursor to fetch the next slice; no total count is computed.")
+    @GetMapping("/recent/cursor")
+    public ResponseEntity<PostCursorPageResponse> getRecentPostsCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(postService.getRecentPosts(cursor, size));
+    }
+
     @Operation(summary = "React to post", description = "Adds a like or dislike for the client identifier. Repeating the same reaction returns 409 and does not increment counts.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Reaction recorded or switched"),
@@ -156,4 +177,14 @@ public class PostController {
         Page<PostSummaryDto> result = postService.searchPostsByCategorySlug(slug, q, PageRequest.of(page, size));
         return ResponseEntity.ok(result);
     }
+
+    @Operation(summary = "Suggest as you type",
+            description = "Returns post titles, category names and collection names with a word starting with the prefix, most viewed and liked first.")
+    @Tag(name = "Public Search")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(prefix, limit));
+    }
 }
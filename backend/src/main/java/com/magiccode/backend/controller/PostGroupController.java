@@ -2,6 +2,7 @@ package com.magiccode.backend.controller;
 
 import com.magiccode.backend.config.OpenApiConfig;
 import com.magiccode.backend.dto.ImageDto;
+import com.magiccode.backend.dto.PostCursorPageResponse;
 import com.magiccode.backend.dto.PostGroupDto;
 import com.magiccode.backend.dto.PostSummaryDto;
 import com.magiccode.backend.service.PostGroupService;
@@ -143,4 +144,14 @@ public class PostGroupController {
         Page<PostSummaryDto> result = postGroupService.getPostsByCollection(group.getId(), PageRequest.of(page, size));
         return ResponseEntity.ok(result);
     }
+
+    @Operation(summary = "List posts in collection with a cursor", description = "Returns public posts in a collection in collection order. Pass the returned nextCursor to fetch the next slice; no total count is computed.")
+    @GetMapping("/{slug}/posts/cursor")
+    public ResponseEntity<PostCursorPageResponse> getPostsInCollectionCursor(
+            @PathVariable String slug,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        PostGroupDto group = postGroupService.getBySlug(slug);
+        return ResponseEntity.ok(postGroupService.getPostsByCollection(group.getId(), cursor, size));
+    }
 }
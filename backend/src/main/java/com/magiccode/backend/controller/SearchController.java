@@ -0,0 +1,84 @@
+package com.magiccode.backend.controller;
+
+import com.magiccode.backend.config.OpenApiConfig;
+import com.magiccode.backend.dto.SearchAnalyticsDto;
+import com.magiccode.backend.dto.SearchResponse;
+import com.magiccode.backend.service.ClientSearchIndexService;
+import com.magiccode.backend.service.PostService;
+import com.magiccode.backend.service.SearchAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/search")
+@Tag(name = "Public Search")
+public class SearchController {
+    private final PostService postService;
+    private final SearchAnalyticsService searchAnalyticsService;
+    private final ClientSearchIndexService clientSearchIndexService;
+
+    @Operation(summary = "Search posts",
+            description = "Searches public posts, optionally within a category and/or collection. Misspelled words are corrected when the query as typed finds nothing.")
+    @GetMapping
+    public ResponseEntity<SearchResponse> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String collection,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(postService.search(q, category, collection, PageRequest.of(page, size)));
+    }
+
+    @Operation(summary = "Get the client search index",
+            description = "Returns title terms, a short excerpt, slug and category of every public post for searching in the browser. Sent gzip-compressed when the client accepts gzip. Revalidate with If-None-Match; the ETag changes only when the content does.")
+    @GetMapping("/index")
+    public ResponseEntity<byte[]> getIndex(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ClientSearchIndexService.Snapshot index = clientSearchIndexService.current();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .eTag("\"" + index.hash() + (gzip ? "-gzip" : "") + "\"");
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(index.gzip());
+        }
+        return response.body(index.uncompressed());
+    }
+
+    @Operation(summary = "Get search analytics",
+            description = "Returns the most frequent queries and zero-result queries over the last days, summed from flushed rollups. The current window is not included until it is flushed.")
+    @SecurityRequirement(name = OpenApiConfig.BEARER_AUTH)
+    @Tag(name = "Admin Search")
+    @PreAuthorize("hasRole('ROOT')")
+    @GetMapping("/admin/analytics")
+    public ResponseEntity<SearchAnalyticsDto> getAnalytics(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchAnalyticsService.getRollups(days, limit));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].strip().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
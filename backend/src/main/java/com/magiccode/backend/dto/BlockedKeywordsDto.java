@@ -0,0 +1,26 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Blocked keywords currently used by comment moderation.")
+public class BlockedKeywordsDto {
+    @Schema(description = "Admin-managed keywords, folded to lower case, sorted.", example = "[\"casino\",\"free money\"]")
+    private List<String> keywords;
+
+    @Schema(description = "Number of keywords set in blog.comment.moderation.blocked-keywords; these can only be changed in configuration.",
+            example = "3")
+    private int configuredCount;
+
+    @Schema(description = "Distinct keywords in the active matcher, configured and managed combined.", example = "5")
+    private int activeCount;
+}
@@ -0,0 +1,26 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Replaces the admin-managed blocked keyword list.")
+public class BlockedKeywordsRequest {
+    @NotNull(message = "keywords is required")
+    @Size(max = 50000, message = "keywords must contain at most 50000 entries")
+    @Schema(description = "Blocked keywords. Matching ignores case and full-width/compatibility forms; an empty list clears the managed keywords.",
+            example = "[\"casino\",\"free money\"]")
+    private List<@NotBlank(message = "keywords must not contain blank entries")
+            @Size(max = 100, message = "each keyword must be at most 100 characters") String> keywords;
+}
@@ -3,6 +3,7 @@ package com.magiccode.backend.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,7 +18,8 @@ import java.util.List;
 @Schema(description = "Bulk comment moderation request.")
 public class BulkCommentRequest {
     @NotEmpty(message = "commentIds must not be empty")
-    @Schema(description = "Comment ids to update.", example = "[1,2,3]")
+    @Size(max = 1000, message = "commentIds must contain at most 1000 ids")
+    @Schema(description = "Comment ids to update, at most 1000.", example = "[1,2,3]")
     private List<Long> commentIds;
 
     @NotNull(message = "action is required")
@@ -0,0 +1,44 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Approved comment with its nested approved replies.")
+public class CommentNodeDto {
+    @Schema(description = "Comment id.", example = "10")
+    private Long id;
+
+    @Schema(description = "Public display name.", example = "Reader")
+    private String name;
+
+    @Schema(description = "Comment content.", example = "Thanks for the post.")
+    private String content;
+
+    @Schema(description = "Creation time.", example = "2026-06-15T08:30:00")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Id of the comment this one replies to; may differ from the enclosing node when the thread is deeper than the nesting cap.",
+            example = "9", nullable = true)
+    private Long parentId;
+
+    @Schema(description = "Whether this comment was posted by an admin.", example = "false")
+    private boolean author;
+
+    @Schema(description = "Number of approved replies nested under this comment, at any depth.", example = "4")
+    private int replyCount;
+
+    @Schema(description = "Direct replies, oldest first.")
+    @Builder.Default
+    private List<CommentNodeDto> replies = new ArrayList<>();
+}
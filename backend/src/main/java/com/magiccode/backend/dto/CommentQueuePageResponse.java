@@ -0,0 +1,32 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Cursor-paged admin moderation queue ordered by createdAt, then id.")
+public class CommentQueuePageResponse {
+    @Schema(description = "Comments in the current slice.")
+    private List<CommentSearchResultDto> items;
+
+    @Schema(description = "Opaque cursor for the next slice; null when there are no more comments.")
+    private String nextCursor;
+
+    @Schema(description = "Whether another slice exists after this one.", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Requested slice size.", example = "20")
+    private int size;
+
+    @Schema(description = "Comments with the selected status (and post), read from the comment counters. Null when a keyword is set.",
+            example = "100", nullable = true)
+    private Long total;
+}
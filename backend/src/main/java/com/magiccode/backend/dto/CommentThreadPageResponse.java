@@ -0,0 +1,28 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Cursor-paged approved comment threads of a post, oldest thread first. No total count is computed.")
+public class CommentThreadPageResponse {
+    @Schema(description = "Top-level comments in the current slice, each with its replies nested.")
+    private List<CommentNodeDto> items;
+
+    @Schema(description = "Opaque cursor for the next slice; null when there are no more threads.", example = "42")
+    private String nextCursor;
+
+    @Schema(description = "Whether another slice exists after this one.", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Requested slice size.", example = "10")
+    private int size;
+}
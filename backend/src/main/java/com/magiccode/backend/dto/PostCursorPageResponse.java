@@ -0,0 +1,28 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Cursor-paged post summary list. No total count is computed.")
+public class PostCursorPageResponse {
+    @Schema(description = "Posts in the current slice.")
+    private List<PostSummaryDto> items;
+
+    @Schema(description = "Opaque cursor for the next slice; null when there are no more posts.", example = "dDoxNzUwMDAwMDAwOjA6NDI")
+    private String nextCursor;
+
+    @Schema(description = "Whether another slice exists after this one.", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Requested slice size.", example = "10")
+    private int size;
+}
@@ -13,7 +13,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Schema(description = "Full post detail response and admin post payload.")
 public class PostDetailDto {
     @Schema(description = "Post id.", example = "1")
@@ -37,7 +37,7 @@ public class PostDetailDto {
     private Integer viewCount;
     @Schema(description = "Category name.", example = "Blog")
     private String categoryName;
-    @Schema(description = "Approved public comments for this post.")
+    @Schema(description = "Always empty on the public detail response. Load approved comments from /api/comments/post/{postId}.")
     private List<CommentDto> comments;
     @Schema(description = "Embedded images.")
     private List<ImageDto> images;
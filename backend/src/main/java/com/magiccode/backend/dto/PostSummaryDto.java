@@ -33,8 +33,12 @@ public class PostSummaryDto {
     private Integer dislikeCount;
     @Schema(description = "View count.", example = "120")
     private Integer viewCount;
+    @Schema(description = "Approved comment count.", example = "4")
+    private Integer commentCount;
     @Schema(description = "Category name.", example = "Blog")
     private String categoryName;
     @Schema(description = "Collection names containing this post.", example = "[\"Notes\"]")
     private List<String> collectionNames;
+    @Schema(description = "Best-matching body window with highlight offsets. Only present in search results whose body matched.")
+    private SearchSnippetDto snippet;
 }
@@ -0,0 +1,38 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Most frequent search queries over a period, from flushed rollups. Counts are estimates that never undercount.")
+public class SearchAnalyticsDto {
+    @Schema(description = "Start of the period.", example = "2025-01-01T00:00:00")
+    private LocalDateTime since;
+
+    @Schema(description = "Most frequent queries.")
+    private List<QueryCount> popular;
+
+    @Schema(description = "Most frequent queries that returned no results.")
+    private List<QueryCount> zeroResult;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "A normalized query and its estimated count.")
+    public static class QueryCount {
+        @Schema(description = "Normalized query text.", example = "redis cache")
+        private String query;
+
+        @Schema(description = "Estimated number of searches.", example = "42")
+        private long count;
+    }
+}
@@ -0,0 +1,23 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Number of search hits in one category or collection.")
+public class SearchFacetDto {
+    @Schema(description = "Category or collection slug.", example = "notes")
+    private String slug;
+
+    @Schema(description = "Category or collection name.", example = "Notes")
+    private String name;
+
+    @Schema(description = "Matching posts in this category or collection.", example = "4")
+    private int count;
+}
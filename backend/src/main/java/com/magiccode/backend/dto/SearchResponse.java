@@ -0,0 +1,38 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "One page of post search results.")
+public class SearchResponse {
+    @Schema(description = "Matching posts, best match first.")
+    private List<PostSummaryDto> items;
+
+    @Schema(description = "Total number of matching posts.", example = "23")
+    private long total;
+
+    @Schema(description = "Zero-based page number.", example = "0")
+    private int page;
+
+    @Schema(description = "Requested page size.", example = "10")
+    private int size;
+
+    @Schema(description = "Corrected query when the query as typed matched nothing and the correction did; the items are its results. Null otherwise.",
+            example = "redis caching")
+    private String didYouMean;
+
+    @Schema(description = "Hits per category, most first. Ignores the category filter so other categories can be offered.")
+    private List<SearchFacetDto> categoryFacets;
+
+    @Schema(description = "Hits per collection, most first. Ignores the collection filter so other collections can be offered.")
+    private List<SearchFacetDto> collectionFacets;
+}
@@ -0,0 +1,40 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Window of the post body around the best query matches.")
+public class SearchSnippetDto {
+    @Schema(description = "Snippet text, at most about 160 characters of the raw body.", example = "整理了数据库索引的笔记 and some Spring tips")
+    private String text;
+
+    @Schema(description = "Whether the body continues before the snippet.", example = "true")
+    private boolean truncatedStart;
+
+    @Schema(description = "Whether the body continues after the snippet.", example = "false")
+    private boolean truncatedEnd;
+
+    @Schema(description = "Matched ranges, as UTF-16 offsets into text.")
+    private List<Highlight> highlights;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Highlighted range in the snippet text.")
+    public static class Highlight {
+        @Schema(description = "Start offset.", example = "3")
+        private int start;
+
+        @Schema(description = "Length in UTF-16 code units.", example = "3")
+        private int length;
+    }
+}
@@ -0,0 +1,23 @@
+package com.magiccode.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Search-as-you-type suggestion.")
+public class SuggestionDto {
+    @Schema(description = "What the suggestion links to.", example = "POST", allowableValues = {"POST", "CATEGORY", "COLLECTION"})
+    private String type;
+
+    @Schema(description = "Post title, category name, or collection name.", example = "Redis caching notes")
+    private String text;
+
+    @Schema(description = "Slug of the post, category, or collection.", example = "redis-caching")
+    private String slug;
+}
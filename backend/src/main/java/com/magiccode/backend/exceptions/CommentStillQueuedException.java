@@ -0,0 +1,24 @@
+package com.magiccode.backend.exceptions;
+
+import com.magiccode.backend.dto.CommentDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Answers {@code 503} when a queued comment was not committed in time. The
+ * comment stays queued; {@link #getResult()} completes once it is written.
+ */
+public class CommentStillQueuedException extends ResponseStatusException {
+    private final transient CompletableFuture<CommentDto> result;
+
+    public CommentStillQueuedException(String reason, CompletableFuture<CommentDto> result) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+        this.result = result;
+    }
+
+    public CompletableFuture<CommentDto> getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,11 @@
+package com.magiccode.backend.exceptions;
+
+/**
+ * Thrown in place of a result when the client went away and the query serving
+ * it was cancelled.
+ */
+public class QueryCancelledException extends RuntimeException {
+    public QueryCancelledException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,7 @@
 package com.magiccode.backend.mapping;
 
 import com.magiccode.backend.dto.CommentDto;
+import com.magiccode.backend.dto.CommentNodeDto;
 import com.magiccode.backend.dto.CreateCommentRequest;
 import com.magiccode.backend.model.Comment;
 import org.mapstruct.Mapper;
@@ -15,9 +16,15 @@ public interface CommentMapper {
 
     List<CommentDto> toCommentDtoList(List<Comment> comments);
 
+    @Mapping(source = "parent.id", target = "parentId")
+    @Mapping(target = "replyCount", ignore = true)
+    @Mapping(target = "replies", ignore = true)
+    CommentNodeDto toCommentNodeDto(Comment comment);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "post", ignore = true)
     @Mapping(target = "parent", ignore = true)
+    @Mapping(target = "rootId", ignore = true)
     @Mapping(target = "author", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "status", ignore = true)
@@ -26,6 +33,7 @@ public interface CommentMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "post", ignore = true)
+    @Mapping(target = "rootId", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "moderationReason", ignore = true)
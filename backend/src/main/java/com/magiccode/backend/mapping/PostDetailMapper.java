@@ -9,8 +9,16 @@ import org.mapstruct.Mapping;
 public interface PostDetailMapper {
     @Mapping(target = "categoryName", source = "category.name")
     @Mapping(target = "comments", source = "comments")
+    @Mapping(target = "collectionNames", ignore = true)
     PostDetailDto toPostDetailDto(Post post);
 
+    @Mapping(target = "categoryName", source = "category.name")
+    @Mapping(target = "comments", expression = "java(java.util.List.of())")
+    @Mapping(target = "images", ignore = true)
+    @Mapping(target = "videos", ignore = true)
+    @Mapping(target = "collectionNames", ignore = true)
+    PostDetailDto toPublicPostDetailDto(Post post);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "comments", ignore = true)
@@ -18,6 +26,10 @@ public interface PostDetailMapper {
     @Mapping(target = "likeCount", ignore = true)
     @Mapping(target = "dislikeCount", ignore = true)
     @Mapping(target = "viewCount", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
     @Mapping(target = "published", ignore = true)
+    @Mapping(target = "excerpt", ignore = true)
+    @Mapping(target = "categoryName", ignore = true)
+    @Mapping(target = "collectionNames", ignore = true)
     Post toPostEntity(PostDetailDto dto);
 }
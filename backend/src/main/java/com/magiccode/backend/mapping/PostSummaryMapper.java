@@ -1,19 +1,42 @@
 package com.magiccode.backend.mapping;
 
+import com.magiccode.backend.dto.PostCursorPageResponse;
 import com.magiccode.backend.dto.PostSummaryDto;
+import com.magiccode.backend.dto.SearchSnippetDto;
 import com.magiccode.backend.model.Post;
+import com.magiccode.backend.repository.PostSummaryRow;
+import com.magiccode.backend.search.Snippet;
+import com.magiccode.backend.util.PostCursor;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import org.springframework.data.domain.Slice;
+
 import java.util.List;
+import java.util.function.Function;
 
 @Mapper(componentModel = "spring")
 public interface PostSummaryMapper {
-    @Mapping(target = "excerpt", expression = "java(post.getContent()!=null&&post.getContent().length()>150?post.getContent().substring(0,150)+\"...\":post.getContent())")
-    @Mapping(target = "categoryName", source = "category.name")
-    PostSummaryDto toPostSummaryDto(Post post);
+    @Mapping(target = "collectionNames", expression = "java(row.collectionNameList())")
+    @Mapping(target = "snippet", ignore = true)
+    PostSummaryDto toPostSummaryDto(PostSummaryRow row);
+
+    SearchSnippetDto toSearchSnippetDto(Snippet snippet);
+
+    List<PostSummaryDto> toPostSummaryDtoList(List<PostSummaryRow> rows);
 
-    List<PostSummaryDto> toPostSummaryDtoList(List<Post> posts);
+    default PostCursorPageResponse toCursorPage(Slice<PostSummaryRow> slice, Function<PostSummaryRow, PostCursor> cursorOf) {
+        List<PostSummaryRow> rows = slice.getContent();
+        String nextCursor = slice.hasNext() && !rows.isEmpty()
+                ? cursorOf.apply(rows.get(rows.size() - 1)).encode()
+                : null;
+        return PostCursorPageResponse.builder()
+                .items(toPostSummaryDtoList(rows))
+                .nextCursor(nextCursor)
+                .hasNext(slice.hasNext())
+                .size(slice.getSize())
+                .build();
+    }
 
 
     @Mapping(target = "id", ignore = true)
@@ -23,6 +46,10 @@ public interface PostSummaryMapper {
     @Mapping(target = "likeCount", ignore = true)
     @Mapping(target = "dislikeCount", ignore = true)
     @Mapping(target = "viewCount", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
     @Mapping(target = "published", ignore = true)
+    @Mapping(target = "excerpt", ignore = true)
+    @Mapping(target = "categoryName", ignore = true)
+    @Mapping(target = "collectionNames", ignore = true)
     Post toPostEntity(PostSummaryDto dto);
 }
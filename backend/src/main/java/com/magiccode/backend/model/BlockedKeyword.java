@@ -0,0 +1,28 @@
+package com.magiccode.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Comment moderation keyword managed from the admin API, on top of the ones
+ * configured in {@code blog.comment.moderation.blocked-keywords}. Stored
+ * folded (NFKC, lower case).
+ */
+@Entity
+@Table(name = "comment_blocked_keywords",
+        uniqueConstraints = @UniqueConstraint(name = "uk_comment_blocked_keywords_keyword", columnNames = "keyword"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlockedKeyword {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String keyword;
+}
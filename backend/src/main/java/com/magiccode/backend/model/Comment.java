@@ -11,7 +11,13 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments",
+        indexes = {
+                @Index(name = "idx_comments_post_status_root", columnList = "post_id, status, root_id, id"),
+                @Index(name = "idx_comments_root_status", columnList = "root_id, status, id"),
+                @Index(name = "idx_comments_status_created", columnList = "status, created_at, id"),
+                @Index(name = "idx_comments_post_status_created", columnList = "post_id, status, created_at, id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +40,9 @@ public class Comment {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private Comment parent;
+    // Top-level comment of the thread; null for top-level comments themselves.
+    @Column(name = "root_id")
+    private Long rootId;
 
     @Column(nullable = false)
     private boolean author = false;
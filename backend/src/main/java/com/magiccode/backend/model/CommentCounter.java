@@ -0,0 +1,37 @@
+package com.magiccode.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Number of comments of one post in one moderation status. Maintained by
+ * CommentCounterService in the same transaction as the comment write.
+ */
+@Entity
+@Table(name = "comment_counters")
+@IdClass(CommentCounter.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommentCounter {
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private CommentStatus status;
+
+    @Column(name = "comment_count", nullable = false)
+    private long count;
+
+    public record Key(Long postId, CommentStatus status) implements Serializable {
+    }
+}
@@ -12,6 +12,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "like_logs", uniqueConstraints = {
         @UniqueConstraint(name = "uk_like_logs_post_identifier", columnNames = {"post_id", "identifier"})
+}, indexes = {
+        @Index(name = "idx_like_logs_created", columnList = "created_at, id")
 })
 @Data
 @NoArgsConstructor
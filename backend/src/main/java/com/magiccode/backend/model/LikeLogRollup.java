@@ -0,0 +1,30 @@
+package com.magiccode.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Likes and dislikes of one post whose {@link LikeLog} rows were compacted
+ * away by the retention job. A post's counts are its remaining like logs plus
+ * this row.
+ */
+@Entity
+@Table(name = "like_log_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LikeLogRollup {
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Column(nullable = false)
+    private long likes;
+
+    @Column(nullable = false)
+    private long dislikes;
+}
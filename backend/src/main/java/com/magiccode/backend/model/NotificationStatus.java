@@ -0,0 +1,7 @@
+package com.magiccode.backend.model;
+
+public enum NotificationStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -13,7 +14,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts",
+        indexes = {
+                @Index(name = "idx_posts_published_created_id", columnList = "published, created_at, id"),
+                @Index(name = "idx_posts_category_created_id", columnList = "category_id, created_at, id")
+        })
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -48,6 +54,18 @@ public class Post {
     @Column(nullable = false)
     @Builder.Default
     private Integer viewCount = 0;
+    // APPROVED comments; maintained by CommentCounterService.
+    @Column(name = "comment_count", nullable = false)
+    @Builder.Default
+    private Integer commentCount = 0;
+
+    // Denormalized summary read model, maintained by PostSummaryService so listings never load content.
+    @Column(length = 200)
+    private String excerpt;
+    @Column(name = "category_name", length = 50)
+    private String categoryName;
+    @Column(name = "collection_names", columnDefinition = "TEXT")
+    private String collectionNames;
 
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> comments = new ArrayList<>();
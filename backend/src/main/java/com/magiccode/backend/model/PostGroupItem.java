@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
         uniqueConstraints = @UniqueConstraint(columnNames = {"post_group_id", "post_id"}),
         indexes = {
                 @Index(name = "idx_post_group_items_group", columnList = "post_group_id"),
-                @Index(name = "idx_post_group_items_post", columnList = "post_id")
+                @Index(name = "idx_post_group_items_post", columnList = "post_id"),
+                @Index(name = "idx_post_group_items_group_order", columnList = "post_group_id, order_index, post_id")
         })
 @Data
 @NoArgsConstructor
@@ -0,0 +1,44 @@
+package com.magiccode.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estimated count of one search query within one flush window. Only the
+ * heaviest queries of each window are written.
+ */
+@Entity
+@Table(name = "search_query_rollups",
+        indexes = @Index(name = "idx_search_query_rollups_kind_window", columnList = "kind, window_start"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchQueryRollup {
+    public enum Kind {POPULAR, ZERO_RESULT}
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Kind kind;
+
+    @Column(nullable = false, length = 100)
+    private String query;
+
+    @Column(name = "query_count", nullable = false)
+    private long count;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+}
@@ -0,0 +1,244 @@
+package com.magiccode.backend.moderation;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over blocked keywords and link markers, used to
+ * review a comment in one pass regardless of how many keywords are blocked.
+ *
+ * <p>Keywords and scanned text are both folded with {@link #fold}: NFKC
+ * normalization, so full-width and compatibility forms match their plain
+ * spelling, then lower case. The link markers {@code http://},
+ * {@code https://} and {@code www.} are extra patterns in the same automaton.
+ * While walking the text the scan also tracks the current run of identical
+ * code points, so keywords, links and repeated characters cost one loop.</p>
+ *
+ * <p>Transitions are stored as one sorted edge range per state and looked up
+ * by binary search; failure links are followed at scan time instead of being
+ * expanded into a full table, which keeps 10k keywords to a few megabytes.
+ * Instances are immutable and safe to share; reloading builds a new one.</p>
+ */
+public final class KeywordAutomaton {
+    static final List<String> LINK_MARKERS = List.of("http://", "https://", "www.");
+    // Same threshold as the (.)\1{9,} rule it replaces: ten or more in a row.
+    static final int REPEAT_LIMIT = 10;
+
+    private static final int KEYWORD = 1;
+
+    private final int keywordCount;
+    private final int[] edgeStart;
+    private final char[] edgeChar;
+    private final int[] edgeTarget;
+    private final int[] fail;
+    private final int[] flags;
+    private final int[] links;
+
+    private KeywordAutomaton(int keywordCount, int[] edgeStart, char[] edgeChar, int[] edgeTarget,
+                             int[] fail, int[] flags, int[] links) {
+        this.keywordCount = keywordCount;
+        this.edgeStart = edgeStart;
+        this.edgeChar = edgeChar;
+        this.edgeTarget = edgeTarget;
+        this.fail = fail;
+        this.flags = flags;
+        this.links = links;
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    public static KeywordAutomaton build(Collection<String> keywords) {
+        Set<String> folded = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            String value = fold(keyword).strip();
+            if (!value.isEmpty()) {
+                folded.add(value);
+            }
+        }
+
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> trieFlags = new ArrayList<>();
+        List<Integer> trieLinks = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        trieFlags.add(0);
+        trieLinks.add(0);
+        Map<String, Integer> ends = new HashMap<>();
+        for (String pattern : concat(folded, LINK_MARKERS)) {
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = trie.get(state).get(pattern.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    trieFlags.add(0);
+                    trieLinks.add(0);
+                    trie.get(state).put(pattern.charAt(i), next);
+                }
+                state = next;
+            }
+            ends.put(pattern, state);
+        }
+        for (String keyword : folded) {
+            int state = ends.get(keyword);
+            trieFlags.set(state, trieFlags.get(state) | KEYWORD);
+        }
+        for (String marker : LINK_MARKERS) {
+            int state = ends.get(marker);
+            trieLinks.set(state, 1);
+        }
+
+        int states = trie.size();
+        int[] edgeStart = new int[states + 1];
+        int edges = 0;
+        for (int state = 0; state < states; state++) {
+            edgeStart[state] = edges;
+            edges += trie.get(state).size();
+        }
+        edgeStart[states] = edges;
+        char[] edgeChar = new char[edges];
+        int[] edgeTarget = new int[edges];
+        int[] flags = new int[states];
+        int[] links = new int[states];
+        for (int state = 0; state < states; state++) {
+            int edge = edgeStart[state];
+            for (Map.Entry<Character, Integer> entry : trie.get(state).entrySet()) {
+                edgeChar[edge] = entry.getKey();
+                edgeTarget[edge] = entry.getValue();
+                edge++;
+            }
+            flags[state] = trieFlags.get(state);
+            links[state] = trieLinks.get(state);
+        }
+
+        // Breadth-first, so a state's failure target is finished before the state itself.
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int edge = edgeStart[0]; edge < edgeStart[1]; edge++) {
+            queue.add(edgeTarget[edge]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            flags[state] |= flags[fail[state]];
+            links[state] += links[fail[state]];
+            for (int edge = edgeStart[state]; edge < edgeStart[state + 1]; edge++) {
+                int child = edgeTarget[edge];
+                int fallback = fail[state];
+                int target;
+                while ((target = child(edgeStart, edgeChar, edgeTarget, fallback, edgeChar[edge])) < 0 && fallback != 0) {
+                    fallback = fail[fallback];
+                }
+                fail[child] = target < 0 ? 0 : target;
+                queue.add(child);
+            }
+        }
+        return new KeywordAutomaton(folded.size(), edgeStart, edgeChar, edgeTarget, fail, flags, links);
+    }
+
+    /**
+     * Scans already folded text. Links are only counted when they end at or
+     * after {@code linkRegionStart}. Stops at the first blocked keyword.
+     */
+    public Scan scan(String folded, int linkRegionStart) {
+        int state = 0;
+        int linkCount = 0;
+        boolean repeated = false;
+        int previous = -1;
+        int run = 0;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            state = next(state, c);
+            if ((flags[state] & KEYWORD) != 0) {
+                return new Scan(true, repeated, linkCount);
+            }
+            if (i >= linkRegionStart) {
+                linkCount += links[state];
+            }
+
+            if (Character.isLowSurrogate(c) && i > 0 && Character.isHighSurrogate(folded.charAt(i - 1))) {
+                continue;
+            }
+            int codePoint = folded.codePointAt(i);
+            if (codePoint == previous && !isLineTerminator(codePoint)) {
+                run++;
+                repeated |= run >= REPEAT_LIMIT;
+            } else {
+                previous = codePoint;
+                run = 1;
+            }
+        }
+        return new Scan(false, repeated, linkCount);
+    }
+
+    public int keywordCount() {
+        return keywordCount;
+    }
+
+    public int stateCount() {
+        return fail.length;
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            int target = child(edgeStart, edgeChar, edgeTarget, state, c);
+            if (target >= 0) {
+                return target;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private static int child(int[] edgeStart, char[] edgeChar, int[] edgeTarget, int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = edgeChar[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return edgeTarget[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isLineTerminator(int codePoint) {
+        return codePoint == '\n' || codePoint == '\r' || codePoint == '\u0085'
+                || codePoint == 0x2028 || codePoint == 0x2029;
+    }
+
+    private static List<String> concat(Collection<String> keywords, List<String> markers) {
+        List<String> patterns = new ArrayList<>(keywords.size() + markers.size());
+        patterns.addAll(keywords);
+        patterns.addAll(markers);
+        return patterns;
+    }
+
+    /**
+     * What one pass over a comment found. {@code links} counts link markers in
+     * the link region; {@code repeatedCharacters} is set once ten identical
+     * code points appear in a row.
+     */
+    public record Scan(boolean blockedKeyword, boolean repeatedCharacters, int links) {
+    }
+}
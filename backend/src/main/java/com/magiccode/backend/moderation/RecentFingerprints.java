@@ -0,0 +1,146 @@
+package com.magiccode.backend.moderation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of recent {@link SimHash} fingerprints with an LSH index for
+ * finding the ones within a few bits of a new fingerprint.
+ *
+ * <p>The 64 bits are split into {@code maxDistance + 1} bands. Two fingerprints
+ * at most {@code maxDistance} bits apart must agree on at least one whole band,
+ * so looking up each band's bucket finds every near match; candidates are then
+ * confirmed by their exact distance. Each bucket is a chain from the newest
+ * entry to older ones, so a lookup stops at the first entry that has left the
+ * time window or been overwritten by the ring.</p>
+ *
+ * <p>No locks: a writer claims a slot from a sequence counter and publishes the
+ * entry by writing its sequence number last; readers check that number after
+ * reading an entry and stop if it changed. A reader racing a writer can miss
+ * that writer's entry or stop a chain early, which costs at most a missed
+ * match. Memory is fixed at construction.</p>
+ */
+public final class RecentFingerprints {
+    private final int mask;
+    private final long windowMillis;
+    private final int maxDistance;
+    private final int[] bandShift;
+    private final long[] bandMask;
+    private final int bucketMask;
+    private final AtomicLong sequence = new AtomicLong();
+    // Per slot: sequence number of the entry it holds, 0 while empty or being written.
+    private final AtomicLongArray slotSequence;
+    private final AtomicLongArray fingerprints;
+    private final AtomicLongArray times;
+    // Per band: newest sequence number per bucket, and the next older one per slot.
+    private final AtomicLongArray[] heads;
+    private final AtomicLongArray[] older;
+
+    public RecentFingerprints(int capacity, long windowMillis, int maxDistance) {
+        if (maxDistance < 0 || maxDistance > 7) {
+            throw new IllegalArgumentException("maxDistance must be between 0 and 7");
+        }
+        int slots = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = slots - 1;
+        this.windowMillis = windowMillis;
+        this.maxDistance = maxDistance;
+
+        int bands = maxDistance + 1;
+        this.bandShift = new int[bands];
+        this.bandMask = new long[bands];
+        int shift = 0;
+        for (int band = 0; band < bands; band++) {
+            int width = Long.SIZE / bands + (band < Long.SIZE % bands ? 1 : 0);
+            bandShift[band] = shift;
+            bandMask[band] = width == Long.SIZE ? -1L : (1L << width) - 1;
+            shift += width;
+        }
+        this.bucketMask = mask;
+
+        this.slotSequence = new AtomicLongArray(slots);
+        this.fingerprints = new AtomicLongArray(slots);
+        this.times = new AtomicLongArray(slots);
+        this.heads = new AtomicLongArray[bands];
+        this.older = new AtomicLongArray[bands];
+        for (int band = 0; band < bands; band++) {
+            heads[band] = new AtomicLongArray(slots);
+            older[band] = new AtomicLongArray(slots);
+        }
+    }
+
+    /**
+     * Records a fingerprint seen at {@code timeMillis}, overwriting the oldest
+     * entry once the ring is full. {@link SimHash#NONE} is ignored.
+     */
+    public void add(long fingerprint, long timeMillis) {
+        if (fingerprint == SimHash.NONE) {
+            return;
+        }
+        long seq = sequence.incrementAndGet();
+        int slot = (int) (seq & mask);
+        slotSequence.set(slot, 0L);
+        fingerprints.set(slot, fingerprint);
+        times.set(slot, timeMillis);
+        for (int band = 0; band < heads.length; band++) {
+            long previous = heads[band].getAndSet(bucket(band, fingerprint), seq);
+            older[band].set(slot, previous);
+        }
+        slotSequence.set(slot, seq);
+    }
+
+    /**
+     * Counts distinct entries within the window and at most {@code maxDistance}
+     * bits from {@code fingerprint}, stopping once {@code limit} are found.
+     */
+    public int countNear(long fingerprint, long nowMillis, int limit) {
+        if (fingerprint == SimHash.NONE || limit <= 0) {
+            return 0;
+        }
+        long since = nowMillis - windowMillis;
+        long[] found = new long[limit];
+        int count = 0;
+        for (int band = 0; band < heads.length; band++) {
+            long seq = heads[band].get(bucket(band, fingerprint));
+            for (int steps = 0; seq != 0 && steps <= mask; steps++) {
+                int slot = (int) (seq & mask);
+                long candidate = fingerprints.get(slot);
+                long time = times.get(slot);
+                long next = older[band].get(slot);
+                if (slotSequence.get(slot) != seq || time < since) {
+                    // Overwritten, mid-write or expired: everything older in the chain is too.
+                    break;
+                }
+                if (SimHash.distance(candidate, fingerprint) <= maxDistance && !contains(found, count, seq)) {
+                    found[count++] = seq;
+                    if (count == limit) {
+                        return count;
+                    }
+                }
+                if (next >= seq) {
+                    break;
+                }
+                seq = next;
+            }
+        }
+        return count;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private int bucket(int band, long fingerprint) {
+        long value = (fingerprint >>> bandShift[band]) & bandMask[band];
+        long hash = (value + band) * 0x9e3779b97f4a7c15L;
+        return (int) (hash >>> 32) & bucketMask;
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
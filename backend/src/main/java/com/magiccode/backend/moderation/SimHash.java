@@ -0,0 +1,85 @@
+package com.magiccode.backend.moderation;
+
+import java.util.Arrays;
+
+/**
+ * 64-bit SimHash of comment text, for spotting near-duplicates.
+ *
+ * <p>The text is folded with {@link KeywordAutomaton#fold}, reduced to letters
+ * and digits with runs of anything else collapsed to one space, and cut into
+ * overlapping three-code-point shingles. Shingles work for languages written
+ * without spaces as well as for ones with them. Each shingle votes on every
+ * bit with its own 64-bit hash; the fingerprint keeps the majority. Texts that
+ * share most shingles end up a few bits apart, so small edits (a swapped word,
+ * a changed link, extra punctuation) move the fingerprint only a little.</p>
+ */
+public final class SimHash {
+    /** Fingerprint returned for text too short to compare meaningfully. */
+    public static final long NONE = 0L;
+    static final int SHINGLE = 3;
+    static final int MIN_CODE_POINTS = 20;
+
+    private SimHash() {
+    }
+
+    public static long fingerprint(String text) {
+        int[] codePoints = normalize(KeywordAutomaton.fold(text));
+        if (codePoints.length < MIN_CODE_POINTS) {
+            return NONE;
+        }
+        int[] votes = new int[Long.SIZE];
+        for (int i = 0; i + SHINGLE <= codePoints.length; i++) {
+            long hash = hash(codePoints, i);
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                votes[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+        }
+        long fingerprint = 0L;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        // NONE is reserved; a real all-zero fingerprint is vanishingly rare.
+        return fingerprint == NONE ? 1L : fingerprint;
+    }
+
+    public static int distance(long left, long right) {
+        return Long.bitCount(left ^ right);
+    }
+
+    private static int[] normalize(String folded) {
+        int[] codePoints = new int[folded.length()];
+        int length = 0;
+        boolean space = false;
+        for (int i = 0; i < folded.length(); ) {
+            int codePoint = folded.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (space && length > 0) {
+                    codePoints[length++] = ' ';
+                }
+                codePoints[length++] = codePoint;
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return Arrays.copyOf(codePoints, length);
+    }
+
+    private static long hash(int[] codePoints, int start) {
+        // FNV-1a over the shingle, then a 64-bit finalizer to spread the bits.
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < start + SHINGLE; i++) {
+            hash ^= codePoints[i];
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,14 @@
+package com.magiccode.backend.repository;
+
+import com.magiccode.backend.model.BlockedKeyword;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BlockedKeywordRepository extends JpaRepository<BlockedKeyword, Long> {
+    @Query("SELECT k.keyword FROM BlockedKeyword k ORDER BY k.keyword")
+    List<String> findAllKeywords();
+}
@@ -2,8 +2,10 @@ package com.magiccode.backend.repository;
 
 import com.magiccode.backend.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +18,9 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
 
     Optional<Category> findByName(String name);
+
+    // Suggestion feed: id, name, slug and the summed popularity of its published posts.
+    @Query("SELECT c.id, c.name, c.slug, COALESCE(SUM(p.viewCount + 5 * p.likeCount), 0) FROM Category c " +
+            "LEFT JOIN Post p ON p.category = c AND p.published = true GROUP BY c.id, c.name, c.slug")
+    List<Object[]> findSuggestionRows();
 }
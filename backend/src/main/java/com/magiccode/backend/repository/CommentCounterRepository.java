@@ -0,0 +1,22 @@
+package com.magiccode.backend.repository;
+
+import com.magiccode.backend.model.CommentCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CommentCounterRepository extends JpaRepository<CommentCounter, CommentCounter.Key> {
+    List<CommentCounter> findByPostId(Long postId);
+
+    @Query("SELECT c.status, SUM(c.count) FROM CommentCounter c GROUP BY c.status")
+    List<Object[]> sumByStatus();
+
+    @Modifying
+    @Query("DELETE FROM CommentCounter c WHERE c.postId IN :postIds")
+    int deleteByPostIds(@Param("postIds") List<Long> postIds);
+}
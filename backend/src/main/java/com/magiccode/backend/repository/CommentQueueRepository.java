@@ -0,0 +1,27 @@
+package com.magiccode.backend.repository;
+
+import com.magiccode.backend.model.CommentStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset-paged id lookup for the admin moderation queue, mixed into
+ * {@link CommentRepository}.
+ */
+public interface CommentQueueRepository {
+
+    /**
+     * Ids of the comments matching {@code filter}, in queue order, starting
+     * after the filter's cursor.
+     */
+    List<Long> findQueueIds(QueueFilter filter, int limit);
+
+    /**
+     * Queue filters. A null {@code status} means every status; a null
+     * {@code afterCreatedAt} starts at the head of the queue.
+     */
+    record QueueFilter(CommentStatus status, Long postId, String keyword, boolean ascending,
+                       LocalDateTime afterCreatedAt, Long afterId) {
+    }
+}
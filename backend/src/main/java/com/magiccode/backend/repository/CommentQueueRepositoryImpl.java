@@ -0,0 +1,82 @@
+package com.magiccode.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds the queue query as native SQL so the keyword filter can use the
+ * {@code ft_comments_name_email_content} ngram FULLTEXT index (migration 010)
+ * when {@code blog.comment.search.fulltext=true}. Without it, or for a
+ * one-character keyword the ngram index cannot match, the keyword falls back
+ * to {@code LIKE} over the comment columns. Paging walks
+ * {@code (created_at, id)} so deep pages cost the same as the first.
+ */
+public class CommentQueueRepositoryImpl implements CommentQueueRepository {
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final boolean fullText;
+
+    public CommentQueueRepositoryImpl(@Value("${blog.comment.search.fulltext:false}") boolean fullText) {
+        this.fullText = fullText;
+    }
+
+    @Override
+    public List<Long> findQueueIds(QueueFilter filter, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT c.id FROM comments c WHERE 1 = 1");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (filter.status() != null) {
+            sql.append(" AND c.status = :status");
+            parameters.put("status", filter.status().name());
+        }
+        if (filter.postId() != null) {
+            sql.append(" AND c.post_id = :postId");
+            parameters.put("postId", filter.postId());
+        }
+        String keyword = filter.keyword() == null ? "" : filter.keyword().strip();
+        if (!keyword.isEmpty()) {
+            if (fullText && keyword.codePointCount(0, keyword.length()) >= NGRAM_TOKEN_SIZE) {
+                sql.append(" AND MATCH(c.name, c.email, c.content) AGAINST (:keyword IN BOOLEAN MODE)");
+                parameters.put("keyword", "\"" + keyword.replace("\"", " ") + "\"");
+            } else {
+                sql.append(" AND (LOWER(c.name) LIKE :keyword OR LOWER(c.email) LIKE :keyword" +
+                        " OR LOWER(c.content) LIKE :keyword)");
+                parameters.put("keyword", "%" + escapeLike(keyword.toLowerCase(Locale.ROOT)) + "%");
+            }
+        }
+        String direction = filter.ascending() ? "ASC" : "DESC";
+        if (filter.afterCreatedAt() != null) {
+            String comparison = filter.ascending() ? ">" : "<";
+            sql.append(" AND (c.created_at ").append(comparison).append(" :afterCreatedAt")
+                    .append(" OR (c.created_at = :afterCreatedAt AND c.id ").append(comparison).append(" :afterId))");
+            parameters.put("afterCreatedAt", filter.afterCreatedAt());
+            parameters.put("afterId", filter.afterId());
+        }
+        sql.append(" ORDER BY c.created_at ").append(direction).append(", c.id ").append(direction);
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setHint(QueryBudgets.TIMEOUT_HINT, Integer.parseInt(QueryBudgets.ADMIN_LISTING_MS))
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        List<?> rows = query.getResultList();
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            ids.add(((Number) row).longValue());
+        }
+        return ids;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -2,29 +2,103 @@ package com.magiccode.backend.repository;
 
 import com.magiccode.backend.model.Comment;
 import com.magiccode.backend.model.CommentStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface CommentRepository extends JpaRepository<Comment, Long>, JpaSpecificationExecutor<Comment> {
+public interface CommentRepository extends JpaRepository<Comment, Long>, JpaSpecificationExecutor<Comment>,
+        CommentQueueRepository {
     List<Comment> findByPostIdAndStatusOrderByCreatedAtAsc(Long postId, CommentStatus status);
 
-    long countByStatus(CommentStatus status);
+    // Threaded view: top-level comments in id order after the cursor, then every
+    // reply of that slice in one query.
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.status = :status " +
+            "AND c.rootId IS NULL AND c.id > :afterId ORDER BY c.id ASC")
+    Slice<Comment> findThreadRootsAfter(@Param("postId") Long postId,
+                                        @Param("status") CommentStatus status,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
 
-    @Query("SELECT c FROM Comment c JOIN c.post p WHERE " +
+    @Query("SELECT c FROM Comment c WHERE c.rootId IN :rootIds AND c.status = :status ORDER BY c.id ASC")
+    List<Comment> findRepliesByRootIds(@Param("rootIds") List<Long> rootIds, @Param("status") CommentStatus status);
+
+    // Newest visitor comments first, walking the primary key; callers drop rows
+    // older than they need.
+    @Query("SELECT c.content, c.createdAt FROM Comment c WHERE c.author = false ORDER BY c.id DESC")
+    List<Object[]> findRecentVisitorContent(Pageable pageable);
+
+    // Rows are (id, post id, root id); seeds the ingest queue's parent checks.
+    @Query("SELECT c.id, c.post.id, c.rootId FROM Comment c")
+    List<Object[]> findThreadRefs();
+
+    // Rows are (id, author, status, email): what a reply notification needs from its parent.
+    @Query("SELECT c.id, c.author, c.status, c.email FROM Comment c WHERE c.id IN :ids")
+    List<Object[]> findNotificationRefsByIds(@Param("ids") Collection<Long> ids);
+
+    // Admin moderation listing; the hint also covers the page's count query.
+    @Override
+    @EntityGraph(attributePaths = {"post", "parent"})
+    @QueryHints(@QueryHint(name = QueryBudgets.TIMEOUT_HINT, value = QueryBudgets.ADMIN_LISTING_MS))
+    Page<Comment> findAll(Specification<Comment> spec, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = QueryBudgets.TIMEOUT_HINT, value = QueryBudgets.ADMIN_SEARCH_MS))
+    @Query("SELECT c FROM Comment c JOIN FETCH c.post p LEFT JOIN FETCH c.parent WHERE " +
             "LOWER(c.content) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.slug) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
             "ORDER BY c.createdAt DESC")
-    List<Comment> searchByKeyword(@Param("keyword") String keyword);
+    List<Comment> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+
+    // Moderation queue page: the rows behind findQueueIds, with post and parent in the same select.
+    @Query("SELECT c FROM Comment c JOIN FETCH c.post LEFT JOIN FETCH c.parent WHERE c.id IN :ids")
+    List<Comment> findWithPostAndParentByIdIn(@Param("ids") List<Long> ids);
+
+    // Bulk moderation: id, post id and status of the selected rows, locked until the
+    // set-based update below commits so the counter deltas stay exact.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c.id, c.post.id, c.status FROM Comment c WHERE c.id IN :ids")
+    List<Object[]> lockStatusesByIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.status = com.magiccode.backend.model.CommentStatus.APPROVED, " +
+            "c.moderationReason = NULL WHERE c.id IN :ids")
+    int approveByIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.status = :status WHERE c.id IN :ids")
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("status") CommentStatus status);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    // Retention: the oldest REJECTED comments before the cutoff that nobody replied to,
+    // as (id, post id), locked until the batch deleting them commits.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c.id, c.post.id FROM Comment c " +
+            "WHERE c.status = com.magiccode.backend.model.CommentStatus.REJECTED AND c.createdAt < :cutoff " +
+            "AND NOT EXISTS (SELECT r.id FROM Comment r WHERE r.parent.id = c.id) " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Object[]> lockRejectedLeavesBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 
     @Modifying
     @Transactional
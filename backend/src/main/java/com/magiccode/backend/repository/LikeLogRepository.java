@@ -1,13 +1,17 @@
 package com.magiccode.backend.repository;
 
 import com.magiccode.backend.model.LikeLog;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +29,16 @@ public interface LikeLogRepository extends JpaRepository<LikeLog, Long> {
     @Transactional
     @Query("DELETE FROM LikeLog l WHERE l.post.id IN :postIds")
     void deleteByPostIdIn(@Param("postIds") List<Long> postIds);
+
+    // Retention: the oldest like logs before the cutoff (rows without a timestamp count as
+    // oldest) as (id, post id, positive), locked until the batch folding them into
+    // like_log_rollups commits.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l.id, l.post.id, l.positive FROM LikeLog l WHERE l.createdAt IS NULL OR l.createdAt < :cutoff " +
+            "ORDER BY l.createdAt ASC, l.id ASC")
+    List<Object[]> lockCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM LikeLog l WHERE l.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
 }
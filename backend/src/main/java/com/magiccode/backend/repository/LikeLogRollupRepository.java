@@ -0,0 +1,17 @@
+package com.magiccode.backend.repository;
+
+import com.magiccode.backend.model.LikeLogRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LikeLogRollupRepository extends JpaRepository<LikeLogRollup, Long> {
+    @Modifying
+    @Query("DELETE FROM LikeLogRollup r WHERE r.postId IN :postIds")
+    int deleteByPostIds(@Param("postIds") List<Long> postIds);
+}
@@ -0,0 +1,45 @@
+package com.magiccode.backend.repository;
+
+import com.magiccode.backend.model.NotificationOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Recipients with at least one unclaimed row due now, longest waiting first.
+    @Query("SELECT o.recipient FROM NotificationOutbox o " +
+            "WHERE o.status = com.magiccode.backend.model.NotificationStatus.PENDING " +
+            "AND o.nextAttemptAt <= :now AND (o.claimedUntil IS NULL OR o.claimedUntil < :now) " +
+            "GROUP BY o.recipient ORDER BY MIN(o.nextAttemptAt)")
+    List<String> findDueRecipients(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Claims every unclaimed row of one recipient due before the digest horizon.
+    // Two dispatchers racing for the same rows serialize on the row locks; the
+    // loser sees them claimed and updates nothing.
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.claimToken = :token, o.claimedUntil = :leaseUntil " +
+            "WHERE o.recipient = :recipient " +
+            "AND o.status = com.magiccode.backend.model.NotificationStatus.PENDING " +
+            "AND o.nextAttemptAt <= :horizon AND (o.claimedUntil IS NULL OR o.claimedUntil < :now)")
+    int claim(@Param("recipient") String recipient,
+              @Param("token") String token,
+              @Param("now") LocalDateTime now,
+              @Param("horizon") LocalDateTime horizon,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<NotificationOutbox> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.magiccode.backend.model.NotificationStatus.SENT, " +
+            "o.sentAt = :sentAt, o.attempts = o.attempts + 1, o.claimToken = NULL, o.claimedUntil = NULL " +
+            "WHERE o.claimToken = :token")
+    int markSent(@Param("token") String token, @Param("sentAt") LocalDateTime sentAt);
+}
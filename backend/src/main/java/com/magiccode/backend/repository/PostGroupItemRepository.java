@@ -5,11 +5,13 @@ import com.magiccode.backend.model.PostGroupItem;
 import com.magiccode.backend.model.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,28 +34,38 @@ public interface PostGroupItemRepository extends JpaRepository<PostGroupItem, Lo
     @Query("DELETE FROM PostGroupItem pgi WHERE pgi.post IN :posts")
     void deleteByPostIn(@Param("posts") List<Post> posts);
 
-    @Query("SELECT p FROM PostGroupItem pgi JOIN pgi.post p WHERE pgi.postGroup.id = :groupId " +
-            "AND p.published = true AND p.slug != :draftSlug " +
+    @Query(value = PostSummaryRow.SELECT + "FROM PostGroupItem pgi JOIN pgi.post p WHERE pgi.postGroup.id = :groupId " +
+            "AND p.published = true AND p.slug <> :draftSlug " +
+            "ORDER BY pgi.orderIndex ASC",
+            countQuery = "SELECT COUNT(pgi) FROM PostGroupItem pgi JOIN pgi.post p WHERE pgi.postGroup.id = :groupId " +
+                    "AND p.published = true AND p.slug <> :draftSlug")
+    Page<PostSummaryRow> findPostsByGroupId(@Param("groupId") Long groupId,
+                                            @Param("draftSlug") String draftSlug,
+                                            Pageable pageable);
+
+    @Query(PostSummaryRow.COLLECTION_SELECT + "FROM PostGroupItem pgi JOIN pgi.post p WHERE pgi.postGroup.id = :groupId " +
+            "AND p.published = true AND p.slug <> :draftSlug " +
+            "AND (pgi.orderIndex > :orderIndex OR (pgi.orderIndex = :orderIndex AND p.id > :postId)) " +
+            "ORDER BY pgi.orderIndex ASC, p.id ASC")
+    Slice<PostSummaryRow> findPostsByGroupIdAfter(@Param("groupId") Long groupId,
+                                                  @Param("draftSlug") String draftSlug,
+                                                  @Param("orderIndex") Integer orderIndex,
+                                                  @Param("postId") Long postId,
+                                                  Pageable pageable);
+
+    @Query(PostSummaryRow.SELECT + "FROM PostGroupItem pgi JOIN pgi.post p WHERE pgi.postGroup.id = :groupId " +
             "ORDER BY pgi.orderIndex ASC")
-    Page<Post> findPostsByGroupId(@Param("groupId") Long groupId,
-                                  @Param("draftSlug") String draftSlug,
-                                  Pageable pageable);
-
-    @Query("SELECT p FROM PostGroupItem pgi JOIN pgi.post p WHERE pgi.postGroup.id = :groupId " +
-            "AND p.published = true AND p.slug != :draftSlug " +
-            "AND (p.title LIKE %:keyword% OR p.content LIKE %:keyword%) " +
-            "ORDER BY " +
-            "(CASE WHEN p.title LIKE %:keyword% THEN 10 ELSE 0 END + " +
-            " CASE WHEN p.content LIKE %:keyword% THEN 1 ELSE 0 END) DESC, " +
-            "pgi.orderIndex ASC")
-    Page<Post> searchPostsByGroupIdAndKeyword(@Param("groupId") Long groupId,
-                                              @Param("keyword") String keyword,
-                                              @Param("draftSlug") String draftSlug,
-                                              Pageable pageable);
+    List<PostSummaryRow> findAllPostsByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT pgi.post.id, pgi.postGroup.id FROM PostGroupItem pgi WHERE pgi.post.id IN :postIds")
+    List<Object[]> findGroupIdsByPostIds(@Param("postIds") Collection<Long> postIds);
 
     @Query("SELECT pgi.post.id, pg.name FROM PostGroupItem pgi JOIN pgi.postGroup pg WHERE pgi.post.id IN :postIds")
     List<Object[]> findCollectionNamesByPostIds(@Param("postIds") List<Long> postIds);
 
+    @Query("SELECT pg.name FROM PostGroupItem pgi JOIN pgi.postGroup pg WHERE pgi.post.id = :postId")
+    List<String> findCollectionNamesByPostId(@Param("postId") Long postId);
+
     @Query("SELECT pgi.post.id FROM PostGroupItem pgi WHERE pgi.postGroup.id = :groupId")
     List<Long> findPostIdsByGroupId(@Param("groupId") Long groupId);
 
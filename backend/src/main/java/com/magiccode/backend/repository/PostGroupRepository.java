@@ -2,6 +2,8 @@ package com.magiccode.backend.repository;
 
 import com.magiccode.backend.model.PostGroup;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +14,10 @@ public interface PostGroupRepository extends JpaRepository<PostGroup, Long> {
     boolean existsBySlug(String slug);
 
     List<PostGroup> findByNameContainingIgnoreCase(String keyword);
+
+    // Suggestion feed: id, name, slug and the summed popularity of its published posts.
+    @Query("SELECT g.id, g.name, g.slug, COALESCE(SUM(p.viewCount + 5 * p.likeCount), 0) FROM PostGroup g " +
+            "LEFT JOIN PostGroupItem i ON i.postGroup = g LEFT JOIN Post p ON p = i.post AND p.published = true " +
+            "WHERE g.slug <> :draftSlug GROUP BY g.id, g.name, g.slug")
+    List<Object[]> findSuggestionRows(@Param("draftSlug") String draftSlug);
 }
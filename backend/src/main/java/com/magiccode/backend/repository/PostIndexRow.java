@@ -0,0 +1,16 @@
+package com.magiccode.backend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection read by the search index: the searchable text of a visible post
+ * and the scopes it can be filtered by.
+ */
+public record PostIndexRow(Long id,
+                           String title,
+                           String content,
+                           Long categoryId,
+                           LocalDateTime createdAt) {
+    public static final String SELECT = "SELECT new com.magiccode.backend.repository.PostIndexRow(" +
+            "p.id, p.title, p.content, p.category.id, p.createdAt) ";
+}
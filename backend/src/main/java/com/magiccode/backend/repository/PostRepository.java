@@ -1,46 +1,134 @@
 package com.magiccode.backend.repository;
 
-import com.magiccode.backend.model.Category;
 import com.magiccode.backend.model.Post;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
-    List<Post> findByCategory(Category category);
+    // Visibility and optional category / collection filters shared by the FULLTEXT queries.
+    String FULLTEXT_SCOPE = "AND p.published = TRUE AND p.slug <> :draftSlug " +
+            "AND (:categoryId IS NULL OR p.category_id = :categoryId) " +
+            "AND (:collectionId IS NULL OR EXISTS (SELECT 1 FROM post_group_items i " +
+            "WHERE i.post_id = p.id AND i.post_group_id = :collectionId)) ";
 
     Post findBySlug(String slug);
 
-//    List<Post> findByOrderByCreatedAtDesc(Pageable pageable);
-
-    @Query("SELECT p FROM Post p WHERE p.published = true AND " +
-            "(p.title LIKE %:keyword% OR p.content LIKE %:keyword%) " +
-            "ORDER BY " +
-            "(CASE WHEN p.title LIKE %:keyword% THEN 10 ELSE 0 END + " +
-            " CASE WHEN p.content LIKE %:keyword% THEN 1 ELSE 0 END) DESC, " +
-            "p.createdAt DESC")
-    List<Post> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
-
-    // Page<Post> findByCategory(Category category, Pageable pageable);
-    Page<Post> findByCategoryAndSlugNot(Category category, String slug, Pageable pageable);
-    Page<Post> findByCategoryAndPublishedTrueAndSlugNot(Category category, String slug, Pageable pageable);
-    List<Post> findBySlugNotOrderByCreatedAtDesc(String slug, Pageable pageable);
-    List<Post> findByPublishedTrueAndSlugNotOrderByCreatedAtDesc(String slug, Pageable pageable);
-
-    @Query("SELECT p FROM Post p WHERE p.category.slug = :slug AND p.published = true AND p.slug != :draftSlug " +
-            "AND (p.title LIKE %:keyword% OR p.content LIKE %:keyword%) " +
-            "ORDER BY " +
-            "(CASE WHEN p.title LIKE %:keyword% THEN 10 ELSE 0 END + " +
-            " CASE WHEN p.content LIKE %:keyword% THEN 1 ELSE 0 END) DESC, " +
-            "p.createdAt DESC")
-    Page<Post> searchByCategorySlugAndKeyword(@Param("slug") String slug,
-                                              @Param("keyword") String keyword,
-                                              @Param("draftSlug") String draftSlug,
-                                              Pageable pageable);
+    @Query("SELECT p.id FROM Post p")
+    List<Long> findAllIds();
+
+    // Rows are (id, title); lets the ingest queue word notifications without loading posts.
+    @Query("SELECT p.id, p.title FROM Post p WHERE p.id IN :ids")
+    List<Object[]> findTitlesByIds(@Param("ids") Collection<Long> ids);
+
+    // Post detail read path: category is joined in the same select, comments are never touched.
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Post p WHERE p.slug = :slug")
+    Post findDetailBySlug(@Param("slug") String slug);
+
+    @Query("SELECT p FROM Post p WHERE p.excerpt IS NULL ORDER BY p.id")
+    List<Post> findWithoutSummary(Pageable pageable);
+
+    @Query(value = PostSummaryRow.SELECT + "FROM Post p WHERE p.category.id = :categoryId " +
+            "AND p.published = true AND p.slug <> :draftSlug",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.category.id = :categoryId " +
+                    "AND p.published = true AND p.slug <> :draftSlug")
+    Page<PostSummaryRow> findSummariesByCategoryId(@Param("categoryId") Long categoryId,
+                                                   @Param("draftSlug") String draftSlug,
+                                                   Pageable pageable);
+
+    @Query(PostSummaryRow.SELECT + "FROM Post p WHERE p.published = true AND p.slug <> :draftSlug " +
+            "ORDER BY p.createdAt DESC")
+    List<PostSummaryRow> findRecentSummaries(@Param("draftSlug") String draftSlug, Pageable pageable);
+
+    // Keyset variants: the cursor is the (createdAt, id) of the last row the client saw.
+    @Query(PostSummaryRow.SELECT + "FROM Post p WHERE p.published = true AND p.slug <> :draftSlug " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<PostSummaryRow> findRecentSummariesBefore(@Param("draftSlug") String draftSlug,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id,
+                                                    Pageable pageable);
+
+    @Query(PostSummaryRow.SELECT + "FROM Post p WHERE p.category.id = :categoryId " +
+            "AND p.published = true AND p.slug <> :draftSlug " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<PostSummaryRow> findSummariesByCategoryIdBefore(@Param("categoryId") Long categoryId,
+                                                          @Param("draftSlug") String draftSlug,
+                                                          @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("id") Long id,
+                                                          Pageable pageable);
+
+    @QueryHints(@QueryHint(name = QueryBudgets.TIMEOUT_HINT, value = QueryBudgets.PUBLIC_SEARCH_MS))
+    @Query(PostSummaryRow.SELECT + "FROM Post p WHERE p.id IN :ids")
+    List<PostSummaryRow> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Search index feed: visible posts only, scanned in id order so a rebuild never holds more than one batch.
+    @Query(PostIndexRow.SELECT + "FROM Post p WHERE p.id > :afterId AND p.published = true " +
+            "AND p.slug <> :draftSlug ORDER BY p.id")
+    List<PostIndexRow> findIndexRowsAfter(@Param("afterId") Long afterId,
+                                          @Param("draftSlug") String draftSlug,
+                                          Pageable pageable);
+
+    @Query(PostIndexRow.SELECT + "FROM Post p WHERE p.id IN :ids AND p.published = true AND p.slug <> :draftSlug")
+    List<PostIndexRow> findIndexRowsByIds(@Param("ids") Collection<Long> ids, @Param("draftSlug") String draftSlug);
+
+    // FULLTEXT search backend (MySQL only, needs migration 005): id and natural-language relevance, best first.
+    @QueryHints(@QueryHint(name = QueryBudgets.TIMEOUT_HINT, value = QueryBudgets.PUBLIC_SEARCH_MS))
+    @Query(value = "SELECT p.id, MATCH(p.title, p.content) AGAINST(:text IN NATURAL LANGUAGE MODE) AS score " +
+            "FROM posts p WHERE MATCH(p.title, p.content) AGAINST(:text IN NATURAL LANGUAGE MODE) " +
+            FULLTEXT_SCOPE + "ORDER BY score DESC, p.id DESC LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Object[]> findFullTextMatches(@Param("text") String text,
+                                       @Param("categoryId") Long categoryId,
+                                       @Param("collectionId") Long collectionId,
+                                       @Param("draftSlug") String draftSlug,
+                                       @Param("offset") int offset,
+                                       @Param("limit") int limit);
+
+    @QueryHints(@QueryHint(name = QueryBudgets.TIMEOUT_HINT, value = QueryBudgets.PUBLIC_SEARCH_MS))
+    @Query(value = "SELECT COUNT(*) FROM posts p " +
+            "WHERE MATCH(p.title, p.content) AGAINST(:text IN NATURAL LANGUAGE MODE) " + FULLTEXT_SCOPE,
+            nativeQuery = true)
+    long countFullTextMatches(@Param("text") String text,
+                              @Param("categoryId") Long categoryId,
+                              @Param("collectionId") Long collectionId,
+                              @Param("draftSlug") String draftSlug);
+
+    // Suggestion feed: id, title, slug and popularity (views + 5 * likes) of visible posts.
+    @Query("SELECT p.id, p.title, p.slug, p.viewCount + 5 * p.likeCount FROM Post p " +
+            "WHERE p.published = true AND p.slug <> :draftSlug")
+    List<Object[]> findSuggestionRows(@Param("draftSlug") String draftSlug);
+
+    @Query("SELECT p.id, p.title, p.slug, p.viewCount + 5 * p.likeCount FROM Post p " +
+            "WHERE p.id IN :ids AND p.published = true AND p.slug <> :draftSlug")
+    List<Object[]> findSuggestionRowsByIds(@Param("ids") Collection<Long> ids, @Param("draftSlug") String draftSlug);
+
+    // Client search index feed: id, title, slug, excerpt, category slug and name of visible posts, in id order.
+    @Query("SELECT p.id, p.title, p.slug, p.excerpt, c.slug, c.name FROM Post p LEFT JOIN p.category c " +
+            "WHERE p.id > :afterId AND p.published = true AND p.slug <> :draftSlug ORDER BY p.id")
+    List<Object[]> findClientIndexRowsAfter(@Param("afterId") Long afterId,
+                                            @Param("draftSlug") String draftSlug,
+                                            Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.categoryName = :name WHERE p.category.id = :categoryId")
+    int updateCategoryName(@Param("categoryId") Long categoryId, @Param("name") String name);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.collectionNames = :names WHERE p.id = :postId")
+    int updateCollectionNames(@Param("postId") Long postId, @Param("names") String names);
 }
@@ -0,0 +1,47 @@
+package com.magiccode.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Listing projection over the denormalized summary columns of {@code posts}.
+ * Never carries the post body. {@code orderIndex} is only selected by
+ * collection listings, where it is part of the keyset cursor.
+ */
+public record PostSummaryRow(Long id,
+                             String title,
+                             String slug,
+                             String excerpt,
+                             LocalDateTime createdAt,
+                             Integer likeCount,
+                             Integer dislikeCount,
+                             Integer viewCount,
+                             Integer commentCount,
+                             String categoryName,
+                             String collectionNames,
+                             Integer orderIndex) {
+    public static final String COLLECTION_NAME_SEPARATOR = "\n";
+
+    public static final String SELECT = "SELECT new com.magiccode.backend.repository.PostSummaryRow(" +
+            "p.id, p.title, p.slug, p.excerpt, p.createdAt, p.likeCount, p.dislikeCount, p.viewCount, p.commentCount, " +
+            "p.categoryName, p.collectionNames) ";
+
+    public static final String COLLECTION_SELECT = "SELECT new com.magiccode.backend.repository.PostSummaryRow(" +
+            "p.id, p.title, p.slug, p.excerpt, p.createdAt, p.likeCount, p.dislikeCount, p.viewCount, p.commentCount, " +
+            "p.categoryName, p.collectionNames, pgi.orderIndex) ";
+
+    public PostSummaryRow(Long id, String title, String slug, String excerpt, LocalDateTime createdAt,
+                          Integer likeCount, Integer dislikeCount, Integer viewCount, Integer commentCount,
+                          String categoryName, String collectionNames) {
+        this(id, title, slug, excerpt, createdAt, likeCount, dislikeCount, viewCount, commentCount,
+                categoryName, collectionNames, null);
+    }
+
+    public List<String> collectionNameList() {
+        if (collectionNames == null || collectionNames.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(collectionNames.split(COLLECTION_NAME_SEPARATOR));
+    }
+}
@@ -0,0 +1,18 @@
+package com.magiccode.backend.repository;
+
+/**
+ * Statement time budgets per query class, in milliseconds, for use with
+ * {@link #TIMEOUT_HINT}. The driver cancels a statement that runs past its
+ * budget and the repository call fails with a
+ * {@link org.springframework.dao.QueryTimeoutException}, so a slow scan gives
+ * its pooled connection back instead of holding it until it finishes.
+ */
+public final class QueryBudgets {
+    private QueryBudgets() {}
+
+    public static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    public static final String PUBLIC_SEARCH_MS = "2000";
+    public static final String ADMIN_SEARCH_MS = "5000";
+    public static final String ADMIN_LISTING_MS = "5000";
+}
@@ -0,0 +1,21 @@
+package com.magiccode.backend.repository;
+
+import com.magiccode.backend.model.SearchQueryRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SearchQueryRollupRepository extends JpaRepository<SearchQueryRollup, Long> {
+    // Query and summed estimate across windows starting at or after :since, heaviest first.
+    @Query("SELECT r.query, SUM(r.count) FROM SearchQueryRollup r WHERE r.kind = :kind AND r.windowStart >= :since " +
+            "GROUP BY r.query ORDER BY SUM(r.count) DESC, r.query")
+    List<Object[]> sumByQuerySince(@Param("kind") SearchQueryRollup.Kind kind,
+                                   @Param("since") LocalDateTime since,
+                                   Pageable pageable);
+}
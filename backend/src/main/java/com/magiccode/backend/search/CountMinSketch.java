@@ -0,0 +1,67 @@
+package com.magiccode.backend.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Fixed-size frequency estimator. Each key increments one counter in every
+ * row; its estimate is the smallest of those counters, which never
+ * undercounts and overcounts by at most about {@code total * e / width} with
+ * probability {@code 1 - e^-depth}. Not thread-safe.
+ */
+public class CountMinSketch {
+    private final long[][] counters;
+    private final int width;
+
+    public CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.counters = new long[depth][width];
+    }
+
+    /**
+     * Counts one occurrence of {@code key} and returns its new estimate.
+     */
+    public long add(String key) {
+        long[] hashes = hashes(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            int column = column(hashes, row);
+            estimate = Math.min(estimate, ++counters[row][column]);
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        long[] hashes = hashes(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row][column(hashes, row)]);
+        }
+        return estimate;
+    }
+
+    public void clear() {
+        for (long[] row : counters) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    public long estimatedBytes() {
+        return 16 + (long) counters.length * (16 + 8L * width);
+    }
+
+    private int column(long[] hashes, int row) {
+        // Kirsch-Mitzenmacher: row i uses h1 + i * h2.
+        return (int) Math.floorMod(hashes[0] + row * hashes[1], (long) width);
+    }
+
+    private static long[] hashes(String key) {
+        long h1 = 0xcbf29ce484222325L;
+        long h2 = 0x9e3779b97f4a7c15L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h1 = (h1 ^ (b & 0xff)) * 0x100000001b3L;
+            h2 = Long.rotateLeft(h2 ^ (b & 0xff), 27) * 0xc2b2ae3d27d4eb4fL;
+        }
+        return new long[]{h1, h2 | 1};
+    }
+}
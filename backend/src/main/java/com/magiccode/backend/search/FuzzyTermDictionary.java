@@ -0,0 +1,150 @@
+package com.magiccode.backend.search;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bigram index over the Latin-script terms of an {@link InvertedIndex}, used
+ * to find the closest known term for a misspelled query term.
+ *
+ * <p>Terms are padded with a boundary marker before they are cut into
+ * bigrams. One edit changes at most two bigrams, so any term within edit
+ * distance k of a query term shares all but 2k of the query term's distinct
+ * bigrams. That bound prunes the dictionary to a handful of candidates,
+ * which are then checked with a Levenshtein distance that gives up once it
+ * exceeds k. Terms shorter than {@link #MIN_LENGTH} are never
+ * corrected; up to {@link #LONG_TERM} characters allow one edit, longer terms
+ * two. Not thread-safe; the owning index guards it with its own lock.</p>
+ */
+class FuzzyTermDictionary {
+    static final int MIN_LENGTH = 3;
+    static final int LONG_TERM = 5;
+    private static final char BOUNDARY = '\u0002';
+
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+
+    static boolean accepts(String term) {
+        boolean letter = false;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (Tokenizer.isCjk(c)) {
+                return false;
+            }
+            letter |= Character.isLetter(c);
+        }
+        return letter && term.length() >= MIN_LENGTH;
+    }
+
+    static int maxEdits(String term) {
+        return term.length() <= LONG_TERM ? 1 : 2;
+    }
+
+    void add(String term) {
+        if (accepts(term)) {
+            for (String gram : grams(term)) {
+                termsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+            }
+        }
+    }
+
+    void remove(String term) {
+        if (accepts(term)) {
+            for (String gram : grams(term)) {
+                Set<String> terms = termsByGram.get(gram);
+                if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                    termsByGram.remove(gram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        termsByGram.clear();
+    }
+
+    /**
+     * Returns the known term closest to {@code term}, preferring fewer edits,
+     * then the term found in more documents, then alphabetical order; or null
+     * when nothing is close enough.
+     */
+    String closest(String term, ToIntFunction<String> documentFrequency) {
+        if (!accepts(term)) {
+            return null;
+        }
+        int maxEdits = maxEdits(term);
+        Set<String> grams = grams(term);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String candidate : termsByGram.getOrDefault(gram, Set.of())) {
+                shared.merge(candidate, 1, Integer::sum);
+            }
+        }
+        String best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestFrequency = 0;
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            String candidate = entry.getKey();
+            if (Math.abs(candidate.length() - term.length()) > maxEdits
+                    || entry.getValue() < grams.size() - 2 * maxEdits) {
+                continue;
+            }
+            int distance = distance(term, candidate, maxEdits);
+            if (distance == 0 || distance > maxEdits) {
+                continue;
+            }
+            int frequency = documentFrequency.applyAsInt(candidate);
+            if (distance < bestDistance
+                    || (distance == bestDistance && (frequency > bestFrequency
+                    || (frequency == bestFrequency && candidate.compareTo(best) < 0)))) {
+                best = candidate;
+                bestDistance = distance;
+                bestFrequency = frequency;
+            }
+        }
+        return best;
+    }
+
+    int gramCount() {
+        return termsByGram.size();
+    }
+
+    /**
+     * Levenshtein distance, or {@code limit + 1} as soon as every cell of a row
+     * exceeds {@code limit}.
+     */
+    static int distance(String a, String b, int limit) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = BOUNDARY + term + BOUNDARY;
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 2 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 2));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,15 @@
+package com.magiccode.backend.search;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Everything the search index needs to know about one visible post.
+ */
+public record IndexedPost(Long id,
+                          String title,
+                          String content,
+                          Long categoryId,
+                          LocalDateTime createdAt,
+                          Set<Long> collectionIds) {
+}
@@ -0,0 +1,465 @@
+package com.magiccode.backend.search;
+
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over post titles and bodies with BM25 ranking.
+ *
+ * <p>Posts are addressed by dense ordinals so that category and collection
+ * scopes are plain {@link BitSet}s intersected with the candidate set. Title
+ * occurrences count {@link #TITLE_BOOST} times. Queries match posts that
+ * contain every query term. Reads share a lock; a write replaces one post's
+ * postings under the exclusive lock.</p>
+ *
+ * <p>Body postings keep the character offset of every occurrence, and the
+ * body itself is retained, so {@link #snippet} can cut a highlighted window
+ * without tokenizing or scanning the post again.</p>
+ *
+ * <p>Latin-script terms are also kept in a {@link FuzzyTermDictionary}, so
+ * {@link #correct} can map a misspelled query onto terms that exist.</p>
+ */
+public class InvertedIndex {
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int TITLE_BOOST = 3;
+    static final int SNIPPET_WINDOW = 160;
+    static final int SNIPPET_LEAD = 40;
+    static final int MAX_OCCURRENCES_PER_TERM = 256;
+    static final int MAX_HIGHLIGHTS = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalByPostId = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<String, Map<Integer, Posting>> postings = new HashMap<>();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<Long, BitSet> byCollection = new HashMap<>();
+    private final FuzzyTermDictionary dictionary = new FuzzyTermDictionary();
+    private long totalLength;
+
+    public void put(IndexedPost post) {
+        Map<String, Posting> terms = new HashMap<>();
+        int length = 0;
+        for (String term : Tokenizer.terms(post.title())) {
+            terms.computeIfAbsent(term, t -> new Posting()).titleTf++;
+            length++;
+        }
+        for (Tokenizer.Token token : Tokenizer.tokenize(post.content())) {
+            terms.computeIfAbsent(token.term(), t -> new Posting()).addOccurrence(token.start());
+            length++;
+        }
+        terms.values().forEach(Posting::trim);
+        long createdAt = post.createdAt() == null ? 0 : post.createdAt().toEpochSecond(ZoneOffset.UTC);
+        Set<Long> collectionIds = post.collectionIds() == null ? Set.of() : Set.copyOf(post.collectionIds());
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(post.id());
+            int ordinal = freeOrdinals.isEmpty() ? docs.size() : freeOrdinals.pop();
+            Doc doc = new Doc(post.id(), post.categoryId(), createdAt, length, terms.keySet(), collectionIds,
+                    post.content() == null ? "" : post.content());
+            if (ordinal == docs.size()) {
+                docs.add(doc);
+            } else {
+                docs.set(ordinal, doc);
+            }
+            ordinalByPostId.put(post.id(), ordinal);
+            terms.forEach((term, posting) -> postings.computeIfAbsent(term, t -> {
+                dictionary.add(t);
+                return new HashMap<>();
+            }).put(ordinal, posting));
+            if (post.categoryId() != null) {
+                byCategory.computeIfAbsent(post.categoryId(), id -> new BitSet()).set(ordinal);
+            }
+            collectionIds.forEach(id -> byCollection.computeIfAbsent(id, c -> new BitSet()).set(ordinal));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinalByPostId.clear();
+            docs.clear();
+            freeOrdinals.clear();
+            postings.clear();
+            byCategory.clear();
+            byCollection.clear();
+            dictionary.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every matching post ranked by BM25 score, newest first on ties.
+     */
+    public List<SearchHit> search(String text, Long categoryId, Long collectionId) {
+        return search(text, categoryId, collectionId, false).hits();
+    }
+
+    /**
+     * Ranks matching posts like {@link #search(String, Long, Long)} and, when
+     * asked, counts them per category and per collection. The match set is
+     * collected as a bitmap during the same pass that scores the posts, then
+     * intersected with each category and collection bitmap. Category counts
+     * apply the collection scope only, and collection counts the category
+     * scope only.
+     */
+    public Matches search(String text, Long categoryId, Long collectionId, boolean withFacets) {
+        Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.terms(text));
+        if (queryTerms.isEmpty()) {
+            return Matches.none(withFacets);
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Integer, Posting>> termPostings = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                Map<Integer, Posting> termPosting = postings.get(term);
+                if (termPosting == null) {
+                    return Matches.none(withFacets);
+                }
+                termPostings.add(termPosting);
+            }
+            BitSet scope = scope(categoryId, collectionId);
+            if (scope != null && scope.isEmpty() && !withFacets) {
+                return Matches.none(false);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            BitSet matched = withFacets ? new BitSet() : null;
+
+            int documents = ordinalByPostId.size();
+            double averageLength = documents == 0 ? 1 : Math.max(1, (double) totalLength / documents);
+            List<ScoredDoc> scored = new ArrayList<>();
+            candidates:
+            for (Integer ordinal : termPostings.get(0).keySet()) {
+                if (scope != null && !scope.get(ordinal) && matched == null) {
+                    continue;
+                }
+                Doc doc = docs.get(ordinal);
+                double norm = K1 * (1 - B + B * doc.length / averageLength);
+                double score = 0;
+                for (Map<Integer, Posting> termPosting : termPostings) {
+                    Posting posting = termPosting.get(ordinal);
+                    if (posting == null) {
+                        continue candidates;
+                    }
+                    double df = termPosting.size();
+                    double idf = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+                    double tf = TITLE_BOOST * posting.titleTf + posting.contentTf;
+                    score += idf * tf * (K1 + 1) / (tf + norm);
+                }
+                if (matched != null) {
+                    matched.set(ordinal);
+                }
+                if (scope == null || scope.get(ordinal)) {
+                    scored.add(new ScoredDoc(doc, score));
+                }
+            }
+            scored.sort(Comparator.comparingDouble(ScoredDoc::score).reversed()
+                    .thenComparing(s -> s.doc.createdAt, Comparator.reverseOrder())
+                    .thenComparing(s -> s.doc.postId, Comparator.reverseOrder()));
+            List<SearchHit> hits = new ArrayList<>(scored.size());
+            for (ScoredDoc s : scored) {
+                hits.add(new SearchHit(s.doc.postId, s.score));
+            }
+            return new Matches(hits, matched == null ? null : facets(matched, categoryId, collectionId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Picks the body window of {@link #SNIPPET_WINDOW} characters that covers
+     * the most distinct query terms, then the most occurrences. Returns null
+     * when the query only matched the title. Work per call is bounded by
+     * {@link #MAX_OCCURRENCES_PER_TERM} for each query term.
+     */
+    public Snippet snippet(Long postId, String text) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.terms(text)));
+        List<int[]> occurrences = new ArrayList<>();
+        String content;
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalByPostId.get(postId);
+            if (ordinal == null) {
+                return null;
+            }
+            content = docs.get(ordinal).content;
+            for (int t = 0; t < queryTerms.size(); t++) {
+                Map<Integer, Posting> termPosting = postings.get(queryTerms.get(t));
+                Posting posting = termPosting == null ? null : termPosting.get(ordinal);
+                if (posting == null) {
+                    continue;
+                }
+                int termLength = queryTerms.get(t).length();
+                for (int i = 0; i < Math.min(posting.contentTf, MAX_OCCURRENCES_PER_TERM); i++) {
+                    occurrences.add(new int[]{posting.starts[i], posting.starts[i] + termLength, t});
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (occurrences.isEmpty()) {
+            return null;
+        }
+        occurrences.sort(Comparator.comparingInt(o -> o[0]));
+
+        int[] termCounts = new int[queryTerms.size()];
+        int distinct = 0;
+        int best = 0;
+        int bestRight = 0;
+        long bestScore = -1;
+        int right = 0;
+        for (int left = 0; left < occurrences.size(); left++) {
+            while (right < occurrences.size()
+                    && occurrences.get(right)[1] <= occurrences.get(left)[0] + SNIPPET_WINDOW) {
+                if (termCounts[occurrences.get(right)[2]]++ == 0) {
+                    distinct++;
+                }
+                right++;
+            }
+            long score = (long) distinct * MAX_HIGHLIGHTS * MAX_OCCURRENCES_PER_TERM + (right - left);
+            if (score > bestScore) {
+                bestScore = score;
+                best = left;
+                bestRight = right;
+            }
+            if (--termCounts[occurrences.get(left)[2]] == 0) {
+                distinct--;
+            }
+        }
+
+        int first = occurrences.get(best)[0];
+        int last = occurrences.get(Math.max(best, bestRight - 1))[1];
+        int start = Math.max(0, first - Math.min(SNIPPET_LEAD, Math.max(0, (SNIPPET_WINDOW - (last - first)) / 2)));
+        int end = Math.min(content.length(), start + SNIPPET_WINDOW);
+        start = Math.max(0, Math.min(start, end - SNIPPET_WINDOW));
+        if (start > 0 && Character.isLowSurrogate(content.charAt(start))) {
+            start--;
+        }
+        if (end < content.length() && Character.isLowSurrogate(content.charAt(end))) {
+            end++;
+        }
+
+        List<Snippet.Highlight> highlights = new ArrayList<>();
+        int openStart = -1;
+        int openEnd = -1;
+        for (int[] occurrence : occurrences) {
+            if (occurrence[0] < start || occurrence[1] > end) {
+                continue;
+            }
+            if (openStart >= 0 && occurrence[0] <= openEnd) {
+                openEnd = Math.max(openEnd, occurrence[1]);
+                continue;
+            }
+            if (openStart >= 0) {
+                highlights.add(new Snippet.Highlight(openStart - start, openEnd - openStart));
+            }
+            if (highlights.size() == MAX_HIGHLIGHTS) {
+                openStart = -1;
+                break;
+            }
+            openStart = occurrence[0];
+            openEnd = occurrence[1];
+        }
+        if (openStart >= 0) {
+            highlights.add(new Snippet.Highlight(openStart - start, openEnd - openStart));
+        }
+        // Same-length replacement keeps highlight offsets valid.
+        String window = content.substring(start, end).replace('\n', ' ').replace('\r', ' ').replace('\t', ' ');
+        return new Snippet(window, start > 0, end < content.length(), highlights);
+    }
+
+    /**
+     * Rewrites Latin-script query terms that no post contains to the closest
+     * indexed term (see {@link FuzzyTermDictionary}), leaving the rest of the
+     * text as typed. Returns null when no term needed or found a correction.
+     */
+    public String correct(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder corrected = new StringBuilder(text.length());
+        int copied = 0;
+        lock.readLock().lock();
+        try {
+            for (Tokenizer.Token token : Tokenizer.tokenize(text)) {
+                if (postings.containsKey(token.term())) {
+                    continue;
+                }
+                String closest = dictionary.closest(token.term(), term -> postings.get(term).size());
+                if (closest != null) {
+                    corrected.append(text, copied, token.start()).append(closest);
+                    copied = token.end();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (copied == 0) {
+            return null;
+        }
+        return corrected.append(text, copied, text.length()).toString();
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return ordinalByPostId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SearchFacets facets(BitSet matched, Long categoryId, Long collectionId) {
+        return new SearchFacets(
+                counts(byCategory, collectionId == null ? matched : within(matched, byCollection.get(collectionId))),
+                counts(byCollection, categoryId == null ? matched : within(matched, byCategory.get(categoryId))));
+    }
+
+    private static BitSet within(BitSet matched, BitSet members) {
+        BitSet scoped = (BitSet) matched.clone();
+        if (members == null) {
+            scoped.clear();
+        } else {
+            scoped.and(members);
+        }
+        return scoped;
+    }
+
+    private static Map<Long, Integer> counts(Map<Long, BitSet> sets, BitSet matched) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (matched.isEmpty()) {
+            return counts;
+        }
+        for (Map.Entry<Long, BitSet> entry : sets.entrySet()) {
+            BitSet overlap = (BitSet) entry.getValue().clone();
+            overlap.and(matched);
+            int count = overlap.cardinality();
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    private BitSet scope(Long categoryId, Long collectionId) {
+        BitSet scope = null;
+        if (categoryId != null) {
+            scope = (BitSet) byCategory.getOrDefault(categoryId, new BitSet()).clone();
+        }
+        if (collectionId != null) {
+            BitSet members = byCollection.getOrDefault(collectionId, new BitSet());
+            if (scope == null) {
+                scope = (BitSet) members.clone();
+            } else {
+                scope.and(members);
+            }
+        }
+        return scope;
+    }
+
+    private void removeLocked(Long postId) {
+        Integer ordinal = ordinalByPostId.remove(postId);
+        if (ordinal == null) {
+            return;
+        }
+        Doc doc = docs.set(ordinal, null);
+        for (String term : doc.terms) {
+            Map<Integer, Posting> termPosting = postings.get(term);
+            termPosting.remove(ordinal);
+            if (termPosting.isEmpty()) {
+                postings.remove(term);
+                dictionary.remove(term);
+            }
+        }
+        if (doc.categoryId != null) {
+            clearBit(byCategory, doc.categoryId, ordinal);
+        }
+        doc.collectionIds.forEach(id -> clearBit(byCollection, id, ordinal));
+        totalLength -= doc.length;
+        freeOrdinals.push(ordinal);
+    }
+
+    private static void clearBit(Map<Long, BitSet> sets, Long key, int ordinal) {
+        BitSet set = sets.get(key);
+        if (set != null) {
+            set.clear(ordinal);
+            if (set.isEmpty()) {
+                sets.remove(key);
+            }
+        }
+    }
+
+    private static final class Posting {
+        private static final int[] NO_STARTS = new int[0];
+
+        int titleTf;
+        int contentTf;
+        int[] starts = NO_STARTS;
+
+        void addOccurrence(int start) {
+            if (contentTf == starts.length) {
+                starts = Arrays.copyOf(starts, Math.max(4, contentTf * 2));
+            }
+            starts[contentTf++] = start;
+        }
+
+        void trim() {
+            if (starts.length != contentTf) {
+                starts = Arrays.copyOf(starts, contentTf);
+            }
+        }
+    }
+
+    private record Doc(long postId, Long categoryId, long createdAt, int length,
+                       Set<String> terms, Set<Long> collectionIds, String content) {
+    }
+
+    private record ScoredDoc(Doc doc, double score) {
+    }
+
+    /**
+     * Ranked hits, plus facet counts when they were requested.
+     */
+    public record Matches(List<SearchHit> hits, SearchFacets facets) {
+        static Matches none(boolean withFacets) {
+            return new Matches(List.of(), withFacets ? new SearchFacets(Map.of(), Map.of()) : null);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.magiccode.backend.search;
+
+import java.util.Map;
+
+/**
+ * Matching post counts per category id and per collection id. Category counts
+ * honour the collection scope but not the category scope, and the other way
+ * round, so a client can show how many hits each alternative would give.
+ */
+public record SearchFacets(Map<Long, Integer> categories, Map<Long, Integer> collections) {
+}
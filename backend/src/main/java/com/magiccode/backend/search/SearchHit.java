@@ -0,0 +1,14 @@
+package com.magiccode.backend.search;
+
+/**
+ * A ranked match. {@code snippet} is only filled for hits on the returned page.
+ */
+public record SearchHit(Long postId, double score, Snippet snippet) {
+    public SearchHit(Long postId, double score) {
+        this(postId, score, null);
+    }
+
+    public SearchHit withSnippet(Snippet snippet) {
+        return new SearchHit(postId, score, snippet);
+    }
+}
@@ -0,0 +1,15 @@
+package com.magiccode.backend.search;
+
+/**
+ * A keyword query, optionally scoped to one category or one collection. Set
+ * {@code facets} to also get per-category and per-collection hit counts.
+ */
+public record SearchQuery(String text, Long categoryId, Long collectionId, int offset, int limit, boolean facets) {
+    public SearchQuery(String text, Long categoryId, Long collectionId, int offset, int limit) {
+        this(text, categoryId, collectionId, offset, limit, false);
+    }
+
+    public static SearchQuery all(String text, int limit) {
+        return new SearchQuery(text, null, null, 0, limit);
+    }
+}
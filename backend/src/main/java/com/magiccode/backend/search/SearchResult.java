@@ -0,0 +1,19 @@
+package com.magiccode.backend.search;
+
+import java.util.List;
+
+/**
+ * One page of ranked hits plus the total number of matching posts. When the
+ * query as typed matched nothing and a spelling correction did,
+ * {@code didYouMean} is the corrected query and the hits are its hits.
+ * {@code facets} is null unless the query asked for them.
+ */
+public record SearchResult(List<SearchHit> hits, long total, String didYouMean, SearchFacets facets) {
+    public SearchResult(List<SearchHit> hits, long total) {
+        this(hits, total, null, null);
+    }
+
+    public static SearchResult empty() {
+        return new SearchResult(List.of(), 0);
+    }
+}
@@ -0,0 +1,12 @@
+package com.magiccode.backend.search;
+
+import java.util.List;
+
+/**
+ * A window of a post body around the best cluster of query matches.
+ * Highlight offsets are relative to {@code text}.
+ */
+public record Snippet(String text, boolean truncatedStart, boolean truncatedEnd, List<Highlight> highlights) {
+    public record Highlight(int start, int length) {
+    }
+}
@@ -0,0 +1,244 @@
+package com.magiccode.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix index for search-as-you-type over post titles, category names and
+ * collection names.
+ *
+ * <p>Every entry is reachable from the start of each word (and from every
+ * CJK character, since Chinese has no word breaks), so {@code "cach"} finds
+ * "Redis caching notes". Each node keeps its {@link #TOP_K} heaviest entries,
+ * so a lookup is a walk down the prefix with no subtree scan. Removing an
+ * entry rebuilds the top list of every node that held it from the node's own
+ * entries and its children's top lists, deepest node first.</p>
+ *
+ * <p>Lookups take no lock. Nodes publish immutable top lists and child arrays
+ * through volatile fields; writers are serialised on the trie and replace them
+ * rather than mutating in place.</p>
+ */
+public class SuggestionTrie {
+    public static final int TOP_K = 10;
+    public static final int MAX_KEY_LENGTH = 24;
+
+    public enum Kind {POST, CATEGORY, COLLECTION}
+
+    public record Suggestion(Kind kind, Long id, String text, String slug, long weight) {
+    }
+
+    public record Footprint(int entries, int nodes, long estimatedBytes) {
+    }
+
+    private static final Comparator<Suggestion> BY_WEIGHT = Comparator.comparingLong(Suggestion::weight).reversed()
+            .thenComparing(Suggestion::text);
+
+    private final Node root = new Node();
+    private final Map<String, Suggestion> entries = new HashMap<>();
+
+    public synchronized void put(Suggestion suggestion) {
+        remove(suggestion.kind(), suggestion.id());
+        entries.put(entryKey(suggestion.kind(), suggestion.id()), suggestion);
+        for (String key : keys(suggestion.text())) {
+            Node node = root;
+            node.offer(suggestion);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                node.offer(suggestion);
+            }
+            node.here.add(suggestion);
+        }
+    }
+
+    public synchronized void remove(Kind kind, Long id) {
+        Suggestion existing = entries.remove(entryKey(kind, id));
+        if (existing == null) {
+            return;
+        }
+        // Nodes whose top list held the entry, grouped by depth so children are rebuilt before parents.
+        List<Set<Node>> affected = new ArrayList<>();
+        for (String key : keys(existing.text())) {
+            Node node = root;
+            for (int depth = 0; node != null; depth++) {
+                if (node.top.contains(existing)) {
+                    while (affected.size() <= depth) {
+                        affected.add(new HashSet<>());
+                    }
+                    affected.get(depth).add(node);
+                }
+                if (depth == key.length()) {
+                    node.here.remove(existing);
+                    break;
+                }
+                node = node.child(key.charAt(depth));
+            }
+        }
+        for (int depth = affected.size() - 1; depth >= 0; depth--) {
+            affected.get(depth).forEach(Node::recompute);
+        }
+    }
+
+    public List<Suggestion> lookup(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        if (normalized.length() > MAX_KEY_LENGTH) {
+            normalized = normalized.substring(0, MAX_KEY_LENGTH);
+        }
+        Node node = root;
+        for (int i = 0; i < normalized.length() && node != null; i++) {
+            node = node.child(normalized.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<Suggestion> top = node.top;
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    public synchronized Set<Long> ids(Kind kind) {
+        Set<Long> ids = new HashSet<>();
+        for (Suggestion suggestion : entries.values()) {
+            if (suggestion.kind() == kind) {
+                ids.add(suggestion.id());
+            }
+        }
+        return ids;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Approximate retained heap, assuming compressed oops: object headers,
+     * label and child arrays, top lists, and the entry strings themselves.
+     */
+    public synchronized Footprint footprint() {
+        long bytes = 0;
+        int nodes = 0;
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            nodes++;
+            Edges edges = node.edges;
+            bytes += 40 + 16 + 16 + 2L * edges.labels.length + 16 + 4L * edges.children.length
+                    + 24 + 4L * TOP_K + 24 + 4L * node.here.size();
+            for (Node child : edges.children) {
+                pending.add(child);
+            }
+        }
+        for (Suggestion suggestion : entries.values()) {
+            bytes += 40 + 2L * suggestion.text().length() + 2L * (suggestion.slug() == null ? 0 : suggestion.slug().length());
+        }
+        return new Footprint(entries.size(), nodes, bytes);
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Keys are the normalized text from every word start and every CJK
+     * character, truncated to {@link #MAX_KEY_LENGTH}.
+     */
+    static Set<String> keys(String text) {
+        String normalized = normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        boolean previousWordChar = false;
+        for (int i = 0; i < normalized.length(); ) {
+            int cp = normalized.codePointAt(i);
+            boolean cjk = Tokenizer.isCjk(cp);
+            boolean wordChar = Character.isLetterOrDigit(cp);
+            if (cjk || (wordChar && !previousWordChar)) {
+                keys.add(normalized.substring(i, Math.min(normalized.length(), i + MAX_KEY_LENGTH)));
+            }
+            previousWordChar = wordChar && !cjk;
+            i += Character.charCount(cp);
+        }
+        return keys;
+    }
+
+    private static String entryKey(Kind kind, Long id) {
+        return kind + ":" + id;
+    }
+
+    private record Edges(char[] labels, Node[] children) {
+        static final Edges NONE = new Edges(new char[0], new Node[0]);
+    }
+
+    private static final class Node {
+        volatile Edges edges = Edges.NONE;
+        volatile List<Suggestion> top = List.of();
+        // Only touched by writers.
+        final List<Suggestion> here = new ArrayList<>(0);
+
+        Node child(char label) {
+            Edges current = edges;
+            int index = Arrays.binarySearch(current.labels, label);
+            return index >= 0 ? current.children[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            Edges current = edges;
+            char[] labels = current.labels;
+            Node[] children = current.children;
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            edges = new Edges(newLabels, newChildren);
+            return newChildren[insertAt];
+        }
+
+        void offer(Suggestion suggestion) {
+            List<Suggestion> current = top;
+            if (current.contains(suggestion)) {
+                return;
+            }
+            int at = 0;
+            while (at < current.size() && BY_WEIGHT.compare(current.get(at), suggestion) <= 0) {
+                at++;
+            }
+            if (at < TOP_K) {
+                List<Suggestion> updated = new ArrayList<>(current.size() + 1);
+                updated.addAll(current);
+                updated.add(at, suggestion);
+                top = List.copyOf(updated.subList(0, Math.min(TOP_K, updated.size())));
+            }
+        }
+
+        /**
+         * Rebuilds this node's top list from the entries ending here and the
+         * children's top lists, which must already be current.
+         */
+        void recompute() {
+            Set<Suggestion> candidates = new HashSet<>(here);
+            for (Node child : edges.children) {
+                candidates.addAll(child.top);
+            }
+            List<Suggestion> ranked = new ArrayList<>(candidates);
+            ranked.sort(BY_WEIGHT);
+            top = List.copyOf(ranked.subList(0, Math.min(TOP_K, ranked.size())));
+        }
+    }
+}
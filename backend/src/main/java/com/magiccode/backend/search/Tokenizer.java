@@ -0,0 +1,108 @@
+package com.magiccode.backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits mixed Chinese/English text into index terms.
+ *
+ * <p>Latin-script (and any other non-CJK) letters and digits form lowercase
+ * word terms. Runs of CJK characters produce overlapping bigrams, so
+ * {@code 数据库} yields {@code 数据} and {@code 据库}; a lone CJK character is kept
+ * as a unigram. HTML tags embedded in markdown are skipped. Every token keeps
+ * the character offsets it came from so callers can highlight the source text.</p>
+ */
+public final class Tokenizer {
+    public static final int MAX_TERM_LENGTH = 64;
+
+    public record Token(String term, int start, int end) {
+    }
+
+    private Tokenizer() {
+    }
+
+    public static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int cp = text.codePointAt(i);
+            if (cp == '<' && isTagStart(text, i + 1)) {
+                int close = text.indexOf('>', i);
+                i = close < 0 ? length : close + 1;
+            } else if (isCjk(cp)) {
+                i = cjkRun(text, i, tokens);
+            } else if (Character.isLetterOrDigit(cp)) {
+                i = wordRun(text, i, tokens);
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return tokens;
+    }
+
+    public static List<String> terms(String text) {
+        List<Token> tokens = tokenize(text);
+        List<String> terms = new ArrayList<>(tokens.size());
+        for (Token token : tokens) {
+            terms.add(token.term());
+        }
+        return terms;
+    }
+
+    public static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static int wordRun(String text, int start, List<Token> tokens) {
+        int i = start;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(cp) || isCjk(cp)) {
+                break;
+            }
+            i += Character.charCount(cp);
+        }
+        if (i - start <= MAX_TERM_LENGTH) {
+            tokens.add(new Token(text.substring(start, i).toLowerCase(Locale.ROOT), start, i));
+        }
+        return i;
+    }
+
+    private static int cjkRun(String text, int start, List<Token> tokens) {
+        int previousStart = -1;
+        int i = start;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            if (!isCjk(cp)) {
+                break;
+            }
+            int next = i + Character.charCount(cp);
+            if (previousStart >= 0) {
+                tokens.add(new Token(text.substring(previousStart, next), previousStart, next));
+            }
+            previousStart = i;
+            i = next;
+        }
+        if (previousStart == start) {
+            tokens.add(new Token(text.substring(start, i), start, i));
+        }
+        return i;
+    }
+
+    private static boolean isTagStart(String text, int index) {
+        if (index >= text.length()) {
+            return false;
+        }
+        char c = text.charAt(index);
+        return c == '/' || c == '!' || (c < 128 && Character.isLetter(c));
+    }
+}
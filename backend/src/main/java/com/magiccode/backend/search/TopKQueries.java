@@ -0,0 +1,75 @@
+package com.magiccode.backend.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heavy hitters over a stream of query strings in fixed memory: a
+ * {@link CountMinSketch} estimates every query's count, and only the
+ * {@code capacity} queries with the highest estimates are kept by name. A
+ * query that is not tracked replaces the weakest tracked one once its
+ * estimate is higher. Not thread-safe.
+ */
+public class TopKQueries {
+    public record Entry(String query, long count) {
+    }
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final int maxQueryLength;
+    private final Map<String, Long> tracked = new HashMap<>();
+    private long total;
+
+    public TopKQueries(int capacity, int maxQueryLength, int sketchWidth, int sketchDepth) {
+        this.capacity = capacity;
+        this.maxQueryLength = maxQueryLength;
+        this.sketch = new CountMinSketch(sketchWidth, sketchDepth);
+    }
+
+    public void add(String query) {
+        String key = query.length() > maxQueryLength ? query.substring(0, maxQueryLength) : query;
+        total++;
+        long estimate = sketch.add(key);
+        if (tracked.containsKey(key) || tracked.size() < capacity) {
+            tracked.put(key, estimate);
+            return;
+        }
+        Map.Entry<String, Long> weakest = null;
+        for (Map.Entry<String, Long> entry : tracked.entrySet()) {
+            if (weakest == null || entry.getValue() < weakest.getValue()) {
+                weakest = entry;
+            }
+        }
+        if (weakest != null && estimate > weakest.getValue()) {
+            tracked.remove(weakest.getKey());
+            tracked.put(key, estimate);
+        }
+    }
+
+    /**
+     * Tracked queries, most frequent first.
+     */
+    public List<Entry> top() {
+        List<Entry> entries = new ArrayList<>(tracked.size());
+        tracked.forEach((query, count) -> entries.add(new Entry(query, count)));
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::query));
+        return entries;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public void clear() {
+        sketch.clear();
+        tracked.clear();
+        total = 0;
+    }
+
+    public long estimatedBytes() {
+        return sketch.estimatedBytes() + (long) capacity * (64 + 2L * maxQueryLength);
+    }
+}
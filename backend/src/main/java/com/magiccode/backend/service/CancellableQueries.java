@@ -0,0 +1,78 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.exceptions.QueryCancelledException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.slf4j.MDC;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs request work whose queries should stop when the client disconnects.
+ *
+ * <p>A blocking servlet thread never learns that its client has gone, so the
+ * work runs as a {@link WebAsyncTask}: the container keeps watching the
+ * connection and reports a disconnect through the async error callback. The
+ * work gets an entity manager bound to its own thread (the one bound for the
+ * request when open-in-view is on). Spring interrupts the worker on error, but
+ * a thread blocked in JDBC ignores interrupts, so the callback also cancels
+ * whatever statement that session is executing. The request then completes
+ * with a {@link QueryCancelledException} instead of a result nobody will
+ * read.</p>
+ */
+@Slf4j
+@Component
+public class CancellableQueries {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CancellableQueries(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public <T> WebAsyncTask<T> run(Callable<T> work) {
+        AtomicReference<Session> running = new AtomicReference<>();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        WebAsyncTask<T> task = new WebAsyncTask<>(() -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            boolean bound = TransactionSynchronizationManager.hasResource(entityManagerFactory);
+            EntityManager entityManager = bound
+                    ? ((EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory))
+                    .getEntityManager()
+                    : entityManagerFactory.createEntityManager();
+            if (!bound) {
+                TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+            }
+            running.set(entityManager.unwrap(Session.class));
+            try {
+                return work.call();
+            } finally {
+                running.set(null);
+                if (!bound) {
+                    TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+                    EntityManagerFactoryUtils.closeEntityManager(entityManager);
+                }
+                MDC.clear();
+            }
+        });
+        task.onError(() -> {
+            Session session = running.get();
+            if (session != null) {
+                session.cancelQuery();
+                log.info("query cancelled after client disconnect");
+            }
+            throw new QueryCancelledException("Request cancelled");
+        });
+        return task;
+    }
+}
@@ -4,6 +4,7 @@ import com.magiccode.backend.dto.CategoryDto;
 import com.magiccode.backend.mapping.CategoryMapper;
 import com.magiccode.backend.model.Category;
 import com.magiccode.backend.repository.CategoryRepository;
+import com.magiccode.backend.search.SuggestionTrie;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.stereotype.Service;
@@ -18,6 +19,10 @@ import java.util.List;
 public class CategoryService {
     private CategoryRepository categoryRepository;
     private CategoryMapper categoryMapper;
+    private PostDetailCache postDetailCache;
+    private PostSummaryService postSummaryService;
+    private SuggestService suggestService;
+    private ClientSearchIndexService clientSearchIndexService;
 
     public List<CategoryDto> getAllCategories() {
         return categoryRepository.findAll()
@@ -35,6 +40,7 @@ public class CategoryService {
         }
         Category category = categoryMapper.toCategoryEntity(categoryDto);
         Category category_save = categoryRepository.save(category);
+        suggestService.refresh(SuggestionTrie.Kind.CATEGORY, List.of(category_save.getId()));
         return categoryMapper.toCategoryDto(category_save);
     }
 
@@ -44,6 +50,10 @@ public class CategoryService {
         category.setName(categoryDto.getName());
         category.setSlug(categoryDto.getSlug());
         Category category_update = categoryRepository.save(category);
+        postSummaryService.refreshCategoryName(category.getId(), category.getName());
+        postDetailCache.invalidateAll();
+        suggestService.refresh(SuggestionTrie.Kind.CATEGORY, List.of(category.getId()));
+        clientSearchIndexService.invalidate();
         return categoryMapper.toCategoryDto(category_update);
     }
 
@@ -51,5 +61,8 @@ public class CategoryService {
         Category category = categoryRepository.findByName(name)
                 .orElseThrow(() -> new RuntimeException("Category Not Found: " + name));
         categoryRepository.delete(category);
+        postDetailCache.invalidateAll();
+        suggestService.refresh(SuggestionTrie.Kind.CATEGORY, List.of(category.getId()));
+        clientSearchIndexService.invalidate();
     }
 }
@@ -0,0 +1,222 @@
+package com.magiccode.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiccode.backend.repository.PostRepository;
+import com.magiccode.backend.search.Tokenizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds the compact index that lets clients search published posts locally.
+ *
+ * <p>The index is a single JSON document:
+ * {@code {"posts":[[slug,title,excerpt,category,[term,...]],...],"categories":[[slug,name],...]}},
+ * where {@code category} is a position in {@code categories} (or -1) and the
+ * terms are the distinct {@link Tokenizer} terms of the title. It is written
+ * straight into a gzip stream while posts are scanned in id batches, so
+ * neither the rows nor the uncompressed JSON are ever held whole.</p>
+ *
+ * <p>One build is kept per content version: the search result cache version,
+ * which moves after every post or collection write, plus a local generation
+ * for category renames, which do not touch the search index. The version is
+ * read before the scan, so a build that races a write is rebuilt on the next
+ * request.</p>
+ */
+@Slf4j
+@Service
+public class ClientSearchIndexService {
+    private static final String DRAFT_SLUG = "00100000";
+    private static final int BATCH_SIZE = 500;
+    static final int EXCERPT_LENGTH = 120;
+
+    private final PostRepository postRepository;
+    private final SearchResultCache resultCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnly;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public ClientSearchIndexService(PostRepository postRepository,
+                                    SearchResultCache resultCache,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.resultCache = resultCache;
+        this.objectMapper = objectMapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("blog.search.client-index.bytes", this,
+                        service -> service.snapshot == null ? 0 : service.snapshot.gzip().length)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the index for the current content version, building it first if
+     * the content changed since the last build.
+     */
+    public Snapshot current() {
+        Snapshot built = snapshot;
+        String version = version();
+        if (built != null && built.version().equals(version)) {
+            return built;
+        }
+        synchronized (this) {
+            built = snapshot;
+            version = version();
+            if (built == null || !built.version().equals(version)) {
+                built = build(version);
+                snapshot = built;
+            }
+            return built;
+        }
+    }
+
+    /**
+     * Marks the index stale once the current transaction commits. Only needed
+     * for changes that do not go through the search index.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    private String version() {
+        return resultCache.version() + "." + generation.get();
+    }
+
+    private Snapshot build(String version) {
+        long started = System.nanoTime();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        MessageDigest digest = sha256();
+        int posts = 0;
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+             OutputStream out = new DigestOutputStream(gzip, digest);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            Map<String, Integer> categoryPositions = new HashMap<>();
+            List<String[]> categories = new ArrayList<>();
+            json.writeStartObject();
+            json.writeArrayFieldStart("posts");
+            long cursor = 0;
+            List<Object[]> batch;
+            do {
+                long after = cursor;
+                batch = readOnly.execute(status -> postRepository.findClientIndexRowsAfter(
+                        after, DRAFT_SLUG, PageRequest.of(0, BATCH_SIZE)));
+                for (Object[] row : batch) {
+                    writePost(json, row, categoryPositions, categories);
+                    cursor = (Long) row[0];
+                }
+                posts += batch.size();
+            } while (batch.size() == BATCH_SIZE);
+            json.writeEndArray();
+            writeCategories(json, categories);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] bytes = compressed.toByteArray();
+        String hash = HexFormat.of().formatHex(digest.digest(), 0, 16);
+        log.info("client search index built posts={} bytes={} elapsedMs={}",
+                posts, bytes.length, (System.nanoTime() - started) / 1_000_000);
+        return new Snapshot(version, hash, bytes);
+    }
+
+    private static void writePost(JsonGenerator json, Object[] row, Map<String, Integer> categoryPositions,
+                                  List<String[]> categories) throws IOException {
+        json.writeStartArray();
+        json.writeString((String) row[2]);
+        json.writeString((String) row[1]);
+        json.writeString(shorten((String) row[3]));
+        String categorySlug = (String) row[4];
+        if (categorySlug == null) {
+            json.writeNumber(-1);
+        } else {
+            json.writeNumber(categoryPositions.computeIfAbsent(categorySlug, slug -> {
+                categories.add(new String[]{slug, (String) row[5]});
+                return categories.size() - 1;
+            }));
+        }
+        json.writeStartArray();
+        for (String term : new LinkedHashSet<>(Tokenizer.terms((String) row[1]))) {
+            json.writeString(term);
+        }
+        json.writeEndArray();
+        json.writeEndArray();
+    }
+
+    private static void writeCategories(JsonGenerator json, List<String[]> categories) throws IOException {
+        json.writeArrayFieldStart("categories");
+        for (String[] category : categories) {
+            json.writeArray(category, 0, category.length);
+        }
+        json.writeEndArray();
+    }
+
+    private static String shorten(String excerpt) {
+        if (excerpt == null) {
+            return "";
+        }
+        return excerpt.length() <= EXCERPT_LENGTH ? excerpt : excerpt.substring(0, EXCERPT_LENGTH);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * One build of the index: the gzip-compressed JSON and a hash of the
+     * uncompressed JSON, which identifies the content across rebuilds.
+     */
+    public record Snapshot(String version, String hash, byte[] gzip) {
+        public byte[] uncompressed() {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.model.CommentCounter;
+import com.magiccode.backend.model.CommentStatus;
+import com.magiccode.backend.repository.CommentCounterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps {@code comment_counters} and {@code posts.comment_count} in step with
+ * the comments table, so moderation stats and listing comment counts are read
+ * from a few rows instead of counted.
+ *
+ * <p>Writers call {@link #apply} inside their own transaction with the status
+ * changes they made; the counters move in the same commit or not at all.
+ * Deltas are summed per row and written in (post, status) order, so two
+ * writers never lock the same rows in opposite order. There is no global row
+ * for every writer to queue on: totals across posts are summed from the
+ * per-post rows. {@code posts.comment_count} counts APPROVED comments only.</p>
+ *
+ * <p>Anything that changes comments without going through here (manual SQL,
+ * a failed deploy) leaves drift, which {@link #reconcile()} recounts and
+ * corrects periodically. It fixes one counter at a time: lock the row, recount
+ * that post and status, write the result, commit. A writer that commits first
+ * is included in the recount; one that commits later applies its delta on top
+ * of the corrected value.</p>
+ */
+@Slf4j
+@Service
+public class CommentCounterService {
+    private static final String INCREMENT_SQL = "INSERT INTO comment_counters (post_id, status, comment_count) " +
+            "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE comment_count = comment_count + VALUES(comment_count)";
+    private static final String LOCK_COUNTER_SQL = "SELECT comment_count FROM comment_counters " +
+            "WHERE post_id = ? AND status = ? FOR UPDATE";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM comments WHERE post_id = ? AND status = ?";
+    private static final String SET_SQL = "UPDATE comment_counters SET comment_count = ? WHERE post_id = ? AND status = ?";
+    private static final String POST_COUNT_SQL = "UPDATE posts SET comment_count = comment_count + ? WHERE id = ?";
+    private static final String DRIFTED_POSTS_SQL = "SELECT p.id FROM posts p WHERE p.comment_count <> " +
+            "(SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id AND c.status = 'APPROVED')";
+    private static final String LOCK_POST_SQL = "SELECT comment_count FROM posts WHERE id = ? FOR UPDATE";
+    private static final String SET_POST_SQL = "UPDATE posts SET comment_count = ? WHERE id = ?";
+    private static final Comparator<CommentCounter.Key> KEY_ORDER = Comparator
+            .comparing(CommentCounter.Key::postId)
+            .thenComparing(CommentCounter.Key::status);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CommentCounterRepository counterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter corrections;
+
+    public CommentCounterService(JdbcTemplate jdbcTemplate,
+                                 CommentCounterRepository counterRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counterRepository = counterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.corrections = Counter.builder("blog.comment.counters.corrections")
+                .description("Counter rows corrected by the reconcile job")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Moves the counters by the given changes. Must run in the transaction that
+     * changed the comments.
+     */
+    @Transactional
+    public void apply(List<Change> changes) {
+        Map<CommentCounter.Key, Long> deltas = new TreeMap<>(KEY_ORDER);
+        Map<Long, Long> approved = new TreeMap<>();
+        for (Change change : changes) {
+            if (change.delta() == 0) {
+                continue;
+            }
+            deltas.merge(new CommentCounter.Key(change.postId(), change.status()), change.delta(), Long::sum);
+            if (change.status() == CommentStatus.APPROVED) {
+                approved.merge(change.postId(), change.delta(), Long::sum);
+            }
+        }
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                rows.add(new Object[]{key.postId(), key.status().name(), delta});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, rows);
+        }
+        List<Object[]> posts = new ArrayList<>();
+        approved.forEach((postId, delta) -> {
+            if (delta != 0) {
+                posts.add(new Object[]{delta, postId});
+            }
+        });
+        if (!posts.isEmpty()) {
+            jdbcTemplate.batchUpdate(POST_COUNT_SQL, posts);
+        }
+    }
+
+    public void added(Long postId, CommentStatus status) {
+        apply(List.of(new Change(postId, status, 1)));
+    }
+
+    public void removed(Long postId, CommentStatus status) {
+        apply(List.of(new Change(postId, status, -1)));
+    }
+
+    public void moved(Long postId, CommentStatus from, CommentStatus to) {
+        if (from != to) {
+            apply(List.of(new Change(postId, from, -1), new Change(postId, to, 1)));
+        }
+    }
+
+    /**
+     * Drops the counter rows of posts whose comments are being deleted with
+     * them; posts.comment_count goes with the posts.
+     */
+    @Transactional
+    public void removePosts(List<Long> postIds) {
+        if (!postIds.isEmpty()) {
+            counterRepository.deleteByPostIds(postIds);
+        }
+    }
+
+    /**
+     * Comment totals per status across all posts, summed from the per-post
+     * counter rows.
+     */
+    @Transactional(readOnly = true)
+    public Map<CommentStatus, Long> totals() {
+        Map<CommentStatus, Long> totals = emptyTotals();
+        for (Object[] row : counterRepository.sumByStatus()) {
+            totals.put((CommentStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return totals;
+    }
+
+    /**
+     * Comment totals per status for one post, read from the counter rows.
+     */
+    @Transactional(readOnly = true)
+    public Map<CommentStatus, Long> totals(Long postId) {
+        Map<CommentStatus, Long> totals = emptyTotals();
+        for (CommentCounter counter : counterRepository.findByPostId(postId)) {
+            totals.put(counter.getStatus(), counter.getCount());
+        }
+        return totals;
+    }
+
+    /**
+     * Finds counters that disagree with a recount of the comments table and
+     * corrects each one in its own short transaction. Returns the number of
+     * rows corrected.
+     */
+    @Scheduled(initialDelayString = "${blog.comment.counters.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${blog.comment.counters.reconcile-interval-ms:3600000}")
+    public int reconcile() {
+        // An unlocked snapshot only picks the candidates; each is re-checked under its row lock.
+        Map<CommentCounter.Key, Long> actual = new HashMap<>();
+        jdbcTemplate.query("SELECT post_id, status, COUNT(*) FROM comments GROUP BY post_id, status", row -> {
+            actual.put(new CommentCounter.Key(row.getLong(1), CommentStatus.valueOf(row.getString(2))), row.getLong(3));
+        });
+        Map<CommentCounter.Key, Long> stored = new HashMap<>();
+        for (CommentCounter counter : counterRepository.findAll()) {
+            stored.put(new CommentCounter.Key(counter.getPostId(), counter.getStatus()), counter.getCount());
+        }
+
+        // A missing row and a zero row mean the same thing.
+        Set<CommentCounter.Key> keys = new HashSet<>(actual.keySet());
+        keys.addAll(stored.keySet());
+        List<CommentCounter.Key> drifted = keys.stream()
+                .filter(key -> !actual.getOrDefault(key, 0L).equals(stored.getOrDefault(key, 0L)))
+                .sorted(KEY_ORDER)
+                .toList();
+        int counterRows = 0;
+        for (CommentCounter.Key key : drifted) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcileCounter(key)))) {
+                counterRows++;
+            }
+        }
+        int posts = 0;
+        for (Long postId : jdbcTemplate.queryForList(DRIFTED_POSTS_SQL, Long.class)) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcilePost(postId)))) {
+                posts++;
+            }
+        }
+
+        int corrected = counterRows + posts;
+        if (corrected > 0) {
+            corrections.increment(corrected);
+            log.warn("comment counters reconciled counterRows={} posts={}", counterRows, posts);
+        }
+        return corrected;
+    }
+
+    /**
+     * Locks one counter row (creating it at zero if missing), recounts its
+     * comments and writes the result if it differs. The recount runs after the
+     * lock is held, so it sees every writer that committed before it.
+     */
+    private boolean reconcileCounter(CommentCounter.Key key) {
+        String status = key.status().name();
+        jdbcTemplate.update(INCREMENT_SQL, key.postId(), status, 0L);
+        Long stored = jdbcTemplate.queryForObject(LOCK_COUNTER_SQL, Long.class, key.postId(), status);
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, key.postId(), status);
+        if (count == null || count.equals(stored)) {
+            return false;
+        }
+        jdbcTemplate.update(SET_SQL, count, key.postId(), status);
+        return true;
+    }
+
+    private boolean reconcilePost(Long postId) {
+        List<Long> stored = jdbcTemplate.queryForList(LOCK_POST_SQL, Long.class, postId);
+        if (stored.isEmpty()) {
+            return false;
+        }
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, postId, CommentStatus.APPROVED.name());
+        if (count == null || count.equals(stored.get(0))) {
+            return false;
+        }
+        jdbcTemplate.update(SET_POST_SQL, count, postId);
+        return true;
+    }
+
+    private static Map<CommentStatus, Long> emptyTotals() {
+        Map<CommentStatus, Long> totals = new EnumMap<>(CommentStatus.class);
+        for (CommentStatus status : CommentStatus.values()) {
+            totals.put(status, 0L);
+        }
+        return totals;
+    }
+
+    /**
+     * A change of {@code delta} comments in {@code status} on one post.
+     */
+    public record Change(Long postId, CommentStatus status, long delta) {
+    }
+}
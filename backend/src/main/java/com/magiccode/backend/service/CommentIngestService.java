@@ -0,0 +1,441 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.dto.CommentDto;
+import com.magiccode.backend.dto.CreateCommentRequest;
+import com.magiccode.backend.exceptions.CommentStillQueuedException;
+import com.magiccode.backend.mapping.CommentMapper;
+import com.magiccode.backend.model.Comment;
+import com.magiccode.backend.model.CommentStatus;
+import com.magiccode.backend.model.Post;
+import com.magiccode.backend.repository.CommentRepository;
+import com.magiccode.backend.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional write path for visitor comments that group-commits them.
+ *
+ * <p>A submission is checked against in-memory post ids and thread references,
+ * reviewed by moderation and put on a bounded queue; a full queue answers
+ * {@code 429}. One writer thread drains the queue, waiting up to
+ * {@code linger-ms} for more comments, and writes up to {@code batch-size} of
+ * them with a single multi-row insert, one counter update and one commit. The
+ * request returns once the commit holding its comment is done. If a batch
+ * fails, for example because a post was deleted after the check, its comments
+ * are retried one per transaction so only the broken ones fail.</p>
+ *
+ * <p>The id sets are loaded at startup and follow writes after commit. They
+ * may briefly keep a deleted post or comment; the foreign keys still reject
+ * such a comment on insert. Submissions arriving before the sets are loaded
+ * use the regular path.</p>
+ */
+@Slf4j
+@Service
+public class CommentIngestService implements ApplicationRunner {
+    private static final String INSERT_PREFIX = "INSERT INTO comments "
+            + "(post_id, parent_id, root_id, name, email, content, created_at, author, status, moderation_reason) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long waitMillis;
+    private final BlockingQueue<Pending> queue;
+    private final Set<Long> postIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, ThreadRef> comments = new ConcurrentHashMap<>();
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final CommentMapper commentMapper;
+    private final CommentModerationService commentModerationService;
+    private final CommentCounterService commentCounterService;
+    private final CommentNotificationService commentNotificationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batches;
+    private final Counter overflows;
+    private volatile boolean running;
+    private Thread writer;
+
+    public CommentIngestService(
+            @Value("${blog.comment.ingest.enabled:false}") boolean enabled,
+            @Value("${blog.comment.ingest.queue-capacity:1000}") int queueCapacity,
+            @Value("${blog.comment.ingest.batch-size:100}") int batchSize,
+            @Value("${blog.comment.ingest.linger-ms:5}") long lingerMillis,
+            @Value("${blog.comment.ingest.wait-ms:5000}") long waitMillis,
+            PostRepository postRepository,
+            CommentRepository commentRepository,
+            CommentMapper commentMapper,
+            CommentModerationService commentModerationService,
+            CommentCounterService commentCounterService,
+            CommentNotificationService commentNotificationService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.batchSize = Math.max(batchSize, 1);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(lingerMillis, 0));
+        this.waitMillis = Math.max(waitMillis, 1);
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.commentMapper = commentMapper;
+        this.commentModerationService = commentModerationService;
+        this.commentCounterService = commentCounterService;
+        this.commentNotificationService = commentNotificationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("blog.comment.ingest.queue", queue, BlockingQueue::size).register(meterRegistry);
+        this.batches = DistributionSummary.builder("blog.comment.ingest.batch")
+                .description("Comments written per group commit")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("blog.comment.ingest.overflow")
+                .description("Comment submissions refused because the ingest queue was full")
+                .register(meterRegistry);
+    }
+
+    /** Whether visitor comments should go through {@link #submit} right now. */
+    public boolean isAccepting() {
+        return enabled && running;
+    }
+
+    /**
+     * Queues a visitor comment and waits until the batch holding it is
+     * committed.
+     */
+    public CommentDto submit(Long postId, CreateCommentRequest request) {
+        if (postId == null || !postIds.contains(postId)) {
+            throw new RuntimeException("Post Not Found");
+        }
+        Long rootId = null;
+        if (request.getParentId() != null) {
+            ThreadRef parent = comments.get(request.getParentId());
+            if (parent == null) {
+                throw new RuntimeException("Parent comment not found");
+            }
+            if (parent.postId() != postId) {
+                throw new RuntimeException("Parent comment does not belong to this post");
+            }
+            rootId = parent.rootId();
+        }
+        CommentModerationService.ModerationResult moderation = commentModerationService.review(request);
+        Pending pending = new Pending(postId, request.getParentId(), rootId,
+                request.getName().trim(), request.getEmail().trim(), request.getContent().trim(),
+                moderation.status(), moderation.reason(), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            overflows.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many comments right now, please try again shortly.");
+        }
+        try {
+            return pending.result().get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new CommentStillQueuedException(
+                    "Comment is taking longer than usual to save, please check back before submitting again.",
+                    pending.result());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Comment submission interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** Makes a new post known once the current transaction commits. */
+    public void postCreated(Long postId) {
+        if (enabled) {
+            afterCommit(() -> postIds.add(postId));
+        }
+    }
+
+    /** Forgets deleted posts and their comments once the current transaction commits. */
+    public void postsDeleted(Collection<Long> deletedPostIds) {
+        if (enabled && !deletedPostIds.isEmpty()) {
+            Set<Long> deleted = Set.copyOf(deletedPostIds);
+            afterCommit(() -> {
+                postIds.removeAll(deleted);
+                comments.values().removeIf(ref -> deleted.contains(ref.postId()));
+            });
+        }
+    }
+
+    /** Makes a comment written outside the queue known once the current transaction commits. */
+    public void commentAdded(Comment comment) {
+        if (enabled) {
+            Long id = comment.getId();
+            ThreadRef ref = ThreadRef.of(id, comment.getPost().getId(), comment.getRootId());
+            afterCommit(() -> comments.put(id, ref));
+        }
+    }
+
+    /** Forgets deleted comments once the current transaction commits. */
+    public void commentsDeleted(Collection<Long> commentIds) {
+        if (enabled && !commentIds.isEmpty()) {
+            List<Long> deleted = List.copyOf(commentIds);
+            afterCommit(() -> deleted.forEach(comments::remove));
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            postIds.addAll(postRepository.findAllIds());
+            for (Object[] row : commentRepository.findThreadRefs()) {
+                Long id = (Long) row[0];
+                comments.put(id, ThreadRef.of(id, (Long) row[1], (Long) row[2]));
+            }
+        });
+        running = true;
+        writer = Thread.ofPlatform().name("comment-ingest").daemon().start(this::drain);
+        log.info("comment ingest queue started posts={} comments={} capacity={}",
+                postIds.size(), comments.size(), queue.remainingCapacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            // The writer empties the queue before it exits.
+            writer.join(waitMillis);
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long left = deadline - System.nanoTime();
+                    Pending next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result().completeExceptionally(
+                        new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Comment submission interrupted")));
+                return;
+            } catch (RuntimeException e) {
+                log.error("comment ingest batch failed size={}", batch.size(), e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Comment> saved;
+        try {
+            saved = transactionTemplate.execute(status -> insert(batch));
+        } catch (RuntimeException e) {
+            log.warn("comment ingest batch rolled back size={} type={}, retrying one by one",
+                    batch.size(), e.getClass().getSimpleName());
+            for (Pending pending : batch) {
+                try {
+                    complete(List.of(pending), transactionTemplate.execute(status -> insert(List.of(pending))));
+                } catch (RuntimeException single) {
+                    pending.result().completeExceptionally(single);
+                }
+            }
+            return;
+        }
+        batches.record(batch.size());
+        complete(batch, saved);
+    }
+
+    private void complete(List<Pending> batch, List<Comment> saved) {
+        for (int i = 0; i < batch.size(); i++) {
+            Comment comment = saved.get(i);
+            Pending pending = batch.get(i);
+            comments.put(comment.getId(), ThreadRef.of(comment.getId(), pending.postId(), comment.getRootId()));
+            log.info("comment submitted postId={} status={} moderated={} admin=false queued=true",
+                    pending.postId(), comment.getStatus(), comment.getModerationReason() != null);
+            pending.result().complete(commentMapper.toCommentDto(comment));
+        }
+    }
+
+    private List<Comment> insert(List<Pending> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(batch.size(), INSERT_ROW));
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            int index = 1;
+            for (Pending pending : batch) {
+                statement.setLong(index++, pending.postId());
+                setNullableLong(statement, index++, pending.parentId());
+                setNullableLong(statement, index++, pending.rootId());
+                statement.setString(index++, pending.name());
+                statement.setString(index++, pending.email());
+                statement.setString(index++, pending.content());
+                statement.setTimestamp(index++, Timestamp.valueOf(now));
+                statement.setBoolean(index++, false);
+                statement.setString(index++, pending.status().name());
+                statement.setString(index++, pending.moderationReason());
+            }
+            return statement;
+        }, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != batch.size()) {
+            throw new IllegalStateException("Expected " + batch.size() + " generated ids, got " + generated.size());
+        }
+
+        Map<Long, Post> posts = new HashMap<>();
+        Map<Long, Comment> parents = new HashMap<>();
+        if (commentNotificationService.isEnabled()) {
+            loadNotificationRefs(batch, posts, parents);
+        }
+        List<Comment> saved = new ArrayList<>(batch.size());
+        List<CommentCounterService.Change> changes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            Long parentId = pending.parentId();
+            Comment comment = Comment.builder()
+                    .id(((Number) generated.get(i).values().iterator().next()).longValue())
+                    .post(posts.computeIfAbsent(pending.postId(), id -> Post.builder().id(id).build()))
+                    .parent(parentId == null ? null
+                            : parents.computeIfAbsent(parentId, id -> Comment.builder().id(id).build()))
+                    .rootId(pending.rootId())
+                    .name(pending.name())
+                    .email(pending.email())
+                    .content(pending.content())
+                    .createdAt(now)
+                    .status(pending.status())
+                    .moderationReason(pending.moderationReason())
+                    .build();
+            saved.add(comment);
+            changes.add(new CommentCounterService.Change(pending.postId(), pending.status(), 1));
+        }
+        List<Comment> approved = new ArrayList<>();
+        for (Comment comment : saved) {
+            if (comment.getStatus() == CommentStatus.APPROVED) {
+                approved.add(comment);
+            } else {
+                commentNotificationService.commentSubmitted(comment);
+            }
+        }
+        commentNotificationService.repliesApproved(approved);
+        // Counter rows are the contended locks; take them last so they are held only until the commit.
+        commentCounterService.apply(changes);
+        return saved;
+    }
+
+    /**
+     * Loads what notifications need about the batch's posts and approved
+     * replies' parents with one query each, as detached objects, so building
+     * the messages never initializes a lazy reference row by row.
+     */
+    private void loadNotificationRefs(List<Pending> batch, Map<Long, Post> posts, Map<Long, Comment> parents) {
+        Set<Long> postIds = new HashSet<>();
+        Set<Long> parentIds = new HashSet<>();
+        for (Pending pending : batch) {
+            postIds.add(pending.postId());
+            if (pending.parentId() != null && pending.status() == CommentStatus.APPROVED) {
+                parentIds.add(pending.parentId());
+            }
+        }
+        for (Object[] row : postRepository.findTitlesByIds(postIds)) {
+            posts.put((Long) row[0], Post.builder().id((Long) row[0]).title((String) row[1]).build());
+        }
+        if (!parentIds.isEmpty()) {
+            for (Object[] row : commentRepository.findNotificationRefsByIds(parentIds)) {
+                parents.put((Long) row[0], Comment.builder()
+                        .id((Long) row[0])
+                        .author((Boolean) row[1])
+                        .status((CommentStatus) row[2])
+                        .email((String) row[3])
+                        .build());
+            }
+        }
+    }
+
+    private static void setNullableLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Pending(long postId, Long parentId, Long rootId, String name, String email, String content,
+                           CommentStatus status, String moderationReason, CompletableFuture<CommentDto> result) {
+    }
+
+    // rootId is the comment's own id for top-level comments, so replies can copy it directly.
+    private record ThreadRef(long postId, long rootId) {
+        static ThreadRef of(Long id, Long postId, Long rootId) {
+            return new ThreadRef(postId, rootId != null ? rootId : id);
+        }
+    }
+}
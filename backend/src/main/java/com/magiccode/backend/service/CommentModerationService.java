@@ -1,85 +1,178 @@
 package com.magiccode.backend.service;
 
+import com.magiccode.backend.dto.BlockedKeywordsDto;
 import com.magiccode.backend.dto.CreateCommentRequest;
+import com.magiccode.backend.model.BlockedKeyword;
 import com.magiccode.backend.model.CommentStatus;
+import com.magiccode.backend.moderation.KeywordAutomaton;
+import com.magiccode.backend.repository.BlockedKeywordRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+import java.util.TreeSet;
+
+/**
+ * Local anti-spam rules for visitor comments.
+ *
+ * <p>Blocked keywords, link markers and repeated characters are all checked
+ * by one pass of a {@link KeywordAutomaton}, so review cost depends on the
+ * comment length, not on the size of the blocklist. Keywords come from
+ * {@code blog.comment.moderation.blocked-keywords} plus the list managed
+ * through the admin API. Replacing that list builds a new automaton that is
+ * swapped in when the transaction commits; reviews in flight finish on the
+ * old one.</p>
+ *
+ * <p>Comments that closely match several others submitted within the last
+ * window are rejected as near duplicates; see {@link NearDuplicateDetector}.</p>
+ */
+@Slf4j
 @Service
 public class CommentModerationService {
-    private static final Pattern LINK_PATTERN = Pattern.compile("(https?://|www\\.)", Pattern.CASE_INSENSITIVE);
-    private static final Pattern REPEATED_CHARACTER_PATTERN = Pattern.compile("(.)\\1{9,}");
+    static final int MAX_KEYWORD_LENGTH = 100;
+    private static final int SHORT_CONTENT_LENGTH = 20;
 
     private final int maxLinks;
-    private final List<String> blockedKeywords;
+    private final List<String> configuredKeywords;
     private final boolean autoRejectBlockedKeywords;
+    private final BlockedKeywordRepository blockedKeywordRepository;
+    private final NearDuplicateDetector nearDuplicateDetector;
+    private volatile KeywordAutomaton automaton;
 
     public CommentModerationService(
             @Value("${blog.comment.moderation.max-links:2}") int maxLinks,
             @Value("${blog.comment.moderation.blocked-keywords:}") String blockedKeywords,
-            @Value("${blog.comment.moderation.auto-reject-blocked-keywords:true}") boolean autoRejectBlockedKeywords) {
+            @Value("${blog.comment.moderation.auto-reject-blocked-keywords:true}") boolean autoRejectBlockedKeywords,
+            BlockedKeywordRepository blockedKeywordRepository,
+            NearDuplicateDetector nearDuplicateDetector,
+            MeterRegistry meterRegistry) {
         this.maxLinks = maxLinks;
-        this.blockedKeywords = Arrays.stream(blockedKeywords.split(","))
+        this.configuredKeywords = Arrays.stream(blockedKeywords.split(","))
                 .map(String::trim)
                 .filter(keyword -> !keyword.isEmpty())
-                .map(keyword -> keyword.toLowerCase(Locale.ROOT))
                 .toList();
         this.autoRejectBlockedKeywords = autoRejectBlockedKeywords;
+        this.blockedKeywordRepository = blockedKeywordRepository;
+        this.nearDuplicateDetector = nearDuplicateDetector;
+        reload();
+        Gauge.builder("blog.comment.moderation.keywords", this, service -> service.automaton.keywordCount())
+                .register(meterRegistry);
     }
 
     public ModerationResult review(CreateCommentRequest request) {
-        String name = normalize(request.getName());
-        String email = normalize(request.getEmail());
-        String content = normalize(request.getContent());
-        String combined = (name + " " + email + " " + content).toLowerCase(Locale.ROOT);
-
-        String blockedKeyword = blockedKeywords.stream()
-                .filter(combined::contains)
-                .findFirst()
-                .orElse(null);
-        if (blockedKeyword != null) {
+        String name = KeywordAutomaton.fold(normalize(request.getName()));
+        String email = KeywordAutomaton.fold(normalize(request.getEmail()));
+        String rawContent = normalize(request.getContent());
+        String content = KeywordAutomaton.fold(rawContent);
+        int contentStart = name.length() + email.length() + 2;
+        KeywordAutomaton.Scan scan = automaton.scan(name + " " + email + " " + content, contentStart);
+        // Recorded before any verdict, so rejected copies still count towards a wave.
+        boolean nearDuplicate = nearDuplicateDetector.check(rawContent);
+
+        if (scan.blockedKeyword()) {
             return autoRejectBlockedKeywords
                     ? ModerationResult.rejected("blocked keyword")
                     : ModerationResult.pending("blocked keyword");
         }
 
-        if (hasRepeatedCharacters(name) || hasRepeatedCharacters(email) || hasRepeatedCharacters(content)) {
+        if (scan.repeatedCharacters()) {
             return ModerationResult.rejected("repeated characters");
         }
 
-        int linkCount = countLinks(content);
-        if (linkCount > maxLinks) {
+        if (scan.links() > maxLinks) {
             return ModerationResult.rejected("too many links");
         }
 
-        if (content.length() < 20 && linkCount > 0) {
+        if (rawContent.length() < SHORT_CONTENT_LENGTH && scan.links() > 0) {
             return ModerationResult.rejected("short link comment");
         }
 
+        if (nearDuplicate) {
+            return ModerationResult.rejected("near duplicate");
+        }
+
         return ModerationResult.pending(null);
     }
 
-    private String normalize(String value) {
-        return value == null ? "" : value.trim();
+    @Transactional(readOnly = true)
+    public BlockedKeywordsDto getBlockedKeywords() {
+        return BlockedKeywordsDto.builder()
+                .keywords(blockedKeywordRepository.findAllKeywords())
+                .configuredCount(configuredKeywords.size())
+                .activeCount(automaton.keywordCount())
+                .build();
     }
 
-    private boolean hasRepeatedCharacters(String value) {
-        return REPEATED_CHARACTER_PATTERN.matcher(value).find();
+    /**
+     * Replaces the admin-managed keywords. The new list is live for reviews
+     * that start after the commit.
+     */
+    @Transactional
+    public BlockedKeywordsDto replaceBlockedKeywords(List<String> keywords) {
+        TreeSet<String> folded = new TreeSet<>();
+        for (String keyword : keywords) {
+            String value = KeywordAutomaton.fold(keyword).strip();
+            if (value.length() > MAX_KEYWORD_LENGTH) {
+                throw new RuntimeException("Keyword is too long after normalization: " + keyword);
+            }
+            if (!value.isEmpty()) {
+                folded.add(value);
+            }
+        }
+        blockedKeywordRepository.deleteAllInBatch();
+        blockedKeywordRepository.flush();
+        List<BlockedKeyword> rows = new ArrayList<>(folded.size());
+        for (String keyword : folded) {
+            rows.add(BlockedKeyword.builder().keyword(keyword).build());
+        }
+        blockedKeywordRepository.saveAll(rows);
+
+        KeywordAutomaton built = build(activeKeywords(folded));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                automaton = built;
+            }
+        });
+        log.info("blocked keywords replaced managed={}", folded.size());
+        return BlockedKeywordsDto.builder()
+                .keywords(List.copyOf(folded))
+                .configuredCount(configuredKeywords.size())
+                .activeCount(built.keywordCount())
+                .build();
     }
 
-    private int countLinks(String value) {
-        int count = 0;
-        Matcher matcher = LINK_PATTERN.matcher(value);
-        while (matcher.find()) {
-            count++;
-        }
-        return count;
+    /**
+     * Rebuilds the automaton from configuration and the stored keywords.
+     */
+    public void reload() {
+        automaton = build(activeKeywords(blockedKeywordRepository.findAllKeywords()));
+    }
+
+    private List<String> activeKeywords(Iterable<String> managed) {
+        List<String> active = new ArrayList<>(configuredKeywords);
+        managed.forEach(active::add);
+        return active;
+    }
+
+    private static KeywordAutomaton build(List<String> keywords) {
+        long started = System.nanoTime();
+        KeywordAutomaton built = KeywordAutomaton.build(keywords);
+        log.info("comment moderation automaton built keywords={} states={} elapsedMs={}",
+                built.keywordCount(), built.stateCount(), (System.nanoTime() - started) / 1_000_000);
+        return built;
+    }
+
+    private String normalize(String value) {
+        return value == null ? "" : value.trim();
     }
 
     public record ModerationResult(CommentStatus status, String reason) {
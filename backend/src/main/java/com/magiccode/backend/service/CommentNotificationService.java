@@ -0,0 +1,119 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.model.Comment;
+import com.magiccode.backend.model.CommentStatus;
+import com.magiccode.backend.model.NotificationOutbox;
+import com.magiccode.backend.repository.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Turns comment changes into {@link NotificationOutbox} rows. Callers are the
+ * comment writes themselves, and the rows are saved in their transaction, so
+ * a notification exists exactly when the change that caused it committed.
+ * Nothing here talks to SMTP; {@link NotificationDispatcher} sends the rows
+ * later.
+ *
+ * <p>The admin is told about visitor comments waiting for moderation. A
+ * visitor is told when a reply to their approved comment is approved; the
+ * admin's own comments and replies to oneself are skipped. Rows first become
+ * due one digest window after they are written, so a burst reaches each
+ * recipient as one email.</p>
+ */
+@Service
+public class CommentNotificationService {
+    private static final int MAX_EXCERPT = 1000;
+    private static final int MAX_TITLE = 120;
+
+    private final boolean enabled;
+    private final String adminEmail;
+    private final long digestWindowMillis;
+    private final NotificationOutboxRepository outboxRepository;
+
+    public CommentNotificationService(
+            @Value("${blog.notification.enabled:false}") boolean enabled,
+            @Value("${blog.notification.admin-email:}") String adminEmail,
+            @Value("${blog.notification.digest-window-ms:600000}") long digestWindowMillis,
+            NotificationOutboxRepository outboxRepository) {
+        this.enabled = enabled;
+        this.adminEmail = adminEmail == null ? "" : adminEmail.trim();
+        this.digestWindowMillis = digestWindowMillis;
+        this.outboxRepository = outboxRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void commentSubmitted(Comment comment) {
+        if (!enabled || adminEmail.isEmpty() || comment.getStatus() != CommentStatus.PENDING) {
+            return;
+        }
+        String title = title(comment);
+        outboxRepository.save(row(adminEmail, comment,
+                "New comment awaiting moderation on \"" + title + "\"",
+                comment.getName() + " <" + comment.getEmail() + "> commented on \"" + title + "\":\n\n"
+                        + excerpt(comment.getContent()) + "\n"));
+    }
+
+    /**
+     * Queues reply notifications for comments that just became visible. Each
+     * comment must have its post and parent loaded.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void repliesApproved(Collection<Comment> comments) {
+        if (!enabled) {
+            return;
+        }
+        List<NotificationOutbox> rows = new ArrayList<>();
+        for (Comment reply : comments) {
+            Comment parent = reply.getParent();
+            if (parent == null || parent.isAuthor() || parent.getStatus() != CommentStatus.APPROVED
+                    || parent.getEmail() == null || parent.getEmail().equalsIgnoreCase(reply.getEmail())) {
+                continue;
+            }
+            String title = title(reply);
+            rows.add(row(parent.getEmail(), reply,
+                    "New reply to your comment on \"" + title + "\"",
+                    reply.getName() + " replied to your comment on \"" + title + "\":\n\n"
+                            + excerpt(reply.getContent()) + "\n"));
+        }
+        if (!rows.isEmpty()) {
+            outboxRepository.saveAll(rows);
+        }
+    }
+
+    private NotificationOutbox row(String recipient, Comment comment, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        return NotificationOutbox.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .commentId(comment.getId())
+                .createdAt(now)
+                .nextAttemptAt(now.plusNanos(digestWindowMillis * 1_000_000))
+                .build();
+    }
+
+    private static String title(Comment comment) {
+        String title = comment.getPost() != null && comment.getPost().getTitle() != null
+                ? comment.getPost().getTitle()
+                : "";
+        return title.length() > MAX_TITLE ? title.substring(0, MAX_TITLE) + "..." : title;
+    }
+
+    private static String excerpt(String content) {
+        if (content == null) {
+            return "";
+        }
+        return content.length() > MAX_EXCERPT ? content.substring(0, MAX_EXCERPT) + "..." : content;
+    }
+}
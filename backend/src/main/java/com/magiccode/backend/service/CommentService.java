@@ -1,17 +1,20 @@
 package com.magiccode.backend.service;
 
 import com.magiccode.backend.dto.AdminCommentPageResponse;
-import com.magiccode.backend.dto.BulkCommentAction;
 import com.magiccode.backend.dto.BulkCommentRequest;
 import com.magiccode.backend.dto.BulkCommentResponse;
 import com.magiccode.backend.dto.CommentDto;
+import com.magiccode.backend.dto.CommentNodeDto;
+import com.magiccode.backend.dto.CommentQueuePageResponse;
 import com.magiccode.backend.dto.CommentSearchResultDto;
 import com.magiccode.backend.dto.CommentStatsDto;
+import com.magiccode.backend.dto.CommentThreadPageResponse;
 import com.magiccode.backend.dto.CreateCommentRequest;
 import com.magiccode.backend.mapping.CommentMapper;
 import com.magiccode.backend.model.Comment;
 import com.magiccode.backend.model.CommentStatus;
 import com.magiccode.backend.model.Post;
+import com.magiccode.backend.repository.CommentQueueRepository;
 import com.magiccode.backend.repository.CommentRepository;
 import com.magiccode.backend.repository.PostRepository;
 import jakarta.persistence.criteria.Join;
@@ -22,15 +25,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -38,10 +49,19 @@ import java.util.Set;
 @Data
 @Transactional
 public class CommentService {
+    static final int MAX_THREAD_DEPTH = 3;
+    static final int MAX_THREADS_PER_PAGE = 50;
+    static final int BULK_CHUNK_SIZE = 500;
+    static final int MAX_QUEUE_PAGE = 100;
+    static final int SEARCH_LIMIT = 100;
+
     private CommentRepository commentRepository;
     private PostRepository postRepository;
     private CommentMapper commentMapper;
     private CommentModerationService commentModerationService;
+    private CommentCounterService commentCounterService;
+    private CommentNotificationService commentNotificationService;
+    private CommentIngestService commentIngestService;
 
     public List<CommentDto> getCommentsByPostId(Long postId) {
         Post post = postRepository.findById(postId)
@@ -51,6 +71,72 @@ public class CommentService {
         );
     }
 
+    /**
+     * Returns a slice of a post's approved top-level comments, oldest first,
+     * with their approved replies nested. The cursor is the id of the last
+     * top-level comment the client has seen.
+     *
+     * <p>Replies of the whole slice are read in one query by thread root and
+     * arrive in id order, so every parent is placed before its replies and the
+     * tree is assembled in a single pass. Nesting stops at
+     * {@link #MAX_THREAD_DEPTH}: deeper replies are listed next to their parent
+     * and keep their real {@code parentId}. A reply whose parent is not
+     * approved is attached to the top-level comment. Reply counts are then
+     * summed in one pass in reverse id order.</p>
+     */
+    @Transactional(readOnly = true)
+    public CommentThreadPageResponse getCommentThreads(Long postId, String cursor, int size) {
+        if (size < 1 || size > MAX_THREADS_PER_PAGE) {
+            throw new RuntimeException("Size must be between 1 and " + MAX_THREADS_PER_PAGE);
+        }
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new RuntimeException("Post Not Found"));
+        Slice<Comment> roots = commentRepository.findThreadRootsAfter(
+                post.getId(), CommentStatus.APPROVED, decodeThreadCursor(cursor), PageRequest.of(0, size));
+
+        Map<Long, CommentNodeDto> nodes = new HashMap<>();
+        Map<Long, Integer> depths = new HashMap<>();
+        Map<Long, Long> containers = new HashMap<>();
+        List<CommentNodeDto> items = new ArrayList<>();
+        for (Comment root : roots.getContent()) {
+            CommentNodeDto node = commentMapper.toCommentNodeDto(root);
+            nodes.put(root.getId(), node);
+            depths.put(root.getId(), 0);
+            items.add(node);
+        }
+
+        List<Comment> replies = items.isEmpty()
+                ? List.of()
+                : commentRepository.findRepliesByRootIds(List.copyOf(nodes.keySet()), CommentStatus.APPROVED);
+        for (Comment reply : replies) {
+            Long parentId = reply.getParent() != null ? reply.getParent().getId() : null;
+            Long containerId = nodes.containsKey(parentId) ? parentId : reply.getRootId();
+            if (depths.get(containerId) == MAX_THREAD_DEPTH) {
+                containerId = containers.get(containerId);
+            }
+            CommentNodeDto node = commentMapper.toCommentNodeDto(reply);
+            nodes.get(containerId).getReplies().add(node);
+            nodes.put(reply.getId(), node);
+            depths.put(reply.getId(), depths.get(containerId) + 1);
+            containers.put(reply.getId(), containerId);
+        }
+        for (int i = replies.size() - 1; i >= 0; i--) {
+            Long id = replies.get(i).getId();
+            CommentNodeDto container = nodes.get(containers.get(id));
+            container.setReplyCount(container.getReplyCount() + 1 + nodes.get(id).getReplyCount());
+        }
+
+        List<Comment> rootRows = roots.getContent();
+        return CommentThreadPageResponse.builder()
+                .items(items)
+                .nextCursor(roots.hasNext() && !rootRows.isEmpty()
+                        ? String.valueOf(rootRows.get(rootRows.size() - 1).getId())
+                        : null)
+                .hasNext(roots.hasNext())
+                .size(size)
+                .build();
+    }
+
     public CommentDto addComment(Long postId, CreateCommentRequest request, boolean isAdmin) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post Not Found"));
@@ -68,6 +154,7 @@ public class CommentService {
                 throw new RuntimeException("Parent comment does not belong to this post");
             }
             comment.setParent(parent);
+            comment.setRootId(parent.getRootId() != null ? parent.getRootId() : parent.getId());
         }
 
         comment.setAuthor(isAdmin);
@@ -81,6 +168,13 @@ public class CommentService {
         }
 
         commentRepository.save(comment);
+        commentCounterService.added(postId, comment.getStatus());
+        commentIngestService.commentAdded(comment);
+        if (comment.getStatus() == CommentStatus.APPROVED) {
+            commentNotificationService.repliesApproved(List.of(comment));
+        } else {
+            commentNotificationService.commentSubmitted(comment);
+        }
         log.info("comment submitted postId={} status={} moderated={} admin={}",
                 postId, comment.getStatus(), comment.getModerationReason() != null, isAdmin);
         return commentMapper.toCommentDto(comment);
@@ -91,6 +185,10 @@ public class CommentService {
                 .orElseThrow(() -> new RuntimeException("Comment Not Found"));
         Long postId = comment.getPost() != null ? comment.getPost().getId() : null;
         commentRepository.delete(comment);
+        commentIngestService.commentsDeleted(List.of(commentId));
+        if (postId != null) {
+            commentCounterService.removed(postId, comment.getStatus());
+        }
         log.info("comment deleted commentId={} postId={}", commentId, postId);
         return commentMapper.toCommentDto(comment);
     }
@@ -98,11 +196,16 @@ public class CommentService {
     public CommentDto updateStatus(Long commentId, CommentStatus status) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment Not Found"));
+        CommentStatus previous = comment.getStatus();
         comment.setStatus(status);
         if (status == CommentStatus.APPROVED) {
             comment.setModerationReason(null);
         }
         Comment saved = commentRepository.save(comment);
+        commentCounterService.moved(comment.getPost().getId(), previous, status);
+        if (previous != CommentStatus.APPROVED && status == CommentStatus.APPROVED) {
+            commentNotificationService.repliesApproved(List.of(saved));
+        }
         log.info("comment status updated commentId={} status={}", commentId, status);
         return commentMapper.toCommentDto(saved);
     }
@@ -123,10 +226,68 @@ public class CommentService {
                 .build();
     }
 
+    /**
+     * Moderation queue slice after {@code cursor}, ordered by
+     * {@code (createdAt, id)}. Ids are found by one keyset query (see
+     * {@link com.magiccode.backend.repository.CommentQueueRepository}) and the
+     * rows loaded with their post and parent in a second, so a page costs two
+     * selects whatever its size. {@code total} comes from the comment counters
+     * and is left out when a keyword narrows the queue.
+     */
+    @Transactional(readOnly = true)
+    public CommentQueuePageResponse getModerationQueue(String status, String keyword, Long postId,
+                                                      String cursor, int size, String sort) {
+        int safeSize = Math.min(Math.max(size, 1), MAX_QUEUE_PAGE);
+        CommentStatus statusFilter = parseStatusFilter(status);
+        QueueCursor after = decodeQueueCursor(cursor);
+        boolean ascending = "createdAt asc".equalsIgnoreCase(sort);
+        CommentQueueRepository.QueueFilter filter = new CommentQueueRepository.QueueFilter(
+                statusFilter, postId, keyword, ascending,
+                after == null ? null : after.createdAt(), after == null ? null : after.id());
+
+        List<Long> ids = commentRepository.findQueueIds(filter, safeSize + 1);
+        boolean hasNext = ids.size() > safeSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, safeSize) : ids;
+        Map<Long, Comment> loaded = new HashMap<>();
+        if (!pageIds.isEmpty()) {
+            for (Comment comment : commentRepository.findWithPostAndParentByIdIn(pageIds)) {
+                loaded.put(comment.getId(), comment);
+            }
+        }
+        List<CommentSearchResultDto> items = new ArrayList<>(pageIds.size());
+        Comment last = null;
+        for (Long id : pageIds) {
+            Comment comment = loaded.get(id);
+            if (comment != null) {
+                items.add(toSearchResultDto(comment));
+                last = comment;
+            }
+        }
+
+        Long total = null;
+        if (keyword == null || keyword.isBlank()) {
+            Map<CommentStatus, Long> totals = postId == null
+                    ? commentCounterService.totals()
+                    : commentCounterService.totals(postId);
+            total = statusFilter == null
+                    ? totals.values().stream().mapToLong(Long::longValue).sum()
+                    : totals.get(statusFilter);
+        }
+
+        return CommentQueuePageResponse.builder()
+                .items(items)
+                .nextCursor(hasNext && last != null ? encodeQueueCursor(last) : null)
+                .hasNext(hasNext)
+                .size(safeSize)
+                .total(total)
+                .build();
+    }
+
     public CommentStatsDto getStats() {
-        long pending = commentRepository.countByStatus(CommentStatus.PENDING);
-        long approved = commentRepository.countByStatus(CommentStatus.APPROVED);
-        long rejected = commentRepository.countByStatus(CommentStatus.REJECTED);
+        Map<CommentStatus, Long> totals = commentCounterService.totals();
+        long pending = totals.get(CommentStatus.PENDING);
+        long approved = totals.get(CommentStatus.APPROVED);
+        long rejected = totals.get(CommentStatus.REJECTED);
         return CommentStatsDto.builder()
                 .pending(pending)
                 .approved(approved)
@@ -135,34 +296,63 @@ public class CommentService {
                 .build();
     }
 
+    /**
+     * Applies one moderation action to many comments with set-based
+     * statements, {@link #BULK_CHUNK_SIZE} ids per statement. The selected rows
+     * are first read as (id, post, status) in one locking query, which both
+     * rejects unknown ids and gives the counter deltas. {@code affected} is the
+     * sum of the statements' update counts.
+     */
     public BulkCommentResponse bulkAction(BulkCommentRequest request) {
-        List<Long> ids = request.getCommentIds().stream().distinct().toList();
-        List<Comment> comments = commentRepository.findAllById(ids);
-        Set<Long> foundIds = comments.stream().map(Comment::getId).collect(java.util.stream.Collectors.toSet());
-        List<Long> missingIds = ids.stream().filter(id -> !foundIds.contains(id)).toList();
-        if (!missingIds.isEmpty()) {
-            throw new RuntimeException("Comments not found: " + missingIds);
+        List<Long> ids = request.getCommentIds().stream().distinct().sorted().toList();
+        List<Object[]> rows = commentRepository.lockStatusesByIds(ids);
+        if (rows.size() != ids.size()) {
+            Set<Long> foundIds = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toSet());
+            throw new RuntimeException("Comments not found: " + ids.stream().filter(id -> !foundIds.contains(id)).toList());
         }
 
-        if (request.getAction() == BulkCommentAction.DELETE) {
-            commentRepository.deleteAll(comments);
-        } else {
-            CommentStatus status = request.getAction() == BulkCommentAction.APPROVE
-                    ? CommentStatus.APPROVED
-                    : CommentStatus.REJECTED;
-            for (Comment comment : comments) {
-                comment.setStatus(status);
-                if (status == CommentStatus.APPROVED) {
-                    comment.setModerationReason(null);
-                }
+        CommentStatus target = switch (request.getAction()) {
+            case APPROVE -> CommentStatus.APPROVED;
+            case REJECT -> CommentStatus.REJECTED;
+            case DELETE -> null;
+        };
+        int affected = 0;
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            if (target == null) {
+                affected += commentRepository.deleteByIds(chunk);
+                commentIngestService.commentsDeleted(chunk);
+            } else if (target == CommentStatus.APPROVED) {
+                affected += commentRepository.approveByIds(chunk);
+            } else {
+                affected += commentRepository.updateStatusByIds(chunk, target);
             }
-            commentRepository.saveAll(comments);
         }
-        log.info("comment bulk action action={} count={}", request.getAction(), comments.size());
+
+        List<CommentCounterService.Change> changes = new ArrayList<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            Long postId = (Long) row[1];
+            changes.add(new CommentCounterService.Change(postId, (CommentStatus) row[2], -1));
+            if (target != null) {
+                changes.add(new CommentCounterService.Change(postId, target, 1));
+            }
+        }
+        commentCounterService.apply(changes);
+        if (target == CommentStatus.APPROVED && commentNotificationService.isEnabled()) {
+            List<Long> newlyApproved = rows.stream()
+                    .filter(row -> row[2] != CommentStatus.APPROVED)
+                    .map(row -> (Long) row[0])
+                    .toList();
+            for (int from = 0; from < newlyApproved.size(); from += BULK_CHUNK_SIZE) {
+                List<Long> chunk = newlyApproved.subList(from, Math.min(from + BULK_CHUNK_SIZE, newlyApproved.size()));
+                commentNotificationService.repliesApproved(commentRepository.findWithPostAndParentByIdIn(chunk));
+            }
+        }
+        log.info("comment bulk action action={} count={}", request.getAction(), affected);
 
         return BulkCommentResponse.builder()
                 .action(request.getAction())
-                .affected(comments.size())
+                .affected(affected)
                 .build();
     }
 
@@ -171,7 +361,7 @@ public class CommentService {
             return new ArrayList<>();
         }
 
-        List<Comment> comments = commentRepository.searchByKeyword(keyword.trim());
+        List<Comment> comments = commentRepository.searchByKeyword(keyword.trim(), PageRequest.of(0, SEARCH_LIMIT));
         List<CommentSearchResultDto> results = new ArrayList<>();
 
         for (Comment comment : comments) {
@@ -181,14 +371,53 @@ public class CommentService {
         return results;
     }
 
+    private static long decodeThreadCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private static CommentStatus parseStatusFilter(String status) {
+        if (status == null || status.isBlank()) {
+            return CommentStatus.PENDING;
+        }
+        return "ALL".equalsIgnoreCase(status) ? null : CommentStatus.valueOf(status.toUpperCase(Locale.ROOT));
+    }
+
+    private static String encodeQueueCursor(Comment comment) {
+        String value = comment.getCreatedAt() + "|" + comment.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static QueueCursor decodeQueueCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new QueueCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private record QueueCursor(LocalDateTime createdAt, Long id) {
+    }
+
     private Specification<Comment> buildAdminCommentSpec(String status, String keyword, Long postId) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            if (status == null || status.isBlank()) {
-                predicates.add(cb.equal(root.get("status"), CommentStatus.PENDING));
-            } else if (!"ALL".equalsIgnoreCase(status)) {
-                predicates.add(cb.equal(root.get("status"), CommentStatus.valueOf(status.toUpperCase(Locale.ROOT))));
+            CommentStatus statusFilter = parseStatusFilter(status);
+            if (statusFilter != null) {
+                predicates.add(cb.equal(root.get("status"), statusFilter));
             }
 
             if (postId != null) {
@@ -0,0 +1,82 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.repository.PostRepository;
+import com.magiccode.backend.search.SearchHit;
+import com.magiccode.backend.search.SearchQuery;
+import com.magiccode.backend.search.SearchResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link SearchService} backed by a MySQL {@code FULLTEXT} index built with the
+ * ngram parser (migration 005), for deployments that would rather not hold an
+ * index in the application heap. Enable with {@code blog.search.backend=fulltext}.
+ *
+ * <p>Ranking is InnoDB's natural-language relevance over title and body
+ * together. MySQL keeps the index current on commit, so {@link #refresh} only
+ * marks cached result pages stale. Hits carry no snippet.</p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "blog.search.backend", havingValue = "fulltext")
+public class FullTextSearchService implements SearchService {
+    private static final String DRAFT_SLUG = "00100000";
+
+    private final PostRepository postRepository;
+    private final SearchResultCache resultCache;
+
+    public FullTextSearchService(PostRepository postRepository, SearchResultCache resultCache) {
+        this.postRepository = postRepository;
+        this.resultCache = resultCache;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SearchResult search(SearchQuery query) {
+        String text = query.text() == null ? "" : query.text().strip();
+        if (text.isEmpty()) {
+            return SearchResult.empty();
+        }
+        List<Object[]> rows = postRepository.findFullTextMatches(text, query.categoryId(), query.collectionId(),
+                DRAFT_SLUG, query.offset(), query.limit());
+        List<SearchHit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            hits.add(new SearchHit(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue(), null));
+        }
+        long total = query.offset() == 0 && rows.size() < query.limit()
+                ? rows.size()
+                : postRepository.countFullTextMatches(text, query.categoryId(), query.collectionId(), DRAFT_SLUG);
+        return new SearchResult(hits, total);
+    }
+
+    @Override
+    public void refresh(Collection<Long> postIds) {
+        if (postIds == null || postIds.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    resultCache.bump();
+                }
+            });
+        } else {
+            resultCache.bump();
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        resultCache.bump();
+        log.info("search backend is MySQL FULLTEXT; nothing to rebuild");
+    }
+}
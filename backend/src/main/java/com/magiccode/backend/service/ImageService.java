@@ -38,7 +38,7 @@ public class ImageService {
     private final SiteConfigRepository siteConfigRepository;
     private final BrowserIconRepository browserIconRepository;
     private final PostGroupRepository postGroupRepository;
-
+    private final PostDetailCache postDetailCache;
 
     private final TransactionTemplate transactionTemplate;
 
@@ -124,6 +124,7 @@ public class ImageService {
         EmbeddedImage saved = saveImage(EmbeddedImage.OwnerType.POST, post.getId(),
                 file.getOriginalFilename(), file.getContentType(), file.getSize(),
                 upload.objectKey, upload.url);
+        postDetailCache.invalidate(post.getId());
 
         return imageMapper.toDto(saved);
     }
@@ -251,6 +252,7 @@ public class ImageService {
         EmbeddedImage img = get(ownerType, ownerId, imageId);
         deleteFromOSS(img.getObjectKey());
         embeddedImageRepository.delete(img);
+        invalidatePostDetail(ownerType, List.of(ownerId));
         log.info("image deleted imageId={} ownerType={} ownerId={}", imageId, ownerType, ownerId);
     }
 
@@ -261,10 +263,17 @@ public class ImageService {
             deleteFromOSS(img.getObjectKey());
         }
         embeddedImageRepository.deleteAllByOwnerTypeAndOwnerId(ownerType, ownerId);
+        invalidatePostDetail(ownerType, List.of(ownerId));
         log.info("images deleted ownerType={} ownerId={} count={}", ownerType, ownerId, images.size());
     }
 
     // ---------- Utils ----------
+    private void invalidatePostDetail(EmbeddedImage.OwnerType ownerType, List<Long> ownerIds) {
+        if (ownerType == EmbeddedImage.OwnerType.POST) {
+            postDetailCache.invalidate(ownerIds);
+        }
+    }
+
     public MediaType getMediaTypeOrOctet(String contentType) {
         try {
             return MediaType.parseMediaType(contentType);
@@ -356,6 +365,7 @@ public class ImageService {
             deleteFromOSS(img.getObjectKey());
         }
         embeddedImageRepository.deleteByOwnerTypeAndOwnerIdIn(ownerType, ownerIds);
+        invalidatePostDetail(ownerType, ownerIds);
         log.info("images deleted ownerType={} ownerIdsCount={} count={}", ownerType, ownerIds.size(), images.size());
     }
 }
@@ -0,0 +1,181 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.repository.PostGroupItemRepository;
+import com.magiccode.backend.repository.PostIndexRow;
+import com.magiccode.backend.repository.PostRepository;
+import com.magiccode.backend.search.IndexedPost;
+import com.magiccode.backend.search.InvertedIndex;
+import com.magiccode.backend.search.SearchHit;
+import com.magiccode.backend.search.SearchQuery;
+import com.magiccode.backend.search.SearchResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link SearchService} backed by an {@link InvertedIndex} held in memory.
+ *
+ * <p>The index is rebuilt at startup from an id-ordered batched scan and then
+ * kept current by {@link #refresh}, which re-reads the affected posts once
+ * their transaction has committed. Refreshes and rebuild batches run one at a
+ * time so an older read can never overwrite a newer one. Every change to the
+ * index bumps the {@link SearchResultCache} version.</p>
+ *
+ * <p>A query that matches nothing is retried once with misspelled Latin
+ * terms corrected by {@link InvertedIndex#correct}; the correction is
+ * reported as {@link SearchResult#didYouMean()}.</p>
+ *
+ * <p>This is the default backend ({@code blog.search.backend=memory}).</p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "blog.search.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemorySearchService implements SearchService, ApplicationRunner {
+    private static final String DRAFT_SLUG = "00100000";
+    private static final int REBUILD_BATCH_SIZE = 200;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final Object refreshLock = new Object();
+    private final PostRepository postRepository;
+    private final PostGroupItemRepository postGroupItemRepository;
+    private final SearchResultCache resultCache;
+    private final TransactionTemplate readOnly;
+
+    public InMemorySearchService(PostRepository postRepository,
+                                 PostGroupItemRepository postGroupItemRepository,
+                                 SearchResultCache resultCache,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.postGroupItemRepository = postGroupItemRepository;
+        this.resultCache = resultCache;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        // Refreshes run from afterCommit, where the finished transaction is still bound to the thread.
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("blog.search.index.documents", index, InvertedIndex::documentCount).register(meterRegistry);
+        Gauge.builder("blog.search.index.terms", index, InvertedIndex::termCount).register(meterRegistry);
+    }
+
+    @Override
+    public SearchResult search(SearchQuery query) {
+        String text = query.text();
+        String didYouMean = null;
+        InvertedIndex.Matches matches = index.search(text, query.categoryId(), query.collectionId(), query.facets());
+        if (matches.hits().isEmpty()) {
+            String corrected = index.correct(text);
+            InvertedIndex.Matches correctedMatches = corrected == null
+                    ? null
+                    : index.search(corrected, query.categoryId(), query.collectionId(), query.facets());
+            if (correctedMatches != null && !correctedMatches.hits().isEmpty()) {
+                text = corrected;
+                didYouMean = corrected;
+                matches = correctedMatches;
+            }
+        }
+        List<SearchHit> hits = matches.hits();
+        int from = Math.min(query.offset(), hits.size());
+        int to = Math.min(from + query.limit(), hits.size());
+        List<SearchHit> page = new ArrayList<>(to - from);
+        for (SearchHit hit : hits.subList(from, to)) {
+            page.add(hit.withSnippet(index.snippet(hit.postId(), text)));
+        }
+        return new SearchResult(page, hits.size(), didYouMean, matches.facets());
+    }
+
+    @Override
+    public void refresh(Collection<Long> postIds) {
+        if (postIds == null || postIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(postIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindex(ids);
+                }
+            });
+        } else {
+            reindex(ids);
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        synchronized (refreshLock) {
+            index.clear();
+            resultCache.bump();
+        }
+        long afterId = 0;
+        int indexed = 0;
+        List<IndexedPost> batch;
+        do {
+            long cursor = afterId;
+            synchronized (refreshLock) {
+                batch = readOnly.execute(status -> load(postRepository.findIndexRowsAfter(
+                        cursor, DRAFT_SLUG, PageRequest.of(0, REBUILD_BATCH_SIZE))));
+                batch.forEach(index::put);
+                resultCache.bump();
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).id();
+                indexed += batch.size();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        log.info("search index rebuilt posts={} terms={}", indexed, index.termCount());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    private void reindex(Set<Long> postIds) {
+        synchronized (refreshLock) {
+            List<IndexedPost> posts = readOnly.execute(status ->
+                    load(postRepository.findIndexRowsByIds(postIds, DRAFT_SLUG)));
+            Set<Long> missing = new HashSet<>(postIds);
+            for (IndexedPost post : posts) {
+                index.put(post);
+                missing.remove(post.id());
+            }
+            missing.forEach(index::remove);
+            resultCache.bump();
+        }
+    }
+
+    private List<IndexedPost> load(List<PostIndexRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Set<Long>> collections = new HashMap<>();
+        for (Object[] row : postGroupItemRepository.findGroupIdsByPostIds(rows.stream().map(PostIndexRow::id).toList())) {
+            collections.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Long) row[1]);
+        }
+        List<IndexedPost> posts = new ArrayList<>(rows.size());
+        for (PostIndexRow row : rows) {
+            posts.add(new IndexedPost(row.id(), row.title(), row.content(), row.categoryId(), row.createdAt(),
+                    collections.getOrDefault(row.id(), Set.of())));
+        }
+        return posts;
+    }
+}
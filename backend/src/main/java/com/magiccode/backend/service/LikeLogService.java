@@ -2,18 +2,23 @@ package com.magiccode.backend.service;
 
 import com.magiccode.backend.dto.LikeResponseDto;
 import com.magiccode.backend.model.LikeLog;
+import com.magiccode.backend.model.LikeLogRollup;
 import com.magiccode.backend.model.Post;
 import com.magiccode.backend.repository.LikeLogRepository;
+import com.magiccode.backend.repository.LikeLogRollupRepository;
 import com.magiccode.backend.repository.PostRepository;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
@@ -21,14 +26,18 @@ import java.util.Optional;
 @Transactional
 public class LikeLogService {
     private final LikeLogRepository likeLogRepository;
+    private final LikeLogRollupRepository likeLogRollupRepository;
     private final PostRepository postRepository;
+    // Latest counts written by this instance, overlaid on cached post details.
+    private final Map<Long, LikeResponseDto> latestCounts = new ConcurrentHashMap<>();
 
+    // Both counts include reactions the retention job compacted into like_log_rollups.
     public int countLikesByPostId(Long postId) {
-        return likeLogRepository.countByPostIdAndPositive(postId, true);
+        return likeLogRepository.countByPostIdAndPositive(postId, true) + (int) rollup(postId).getLikes();
     }
 
     public int countDisLikesByPostId(Long postId) {
-        return likeLogRepository.countByPostIdAndPositive(postId, false);
+        return likeLogRepository.countByPostIdAndPositive(postId, false) + (int) rollup(postId).getDislikes();
     }
 
     public void addLikeOrDislike(Long postId, String identifier, boolean positive) {
@@ -66,8 +75,15 @@ public class LikeLogService {
         return new LikeResponseDto(post.getLikeCount(), post.getDislikeCount());
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public LikeResponseDto latestCounts(Long postId) {
+        return latestCounts.get(postId);
+    }
+
     public void deleteAllByPostId(Long postId) {
         likeLogRepository.deleteAllByPostId(postId);
+        likeLogRollupRepository.deleteByPostIds(List.of(postId));
+        latestCounts.remove(postId);
     }
 
     private void updatePostCounts(Long postId) {
@@ -78,11 +94,18 @@ public class LikeLogService {
         post.setLikeCount(likes);
         post.setDislikeCount(dislikes);
         postRepository.save(post);
+        latestCounts.put(postId, new LikeResponseDto(likes, dislikes));
     }
 
     public void deleteAllByPostIds(List<Long> postIds) {
         if (postIds == null || postIds.isEmpty()) return;
         likeLogRepository.deleteByPostIdIn(postIds);
+        likeLogRollupRepository.deleteByPostIds(postIds);
+        postIds.forEach(latestCounts::remove);
+    }
+
+    private LikeLogRollup rollup(Long postId) {
+        return likeLogRollupRepository.findById(postId).orElseGet(LikeLogRollup::new);
     }
 
     private String maskIdentifier(String identifier) {
@@ -0,0 +1,96 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.moderation.RecentFingerprints;
+import com.magiccode.backend.moderation.SimHash;
+import com.magiccode.backend.repository.CommentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Spots spam waves: visitor comments that are small variations of several
+ * comments submitted shortly before.
+ *
+ * <p>Every reviewed comment's {@link SimHash} goes into a
+ * {@link RecentFingerprints} ring whatever the verdict, so a wave is counted
+ * even while its first copies are rejected for other reasons. The ring lives
+ * in memory only; at startup it is seeded from the newest visitor comments
+ * still inside the window. Each instance sees only the comments it reviewed
+ * itself plus that seed.</p>
+ */
+@Slf4j
+@Service
+public class NearDuplicateDetector implements ApplicationRunner {
+    private final boolean enabled;
+    private final int threshold;
+    private final long windowMillis;
+    private final RecentFingerprints recent;
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate readOnly;
+
+    public NearDuplicateDetector(
+            @Value("${blog.comment.moderation.near-duplicate.enabled:true}") boolean enabled,
+            @Value("${blog.comment.moderation.near-duplicate.threshold:3}") int threshold,
+            @Value("${blog.comment.moderation.near-duplicate.max-distance:4}") int maxDistance,
+            @Value("${blog.comment.moderation.near-duplicate.window-ms:3600000}") long windowMillis,
+            @Value("${blog.comment.moderation.near-duplicate.capacity:4096}") int capacity,
+            CommentRepository commentRepository,
+            PlatformTransactionManager transactionManager) {
+        this.enabled = enabled && threshold > 0;
+        this.threshold = threshold;
+        this.windowMillis = windowMillis;
+        this.recent = new RecentFingerprints(capacity, windowMillis, maxDistance);
+        this.commentRepository = commentRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Records the comment and reports whether at least {@code threshold}
+     * near-duplicates of it were seen within the window.
+     */
+    public boolean check(String content) {
+        if (!enabled) {
+            return false;
+        }
+        long fingerprint = SimHash.fingerprint(content);
+        long now = System.currentTimeMillis();
+        int near = recent.countNear(fingerprint, now, threshold);
+        recent.add(fingerprint, now);
+        return near >= threshold;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long since = System.currentTimeMillis() - windowMillis;
+        List<Object[]> rows = readOnly.execute(status ->
+                commentRepository.findRecentVisitorContent(PageRequest.of(0, recent.capacity())));
+        int seeded = 0;
+        // Oldest first, so each bucket chain stays ordered newest to oldest.
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            String content = (String) rows.get(i)[0];
+            LocalDateTime createdAt = (LocalDateTime) rows.get(i)[1];
+            if (createdAt == null) {
+                continue;
+            }
+            long time = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (time >= since) {
+                recent.add(SimHash.fingerprint(content), time);
+                seeded++;
+            }
+        }
+        log.info("near-duplicate detector seeded comments={} capacity={}", seeded, recent.capacity());
+    }
+}
@@ -0,0 +1,203 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.model.NotificationOutbox;
+import com.magiccode.backend.model.NotificationStatus;
+import com.magiccode.backend.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends queued {@link NotificationOutbox} rows by email, away from any request
+ * thread.
+ *
+ * <p>Each poll picks up to {@code batch-size} recipients with due rows and
+ * hands them to {@code concurrency} sender threads, so one slow SMTP
+ * conversation does not hold up the rest. These are platform threads: the
+ * mail transport blocks inside synchronized methods, which would pin the
+ * carrier of a virtual thread. For a recipient, every pending row due within the
+ * next digest window is claimed with a lease and sent as one message. On
+ * success the rows are marked sent; on failure each row backs off
+ * exponentially from {@code retry-base-ms} and is marked failed after
+ * {@code max-attempts}. A dispatcher that dies mid-send leaves its claim to
+ * expire, after which the rows are sent again: delivery is at least once.</p>
+ */
+@Slf4j
+@Service
+public class NotificationDispatcher {
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(6);
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final boolean enabled;
+    private final String from;
+    private final long digestWindowMillis;
+    private final int batchSize;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final NotificationOutboxRepository outboxRepository;
+    private final ObjectProvider<JavaMailSender> mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public NotificationDispatcher(
+            @Value("${blog.notification.enabled:false}") boolean enabled,
+            @Value("${blog.notification.from:}") String from,
+            @Value("${blog.notification.digest-window-ms:600000}") long digestWindowMillis,
+            @Value("${blog.notification.batch-size:50}") int batchSize,
+            @Value("${blog.notification.concurrency:4}") int concurrency,
+            @Value("${blog.notification.max-attempts:6}") int maxAttempts,
+            @Value("${blog.notification.retry-base-ms:60000}") long retryBaseMillis,
+            NotificationOutboxRepository outboxRepository,
+            ObjectProvider<JavaMailSender> mailSender,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.from = from == null ? "" : from.trim();
+        this.digestWindowMillis = digestWindowMillis;
+        this.batchSize = Math.max(batchSize, 1);
+        this.concurrency = Math.max(concurrency, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryBaseMillis = retryBaseMillis;
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sent = Counter.builder("blog.notification.emails").tag("result", "sent").register(meterRegistry);
+        this.retried = Counter.builder("blog.notification.emails").tag("result", "retry").register(meterRegistry);
+        this.failed = Counter.builder("blog.notification.emails").tag("result", "failed").register(meterRegistry);
+    }
+
+    /**
+     * Sends one round of due notifications and returns the number of emails
+     * sent.
+     */
+    @Scheduled(initialDelayString = "${blog.notification.poll-interval-ms:10000}",
+            fixedDelayString = "${blog.notification.poll-interval-ms:10000}")
+    public int dispatch() {
+        if (!enabled) {
+            return 0;
+        }
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            log.warn("notifications enabled but no mail sender is configured; set spring.mail.host");
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<String> recipients = transactionTemplate.execute(status ->
+                outboxRepository.findDueRecipients(now, PageRequest.of(0, batchSize)));
+        if (recipients == null || recipients.isEmpty()) {
+            return 0;
+        }
+        AtomicInteger delivered = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, recipients.size()))) {
+            for (String recipient : recipients) {
+                executor.submit(() -> {
+                    try {
+                        if (deliver(sender, recipient)) {
+                            delivered.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        // Claimed rows stay leased and are picked up again once the lease expires.
+                        log.error("notification delivery failed", e);
+                    }
+                });
+            }
+        }
+        log.info("notifications dispatched recipients={} emails={}", recipients.size(), delivered.get());
+        return delivered.get();
+    }
+
+    private boolean deliver(JavaMailSender sender, String recipient) {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> rows = transactionTemplate.execute(status -> {
+            int claimed = outboxRepository.claim(recipient, token, now,
+                    now.plusNanos(digestWindowMillis * 1_000_000), now.plus(LEASE));
+            return claimed == 0 ? List.<NotificationOutbox>of() : outboxRepository.findByClaimTokenOrderByIdAsc(token);
+        });
+        if (rows == null || rows.isEmpty()) {
+            return false;
+        }
+
+        try {
+            sender.send(message(recipient, rows));
+        } catch (MailException e) {
+            transactionTemplate.executeWithoutResult(status -> retry(token, e));
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.markSent(token, LocalDateTime.now()));
+        sent.increment();
+        return true;
+    }
+
+    private void retry(String token, Exception error) {
+        LocalDateTime now = LocalDateTime.now();
+        String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+        String lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        for (NotificationOutbox row : outboxRepository.findByClaimTokenOrderByIdAsc(token)) {
+            int attempts = row.getAttempts() + 1;
+            row.setAttempts(attempts);
+            row.setLastError(lastError);
+            row.setClaimToken(null);
+            row.setClaimedUntil(null);
+            if (attempts >= maxAttempts) {
+                row.setStatus(NotificationStatus.FAILED);
+                failed.increment();
+            } else {
+                row.setNextAttemptAt(now.plus(backoff(attempts)));
+                retried.increment();
+            }
+        }
+        log.warn("notification send failed error={}", lastError);
+    }
+
+    private Duration backoff(int attempts) {
+        long millis = retryBaseMillis << Math.min(attempts - 1, 20);
+        return millis <= 0 || millis > MAX_BACKOFF.toMillis() ? MAX_BACKOFF : Duration.ofMillis(millis);
+    }
+
+    private SimpleMailMessage message(String recipient, List<NotificationOutbox> rows) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        if (!from.isEmpty()) {
+            message.setFrom(from);
+        }
+        message.setTo(recipient);
+        if (rows.size() == 1) {
+            message.setSubject(rows.get(0).getSubject());
+            message.setText(rows.get(0).getBody());
+            return message;
+        }
+        StringBuilder text = new StringBuilder();
+        for (NotificationOutbox row : rows) {
+            if (!text.isEmpty()) {
+                text.append("\n----\n\n");
+            }
+            text.append(row.getSubject()).append("\n\n").append(row.getBody());
+        }
+        message.setSubject(rows.size() + " new comment notifications");
+        message.setText(text.toString());
+        return message;
+    }
+}
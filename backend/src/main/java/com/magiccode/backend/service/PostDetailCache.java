@@ -0,0 +1,203 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.dto.PostDetailDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of assembled post details keyed by slug.
+ *
+ * <p>Entries are weighed by their approximate size in characters and the least
+ * recently read entries are evicted once the budget is exceeded. Entries are
+ * kept in access order, so each eviction takes the eldest in O(1). Every
+ * invalidation bumps a generation number; a loader that started before an
+ * invalidation cannot publish its (possibly stale) result. Invalidations that
+ * happen inside a transaction are repeated after it completes, so a reader
+ * cannot re-cache the pre-commit state.</p>
+ *
+ * <p>View and reaction counters are not part of the cache key or version: the
+ * cached DTO is a template and callers overlay live counters on a copy.</p>
+ */
+@Slf4j
+@Service
+public class PostDetailCache {
+    private static final int ENTRY_OVERHEAD = 512;
+    private static final int MEDIA_OVERHEAD = 256;
+
+    // Access-ordered; guarded by this.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, String> slugsByPostId = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final long maxWeight;
+
+    public PostDetailCache(@Value("${blog.post.detail-cache.max-weight:8000000}") long maxWeight,
+                           MeterRegistry meterRegistry) {
+        this.maxWeight = maxWeight;
+        FunctionCounter.builder("blog.post.detail.cache", hits, LongAdder::sum).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("blog.post.detail.cache", misses, LongAdder::sum).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("blog.post.detail.cache.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("blog.post.detail.cache.invalidations", invalidations, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("blog.post.detail.cache.size", this, PostDetailCache::size).register(meterRegistry);
+        Gauge.builder("blog.post.detail.cache.weight", totalWeight, AtomicLong::get).register(meterRegistry);
+    }
+
+    public PostDetailDto get(String slug) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(slug);
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.detail;
+    }
+
+    /**
+     * Returns the generation a loader must capture before reading from the
+     * database and hand back to {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String slug, PostDetailDto detail, long loadedAtGeneration) {
+        long weight = weigh(detail);
+        if (weight > maxWeight) {
+            return;
+        }
+        synchronized (this) {
+            if (generation.get() != loadedAtGeneration) {
+                return;
+            }
+            Entry previous = entries.put(slug, new Entry(detail, weight));
+            if (previous != null) {
+                totalWeight.addAndGet(-previous.weight);
+            }
+            slugsByPostId.put(detail.getId(), slug);
+            totalWeight.addAndGet(weight);
+            evictToBudget();
+        }
+    }
+
+    public void invalidate(Long postId) {
+        afterCompletion(() -> evictPost(postId));
+    }
+
+    public void invalidate(Collection<Long> postIds) {
+        afterCompletion(() -> postIds.forEach(this::evictPost));
+    }
+
+    public void invalidateAll() {
+        afterCompletion(this::clear);
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(),
+                size(), totalWeight.get());
+    }
+
+    private void afterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private synchronized void evictPost(Long postId) {
+        generation.incrementAndGet();
+        String slug = slugsByPostId.remove(postId);
+        if (slug != null) {
+            removeEntry(slug);
+            invalidations.increment();
+        }
+    }
+
+    private synchronized void clear() {
+        generation.incrementAndGet();
+        invalidations.add(entries.size());
+        entries.clear();
+        slugsByPostId.clear();
+        totalWeight.set(0);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalWeight.get() > maxWeight && eldest.hasNext()) {
+            Map.Entry<String, Entry> oldest = eldest.next();
+            eldest.remove();
+            totalWeight.addAndGet(-oldest.getValue().weight);
+            slugsByPostId.remove(oldest.getValue().detail.getId(), oldest.getKey());
+            evictions.increment();
+        }
+    }
+
+    private void removeEntry(String slug) {
+        Entry removed = entries.remove(slug);
+        if (removed != null) {
+            totalWeight.addAndGet(-removed.weight);
+        }
+    }
+
+    private long weigh(PostDetailDto detail) {
+        long weight = ENTRY_OVERHEAD;
+        weight += length(detail.getContent()) + length(detail.getTitle()) + length(detail.getSlug());
+        weight += (long) MEDIA_OVERHEAD * (size(detail.getImages()) + size(detail.getVideos()));
+        if (detail.getCollectionNames() != null) {
+            for (String name : detail.getCollectionNames()) {
+                weight += length(name);
+            }
+        }
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static int size(Collection<?> values) {
+        return values == null ? 0 : values.size();
+    }
+
+    private static final class Entry {
+        final PostDetailDto detail;
+        final long weight;
+
+        Entry(PostDetailDto detail, long weight) {
+            this.detail = detail;
+            this.weight = weight;
+        }
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, long invalidations, int size, long weight) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.magiccode.backend.service;
 
 import com.magiccode.backend.dto.ImageDto;
+import com.magiccode.backend.dto.PostCursorPageResponse;
 import com.magiccode.backend.dto.PostGroupDto;
 import com.magiccode.backend.dto.PostSummaryDto;
 import com.magiccode.backend.mapping.PostGroupMapper;
@@ -10,15 +11,21 @@ import com.magiccode.backend.repository.CommentRepository;
 import com.magiccode.backend.repository.PostGroupItemRepository;
 import com.magiccode.backend.repository.PostGroupRepository;
 import com.magiccode.backend.repository.PostRepository;
+import com.magiccode.backend.search.SearchQuery;
+import com.magiccode.backend.search.SearchResult;
+import com.magiccode.backend.search.SuggestionTrie;
+import com.magiccode.backend.util.PostCursor;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -34,8 +41,17 @@ public class PostGroupService {
     private final PostSummaryMapper postSummaryMapper;
     private final PostGroupMapper postGroupMapper;
     private final CommentRepository commentRepository;
+    private final CommentCounterService commentCounterService;
     private final LikeLogService likeLogService;
     private final VideoService videoService;
+    private final ViewCountService viewCountService;
+    private final PostDetailCache postDetailCache;
+    private final PostSummaryService postSummaryService;
+    private final SearchService searchService;
+    private final SearchResultCache searchResultCache;
+    private final SearchAnalyticsService searchAnalyticsService;
+    private final SuggestService suggestService;
+    private final CommentIngestService commentIngestService;
 
     public static final String DRAFT_SLUG = "00100000";
 
@@ -59,6 +75,7 @@ public class PostGroupService {
         }
         PostGroup postGroup = postGroupMapper.toEntity(dto);
         postGroup = postGroupRepository.save(postGroup);
+        suggestService.refresh(SuggestionTrie.Kind.COLLECTION, List.of(postGroup.getId()));
         return buildDto(postGroup);
     }
 
@@ -90,6 +107,10 @@ public class PostGroupService {
 
         postGroup.setUpdatedAt(LocalDateTime.now());
         postGroup = postGroupRepository.save(postGroup);
+        List<Long> memberIds = postGroupItemRepository.findPostIdsByGroupId(id);
+        postSummaryService.refreshCollectionNames(memberIds);
+        postDetailCache.invalidate(memberIds);
+        suggestService.refresh(SuggestionTrie.Kind.COLLECTION, List.of(id));
         return buildDto(postGroup);
     }
 
@@ -119,6 +140,7 @@ public class PostGroupService {
 
         postGroupItemRepository.deleteByPostGroupId(id);
         postGroupItemRepository.flush();
+        postDetailCache.invalidate(postIds);
 
         if (deletePosts && !postIds.isEmpty()) {
             postGroupItemRepository.deleteByPostIdIn(postIds);
@@ -127,11 +149,18 @@ public class PostGroupService {
             likeLogService.deleteAllByPostIds(postIds);
             imageService.deleteAllByOwnerIds(EmbeddedImage.OwnerType.POST, postIds);
             videoService.deleteAllByOwnerIds(EmbeddedVideo.OwnerType.POST, postIds);
+            commentCounterService.removePosts(postIds);
             commentRepository.deleteByPostIds(postIds);
 
             List<Post> postsToDelete = postRepository.findAllById(postIds);
             postRepository.deleteAllInBatch(postsToDelete);
+            commentIngestService.postsDeleted(postIds);
+            viewCountService.discardAll(postIds);
+            suggestService.refresh(SuggestionTrie.Kind.POST, postIds);
+        } else {
+            postSummaryService.refreshCollectionNames(postIds);
         }
+        searchService.refresh(postIds);
 
         if (postGroup.getCoverImageId() != null) {
             imageService.delete(EmbeddedImage.OwnerType.COLLECTION, postGroup.getId(), postGroup.getCoverImageId());
@@ -139,6 +168,7 @@ public class PostGroupService {
         imageService.deleteAll(EmbeddedImage.OwnerType.COLLECTION, postGroup.getId());
 
         postGroupRepository.deleteById(id);
+        suggestService.refresh(SuggestionTrie.Kind.COLLECTION, List.of(id));
     }
 
     public void addPost(Long postGroupId, Long postId, Integer orderIndex) {
@@ -156,6 +186,9 @@ public class PostGroupService {
                 .orderIndex(orderIndex != null ? orderIndex : getNextOrder(postGroup))
                 .build();
         postGroupItemRepository.save(pgi);
+        postSummaryService.refreshCollectionNames(List.of(postId));
+        searchService.refresh(List.of(postId));
+        postDetailCache.invalidate(postId);
     }
 
     public void removePost(Long postGroupId, Long postId) {
@@ -164,11 +197,17 @@ public class PostGroupService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
         postGroupItemRepository.deleteByPostGroupAndPost(postGroup, post);
+        postSummaryService.refreshCollectionNames(List.of(postId));
+        searchService.refresh(List.of(postId));
+        postDetailCache.invalidate(postId);
     }
 
     public void reorderPosts(Long postGroupId, List<Long> orderedPostIds) {
         PostGroup postGroup = postGroupRepository.findById(postGroupId)
                 .orElseThrow(() -> new RuntimeException("PostGroup not found"));
+        List<Long> affectedIds = new ArrayList<>(postGroupItemRepository.findPostIdsByGroupId(postGroupId));
+        affectedIds.addAll(orderedPostIds);
+        postDetailCache.invalidate(affectedIds);
         postGroupItemRepository.deleteByPostGroup(postGroup);
         int index = 0;
         for (Long postId : orderedPostIds) {
@@ -181,6 +220,8 @@ public class PostGroupService {
                     .build();
             postGroupItemRepository.save(item);
         }
+        postSummaryService.refreshCollectionNames(affectedIds);
+        searchService.refresh(affectedIds);
     }
 
     public ImageDto uploadCoverImage(Long postGroupId, MultipartFile file) {
@@ -217,11 +258,8 @@ public class PostGroupService {
         }
         dto.setImages(imageService.listImages(EmbeddedImage.OwnerType.COLLECTION, postGroup.getId()));
 
-        List<PostGroupItem> items = postGroupItemRepository.findByPostGroupOrderByOrderIndexAsc(postGroup);
-        List<PostSummaryDto> postDtos = items.stream()
-                .map(item -> postSummaryMapper.toPostSummaryDto(item.getPost()))
-                .collect(Collectors.toList());
-        dto.setPosts(postDtos);
+        dto.setPosts(postSummaryMapper.toPostSummaryDtoList(
+                postGroupItemRepository.findAllPostsByGroupId(postGroup.getId())));
 
         return dto;
     }
@@ -230,12 +268,22 @@ public class PostGroupService {
         if (keyword == null || keyword.trim().isEmpty()) {
             return getPostsByCollection(groupId, pageable);
         }
-        Page<Post> postPage = postGroupItemRepository.searchPostsByGroupIdAndKeyword(groupId, keyword.trim(), DRAFT_SLUG, pageable);
-        return postPage.map(postSummaryMapper::toPostSummaryDto);
+        SearchResult result = searchResultCache.get(new SearchQuery(keyword.trim(), null, groupId,
+                (int) pageable.getOffset(), pageable.getPageSize()), searchService::search);
+        searchAnalyticsService.record(keyword, result.total());
+        return new PageImpl<>(postSummaryService.summariesOf(result.hits()), pageable, result.total());
+    }
+
+    public PostCursorPageResponse getPostsByCollection(Long groupId, String cursor, int size) {
+        PostCursor after = PostCursor.decode(cursor, PostCursor.Kind.ORDER_INDEX);
+        return postSummaryMapper.toCursorPage(
+                postGroupItemRepository.findPostsByGroupIdAfter(groupId, DRAFT_SLUG,
+                        after.orderIndex(), after.id(), PostCursor.slice(size)),
+                row -> PostCursor.ofOrderIndex(row.orderIndex(), row.id()));
     }
 
     public Page<PostSummaryDto> getPostsByCollection(Long groupId, Pageable pageable) {
-        Page<Post> postPage = postGroupItemRepository.findPostsByGroupId(groupId, DRAFT_SLUG, pageable);
-        return postPage.map(postSummaryMapper::toPostSummaryDto);
+        return postGroupItemRepository.findPostsByGroupId(groupId, DRAFT_SLUG, pageable)
+                .map(postSummaryMapper::toPostSummaryDto);
     }
 }
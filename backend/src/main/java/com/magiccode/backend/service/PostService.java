@@ -1,7 +1,11 @@
 package com.magiccode.backend.service;
 
+import com.magiccode.backend.dto.LikeResponseDto;
+import com.magiccode.backend.dto.PostCursorPageResponse;
 import com.magiccode.backend.dto.PostDetailDto;
 import com.magiccode.backend.dto.PostSummaryDto;
+import com.magiccode.backend.dto.SearchFacetDto;
+import com.magiccode.backend.dto.SearchResponse;
 import com.magiccode.backend.mapping.PostDetailMapper;
 import com.magiccode.backend.mapping.PostSummaryMapper;
 import com.magiccode.backend.mapping.VideoMapper;
@@ -9,23 +13,33 @@ import com.magiccode.backend.model.Category;
 import com.magiccode.backend.model.EmbeddedImage;
 import com.magiccode.backend.model.EmbeddedVideo;
 import com.magiccode.backend.model.Post;
+import com.magiccode.backend.model.PostGroup;
 import com.magiccode.backend.repository.CategoryRepository;
 import com.magiccode.backend.repository.CommentRepository;
 import com.magiccode.backend.repository.PostGroupItemRepository;
+import com.magiccode.backend.repository.PostGroupRepository;
 import com.magiccode.backend.repository.PostRepository;
+import com.magiccode.backend.search.SearchFacets;
+import com.magiccode.backend.search.SearchQuery;
+import com.magiccode.backend.search.SearchResult;
+import com.magiccode.backend.search.SuggestionTrie;
+import com.magiccode.backend.util.PostCursor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -41,7 +55,18 @@ public class PostService {
     private final VideoMapper videoMapper;
     private final ImageService imageService;
     private final CommentRepository commentRepository;
+    private final CommentCounterService commentCounterService;
     private final PostGroupItemRepository postGroupItemRepository;
+    private final PostGroupRepository postGroupRepository;
+    private final ViewCountService viewCountService;
+    private final PostDetailCache postDetailCache;
+    private final PostSummaryService postSummaryService;
+    private final SearchService searchService;
+    private final SearchResultCache searchResultCache;
+    private final SearchAnalyticsService searchAnalyticsService;
+    private final SuggestService suggestService;
+    private final CommentIngestService commentIngestService;
+    private final TransactionTemplate transactionTemplate;
     private static final String DRAFT_SLUG = "00100000";
 
     public Page<PostSummaryDto> getPostByCategorySlug(String slug, Pageable pageable) {
@@ -49,28 +74,63 @@ public class PostService {
         if (category == null) {
             throw new RuntimeException("Category Not Found.");
         }
-        Page<Post> postPage = postRepository.findByCategoryAndPublishedTrueAndSlugNot(category, DRAFT_SLUG, pageable);
-        return postPage.map(postSummaryMapper::toPostSummaryDto);
+        return postRepository.findSummariesByCategoryId(category.getId(), DRAFT_SLUG, pageable)
+                .map(postSummaryMapper::toPostSummaryDto);
     }
 
+    public PostCursorPageResponse getPostByCategorySlug(String slug, String cursor, int size) {
+        Category category = categoryRepository.findBySlug(slug);
+        if (category == null) {
+            throw new RuntimeException("Category Not Found.");
+        }
+        PostCursor after = PostCursor.decode(cursor, PostCursor.Kind.CREATED_AT);
+        return postSummaryMapper.toCursorPage(
+                postRepository.findSummariesByCategoryIdBefore(category.getId(), DRAFT_SLUG,
+                        after.createdAt(), after.id(), PostCursor.slice(size)),
+                row -> PostCursor.ofCreatedAt(row.createdAt(), row.id()));
+    }
+
+    /**
+     * Serves post detail from {@link PostDetailCache}; only a miss opens a
+     * (read-only) transaction. Counters are overlaid on a copy of the cached
+     * template so views and reactions never evict the entry.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PostDetailDto getPostBySlug(String slug) {
-        Post post = postRepository.findBySlug(slug);
-        if (post != null) {
-            post.setViewCount(post.getViewCount() + 1);
-            PostDetailDto dto = postDetailMapper.toPostDetailDto(post);
-            dto.setImages(imageService.listPostImages(post.getId()));
-            dto.setVideos(videoMapper.toDtoList(videoService.list(EmbeddedVideo.OwnerType.POST, post.getId())));
-
-            List<Object[]> collectionResults = postGroupItemRepository.findCollectionNamesByPostIds(List.of(post.getId()));
-            List<String> collectionNames = collectionResults.stream()
-                    .map(row -> (String) row[1])
-                    .collect(Collectors.toList());
-            dto.setCollectionNames(collectionNames);
-
-            return dto;
-        } else {
+        PostDetailDto template = postDetailCache.get(slug);
+        if (template == null) {
+            long generation = postDetailCache.generation();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            template = readOnly.execute(status -> loadPostDetail(slug));
+            // Stored as a baseline: live views = baseline + views recorded by this instance.
+            template.setViewCount((int) viewCountService.baseline(template.getId()));
+            postDetailCache.put(slug, template, generation);
+        }
+        viewCountService.recordView(template.getId());
+        return withLiveCounters(template);
+    }
+
+    private PostDetailDto loadPostDetail(String slug) {
+        Post post = postRepository.findDetailBySlug(slug);
+        if (post == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post Not Found");
         }
+        PostDetailDto dto = postDetailMapper.toPublicPostDetailDto(post);
+        dto.setImages(imageService.listImages(EmbeddedImage.OwnerType.POST, post.getId()));
+        dto.setVideos(videoMapper.toDtoList(videoService.list(EmbeddedVideo.OwnerType.POST, post.getId())));
+        dto.setCollectionNames(postGroupItemRepository.findCollectionNamesByPostId(post.getId()));
+        return dto;
+    }
+
+    private PostDetailDto withLiveCounters(PostDetailDto template) {
+        Long postId = template.getId();
+        LikeResponseDto reactions = likeLogService.latestCounts(postId);
+        return template.toBuilder()
+                .viewCount((int) (template.getViewCount() + viewCountService.recordedViews(postId)))
+                .likeCount(reactions != null ? reactions.getLikes() : template.getLikeCount())
+                .dislikeCount(reactions != null ? reactions.getDislikes() : template.getDislikeCount())
+                .build();
     }
 
     public PostDetailDto createPost(PostDetailDto postDetailDto, String categorySlug) {
@@ -96,7 +156,11 @@ public class PostService {
         post.setUpdatedAt(null);
 
         post.setCategory(category);
+        postSummaryService.refresh(post);
         postRepository.save(post);
+        commentIngestService.postCreated(post.getId());
+        searchService.refresh(List.of(post.getId()));
+        suggestService.refresh(SuggestionTrie.Kind.POST, List.of(post.getId()));
 
         videoService.syncFromContent(EmbeddedVideo.OwnerType.POST, post.getId(), post.getContent());
         PostDetailDto dto = postDetailMapper.toPostDetailDto(post);
@@ -159,8 +223,12 @@ public class PostService {
             post.setUpdatedAt(LocalDateTime.now());
         }
 
+        postSummaryService.refresh(post);
         postRepository.save(post);
         videoService.syncFromContent(EmbeddedVideo.OwnerType.POST, post.getId(), post.getContent());
+        postDetailCache.invalidate(post.getId());
+        searchService.refresh(List.of(post.getId()));
+        suggestService.refresh(SuggestionTrie.Kind.POST, List.of(post.getId()));
         PostDetailDto dto = postDetailMapper.toPostDetailDto(post);
         dto.setImages(imageService.listPostImages(post.getId()));
         dto.setVideos(videoMapper.toDtoList(videoService.list(EmbeddedVideo.OwnerType.POST, post.getId())));
@@ -182,15 +250,26 @@ public class PostService {
         likeLogService.deleteAllByPostId(postId);
         imageService.deleteAll(EmbeddedImage.OwnerType.POST, postId);
         videoService.deleteAll(EmbeddedVideo.OwnerType.POST, postId);
+        commentCounterService.removePosts(List.of(postId));
         commentRepository.deleteByPostId(postId);
         postRepository.delete(post);
+        commentIngestService.postsDeleted(List.of(postId));
+        postDetailCache.invalidate(postId);
+        searchService.refresh(List.of(postId));
+        suggestService.refresh(SuggestionTrie.Kind.POST, List.of(postId));
+        viewCountService.discard(postId);
     }
 
     public List<PostSummaryDto> getRecentPosts(int limit) {
-        return postRepository.findByPublishedTrueAndSlugNotOrderByCreatedAtDesc(DRAFT_SLUG, PageRequest.of(0, limit))
-                .stream()
-                .map(postSummaryMapper::toPostSummaryDto)
-                .toList();
+        return postSummaryMapper.toPostSummaryDtoList(
+                postRepository.findRecentSummaries(DRAFT_SLUG, PageRequest.of(0, limit)));
+    }
+
+    public PostCursorPageResponse getRecentPosts(String cursor, int size) {
+        PostCursor after = PostCursor.decode(cursor, PostCursor.Kind.CREATED_AT);
+        return postSummaryMapper.toCursorPage(
+                postRepository.findRecentSummariesBefore(DRAFT_SLUG, after.createdAt(), after.id(), PostCursor.slice(size)),
+                row -> PostCursor.ofCreatedAt(row.createdAt(), row.id()));
     }
 
     public List<PostSummaryDto> searchPosts(String keyword, int limit) {
@@ -198,28 +277,9 @@ public class PostService {
             return Collections.emptyList();
         }
 
-        List<Post> posts = postRepository.searchByKeyword(keyword.trim(), PageRequest.of(0, limit));
-        if (posts.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<Long> postIds = posts.stream().map(Post::getId).toList();
-        List<Object[]> collectionResults = postGroupItemRepository.findCollectionNamesByPostIds(postIds);
-
-        Map<Long, List<String>> postCollectionsMap = new HashMap<>();
-        for (Object[] row : collectionResults) {
-            Long postId = (Long) row[0];
-            String collectionName = (String) row[1];
-            postCollectionsMap.computeIfAbsent(postId, k -> new ArrayList<>()).add(collectionName);
-        }
-
-        return posts.stream()
-                .map(post -> {
-                    PostSummaryDto dto = postSummaryMapper.toPostSummaryDto(post);
-                    dto.setCollectionNames(postCollectionsMap.getOrDefault(post.getId(), Collections.emptyList()));
-                    return dto;
-                })
-                .toList();
+        SearchResult result = searchResultCache.get(SearchQuery.all(keyword.trim(), limit), searchService::search);
+        searchAnalyticsService.record(keyword, result.total());
+        return postSummaryService.summariesOf(result.hits());
     }
 
     public Page<PostSummaryDto> searchPostsByCategorySlug(String slug, String keyword, Pageable pageable) {
@@ -230,7 +290,56 @@ public class PostService {
         if (category == null) {
             throw new RuntimeException("Category Not Found.");
         }
-        Page<Post> postPage = postRepository.searchByCategorySlugAndKeyword(slug, keyword.trim(), DRAFT_SLUG, pageable);
-        return postPage.map(postSummaryMapper::toPostSummaryDto);
+        SearchResult result = searchResultCache.get(new SearchQuery(keyword.trim(), category.getId(), null,
+                (int) pageable.getOffset(), pageable.getPageSize()), searchService::search);
+        searchAnalyticsService.record(keyword, result.total());
+        return new PageImpl<>(postSummaryService.summariesOf(result.hits()), pageable, result.total());
+    }
+
+    /**
+     * Searches published posts, optionally within one category and/or one
+     * collection, and reports a spelling correction when one was applied.
+     */
+    public SearchResponse search(String keyword, String categorySlug, String collectionSlug, Pageable pageable) {
+        Long categoryId = null;
+        if (categorySlug != null && !categorySlug.isBlank()) {
+            Category category = categoryRepository.findBySlug(categorySlug);
+            if (category == null) {
+                throw new RuntimeException("Category Not Found.");
+            }
+            categoryId = category.getId();
+        }
+        Long collectionId = null;
+        if (collectionSlug != null && !collectionSlug.isBlank()) {
+            collectionId = postGroupRepository.findBySlug(collectionSlug)
+                    .filter(group -> !DRAFT_SLUG.equals(group.getSlug()))
+                    .map(PostGroup::getId)
+                    .orElseThrow(() -> new RuntimeException("Collection not found"));
+        }
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return new SearchResponse(List.of(), 0, pageable.getPageNumber(), pageable.getPageSize(), null,
+                    List.of(), List.of());
+        }
+        SearchResult result = searchResultCache.get(new SearchQuery(keyword.trim(), categoryId, collectionId,
+                (int) pageable.getOffset(), pageable.getPageSize(), true), searchService::search);
+        searchAnalyticsService.record(keyword, result.total());
+        SearchFacets facets = result.facets();
+        return new SearchResponse(postSummaryService.summariesOf(result.hits()), result.total(),
+                pageable.getPageNumber(), pageable.getPageSize(), result.didYouMean(),
+                facets == null ? List.of() : toFacetDtos(facets.categories(), categoryRepository.findAllById(
+                        facets.categories().keySet()), Category::getId, Category::getSlug, Category::getName),
+                facets == null ? List.of() : toFacetDtos(facets.collections(), postGroupRepository.findAllById(
+                        facets.collections().keySet()), PostGroup::getId, PostGroup::getSlug, PostGroup::getName));
+    }
+
+    private static <T> List<SearchFacetDto> toFacetDtos(Map<Long, Integer> counts, List<T> owners,
+                                                        Function<T, Long> id, Function<T, String> slug,
+                                                        Function<T, String> name) {
+        return owners.stream()
+                .filter(owner -> !DRAFT_SLUG.equals(slug.apply(owner)))
+                .map(owner -> new SearchFacetDto(slug.apply(owner), name.apply(owner), counts.get(id.apply(owner))))
+                .sorted(Comparator.comparingInt(SearchFacetDto::getCount).reversed()
+                        .thenComparing(SearchFacetDto::getName, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
     }
 }
@@ -0,0 +1,125 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.dto.PostSummaryDto;
+import com.magiccode.backend.mapping.PostSummaryMapper;
+import com.magiccode.backend.model.Post;
+import com.magiccode.backend.repository.PostGroupItemRepository;
+import com.magiccode.backend.repository.PostRepository;
+import com.magiccode.backend.repository.PostSummaryRow;
+import com.magiccode.backend.search.SearchHit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the denormalized summary columns on {@code posts} (excerpt,
+ * category name, collection names) that listing queries read instead of the
+ * MEDIUMTEXT body and its associations.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostSummaryService implements ApplicationRunner {
+    public static final int EXCERPT_LENGTH = 150;
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    private final PostRepository postRepository;
+    private final PostGroupItemRepository postGroupItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PostSummaryMapper postSummaryMapper;
+
+    public static String excerptOf(String content) {
+        if (content == null) {
+            return "";
+        }
+        return content.length() > EXCERPT_LENGTH ? content.substring(0, EXCERPT_LENGTH) + "..." : content;
+    }
+
+    /**
+     * Refreshes the columns derived from the post itself. Call before saving a
+     * created or updated post.
+     */
+    public void refresh(Post post) {
+        post.setExcerpt(excerptOf(post.getContent()));
+        post.setCategoryName(post.getCategory() != null ? post.getCategory().getName() : null);
+    }
+
+    /**
+     * Loads summaries for ranked search hits in one query, keeping hit order
+     * and attaching each hit's snippet.
+     */
+    public List<PostSummaryDto> summariesOf(List<SearchHit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PostSummaryRow> rows = postRepository.findSummariesByIds(hits.stream().map(SearchHit::postId).toList())
+                .stream()
+                .collect(Collectors.toMap(PostSummaryRow::id, Function.identity()));
+        return hits.stream()
+                .filter(hit -> rows.containsKey(hit.postId()))
+                .map(hit -> {
+                    PostSummaryDto dto = postSummaryMapper.toPostSummaryDto(rows.get(hit.postId()));
+                    dto.setSnippet(postSummaryMapper.toSearchSnippetDto(hit.snippet()));
+                    return dto;
+                })
+                .toList();
+    }
+
+    @Transactional
+    public void refreshCategoryName(Long categoryId, String name) {
+        postRepository.updateCategoryName(categoryId, name);
+    }
+
+    @Transactional
+    public void refreshCollectionNames(Collection<Long> postIds) {
+        if (postIds == null || postIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = postIds.stream().distinct().toList();
+        Map<Long, List<String>> namesByPostId = new HashMap<>();
+        for (Object[] row : postGroupItemRepository.findCollectionNamesByPostIds(ids)) {
+            namesByPostId.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        for (Long postId : ids) {
+            List<String> names = namesByPostId.get(postId);
+            postRepository.updateCollectionNames(postId,
+                    names == null ? null : String.join(PostSummaryRow.COLLECTION_NAME_SEPARATOR, names));
+        }
+    }
+
+    /**
+     * Fills summary columns for rows written before the read model existed
+     * (for example a dev database upgraded by {@code ddl-auto=update}).
+     * Production databases are backfilled by migration 003.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        int filled = 0;
+        List<Post> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Post> posts = postRepository.findWithoutSummary(PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                posts.forEach(this::refresh);
+                refreshCollectionNames(posts.stream().map(Post::getId).toList());
+                return posts;
+            });
+            filled += batch.size();
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+        if (filled > 0) {
+            log.info("post summaries backfilled count={}", filled);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.model.CommentStatus;
+import com.magiccode.backend.repository.CommentRepository;
+import com.magiccode.backend.repository.LikeLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Deletes old REJECTED comments and compacts old like logs into
+ * {@code like_log_rollups}, in small batches.
+ *
+ * <p>Each batch is one transaction that locks at most {@code batch-size} of
+ * the oldest eligible rows, deletes them and moves the comment counters or the
+ * post's rollup by the same amount; the job then sleeps {@code pause-ms} so
+ * other writers get the tables in between. Rejected comments that have replies
+ * are kept so threads stay intact. A compacted like log no longer blocks a
+ * repeated or switched reaction from the same visitor on that post.</p>
+ *
+ * <p>Runs on the async executor rather than the scheduler thread, so the pauses
+ * never delay other scheduled jobs. Only one purge runs at a time.</p>
+ */
+@Slf4j
+@Service
+public class RetentionService {
+    private static final String ROLLUP_SQL = "INSERT INTO like_log_rollups (post_id, likes, dislikes) " +
+            "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE likes = likes + VALUES(likes), dislikes = dislikes + VALUES(dislikes)";
+
+    private final boolean enabled;
+    private final int rejectedCommentDays;
+    private final int likeLogDays;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final CommentRepository commentRepository;
+    private final LikeLogRepository likeLogRepository;
+    private final CommentCounterService commentCounterService;
+    private final CommentIngestService commentIngestService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runComments = new AtomicLong();
+    private final AtomicLong runLikeLogs = new AtomicLong();
+    private final Counter purgedComments;
+    private final Counter purgedLikeLogs;
+    private volatile boolean stopping;
+
+    public RetentionService(
+            @Value("${blog.retention.enabled:false}") boolean enabled,
+            @Value("${blog.retention.rejected-comment-days:90}") int rejectedCommentDays,
+            @Value("${blog.retention.like-log-days:365}") int likeLogDays,
+            @Value("${blog.retention.batch-size:500}") int batchSize,
+            @Value("${blog.retention.pause-ms:200}") long pauseMillis,
+            CommentRepository commentRepository,
+            LikeLogRepository likeLogRepository,
+            CommentCounterService commentCounterService,
+            CommentIngestService commentIngestService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.rejectedCommentDays = rejectedCommentDays;
+        this.likeLogDays = likeLogDays;
+        this.batchSize = Math.max(batchSize, 1);
+        this.pauseMillis = Math.max(pauseMillis, 0);
+        this.commentRepository = commentRepository;
+        this.likeLogRepository = likeLogRepository;
+        this.commentCounterService = commentCounterService;
+        this.commentIngestService = commentIngestService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgedComments = Counter.builder("blog.retention.purged").tag("kind", "rejected_comments")
+                .description("Rows removed by the retention job").register(meterRegistry);
+        this.purgedLikeLogs = Counter.builder("blog.retention.purged").tag("kind", "like_logs")
+                .description("Rows removed by the retention job").register(meterRegistry);
+        Gauge.builder("blog.retention.run.purged", runComments, AtomicLong::get).tag("kind", "rejected_comments")
+                .description("Rows removed by the current or last retention run").register(meterRegistry);
+        Gauge.builder("blog.retention.run.purged", runLikeLogs, AtomicLong::get).tag("kind", "like_logs")
+                .description("Rows removed by the current or last retention run").register(meterRegistry);
+        Gauge.builder("blog.retention.running", running, flag -> flag.get() ? 1 : 0).register(meterRegistry);
+    }
+
+    public record Result(long rejectedComments, long likeLogs) {
+    }
+
+    @Async
+    @Scheduled(initialDelayString = "${blog.retention.interval-ms:3600000}",
+            fixedDelayString = "${blog.retention.interval-ms:3600000}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purge();
+        }
+    }
+
+    /**
+     * Purges everything currently past its retention period and returns the
+     * rows removed, or zeros if a purge is already running.
+     */
+    public Result purge() {
+        if (!running.compareAndSet(false, true)) {
+            return new Result(0, 0);
+        }
+        try {
+            runComments.set(0);
+            runLikeLogs.set(0);
+            long started = System.nanoTime();
+            LocalDateTime now = LocalDateTime.now();
+            long comments = rejectedCommentDays > 0
+                    ? drain(now.minusDays(rejectedCommentDays), this::purgeRejectedComments, runComments)
+                    : 0;
+            long likeLogs = likeLogDays > 0
+                    ? drain(now.minusDays(likeLogDays), this::compactLikeLogs, runLikeLogs)
+                    : 0;
+            log.info("retention purge finished rejectedComments={} likeLogs={} tookMs={}",
+                    comments, likeLogs, (System.nanoTime() - started) / 1_000_000);
+            return new Result(comments, likeLogs);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    private long drain(LocalDateTime cutoff, Function<LocalDateTime, Integer> batch, AtomicLong progress) {
+        long total = 0;
+        while (!stopping) {
+            Integer removed = transactionTemplate.execute(status -> batch.apply(cutoff));
+            if (removed == null || removed == 0) {
+                break;
+            }
+            total += removed;
+            progress.addAndGet(removed);
+            if (removed < batchSize) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int purgeRejectedComments(LocalDateTime cutoff) {
+        List<Object[]> rows = commentRepository.lockRejectedLeavesBefore(cutoff, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<CommentCounterService.Change> changes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+            changes.add(new CommentCounterService.Change((Long) row[1], CommentStatus.REJECTED, -1));
+        }
+        int deleted = commentRepository.deleteByIds(ids);
+        commentCounterService.apply(changes);
+        commentIngestService.commentsDeleted(ids);
+        purgedComments.increment(deleted);
+        log.debug("retention purged rejected comments count={} lastId={}", deleted, ids.get(ids.size() - 1));
+        return deleted;
+    }
+
+    private int compactLikeLogs(LocalDateTime cutoff) {
+        List<Object[]> rows = likeLogRepository.lockCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        // Per post: {likes, dislikes}, in post order so concurrent upserts lock rollups alike.
+        Map<Long, long[]> perPost = new TreeMap<>();
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+            long[] counts = perPost.computeIfAbsent((Long) row[1], id -> new long[2]);
+            counts[Boolean.TRUE.equals(row[2]) ? 0 : 1]++;
+        }
+        List<Object[]> upserts = new ArrayList<>(perPost.size());
+        perPost.forEach((postId, counts) -> upserts.add(new Object[]{postId, counts[0], counts[1]}));
+        jdbcTemplate.batchUpdate(ROLLUP_SQL, upserts);
+        int deleted = likeLogRepository.deleteByIds(ids);
+        purgedLikeLogs.increment(deleted);
+        log.debug("retention compacted like logs count={} posts={}", deleted, perPost.size());
+        return deleted;
+    }
+
+    private boolean pause() {
+        if (pauseMillis == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
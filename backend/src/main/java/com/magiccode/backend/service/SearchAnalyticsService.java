@@ -0,0 +1,131 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.dto.SearchAnalyticsDto;
+import com.magiccode.backend.model.SearchQueryRollup;
+import com.magiccode.backend.repository.SearchQueryRollupRepository;
+import com.magiccode.backend.search.TopKQueries;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts public search queries in fixed memory and periodically writes the
+ * heaviest ones as rollup rows, so a search never costs a database write.
+ *
+ * <p>Two {@link TopKQueries} run side by side: one over every query and one
+ * over queries that found nothing. Queries are normalized the same way as the
+ * result cache keys. Every flush writes at most {@link #TOP_K} rows per kind
+ * for the window that just ended and starts a new window; a failed write is
+ * logged and that window is dropped.</p>
+ */
+@Slf4j
+@Service
+public class SearchAnalyticsService {
+    static final int TOP_K = 50;
+    static final int MAX_QUERY_LENGTH = 100;
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int MAX_DAYS = 365;
+    private static final int MAX_LIMIT = 100;
+
+    private final TopKQueries popular = new TopKQueries(TOP_K, MAX_QUERY_LENGTH, SKETCH_WIDTH, SKETCH_DEPTH);
+    private final TopKQueries zeroResult = new TopKQueries(TOP_K, MAX_QUERY_LENGTH, SKETCH_WIDTH, SKETCH_DEPTH);
+    private final SearchQueryRollupRepository rollupRepository;
+    private final Counter found;
+    private final Counter empty;
+    private LocalDateTime windowStart = LocalDateTime.now();
+
+    public SearchAnalyticsService(SearchQueryRollupRepository rollupRepository, MeterRegistry meterRegistry) {
+        this.rollupRepository = rollupRepository;
+        this.found = Counter.builder("blog.search.queries").tag("result", "found").register(meterRegistry);
+        this.empty = Counter.builder("blog.search.queries").tag("result", "empty").register(meterRegistry);
+        Gauge.builder("blog.search.analytics.memory", this,
+                        service -> service.popular.estimatedBytes() + service.zeroResult.estimatedBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void record(String query, long total) {
+        String normalized = SearchResultCache.normalize(query);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            popular.add(normalized);
+            if (total == 0) {
+                zeroResult.add(normalized);
+            }
+        }
+        (total == 0 ? empty : found).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${blog.search.analytics.flush-interval-ms:300000}")
+    public void flush() {
+        List<SearchQueryRollup> rows = new ArrayList<>();
+        synchronized (this) {
+            LocalDateTime windowEnd = LocalDateTime.now();
+            addRows(rows, SearchQueryRollup.Kind.POPULAR, popular, windowEnd);
+            addRows(rows, SearchQueryRollup.Kind.ZERO_RESULT, zeroResult, windowEnd);
+            popular.clear();
+            zeroResult.clear();
+            windowStart = windowEnd;
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            rollupRepository.saveAll(rows);
+            log.debug("search analytics flushed rows={}", rows.size());
+        } catch (RuntimeException e) {
+            log.warn("search analytics flush failed rows={} type={}", rows.size(), e.getClass().getSimpleName());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @Transactional(readOnly = true)
+    public SearchAnalyticsDto getRollups(int days, int limit) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new RuntimeException("days must be between 1 and " + MAX_DAYS);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        LocalDateTime since = LocalDateTime.now().minusDays(days);
+        return new SearchAnalyticsDto(since,
+                sum(SearchQueryRollup.Kind.POPULAR, since, limit),
+                sum(SearchQueryRollup.Kind.ZERO_RESULT, since, limit));
+    }
+
+    private List<SearchAnalyticsDto.QueryCount> sum(SearchQueryRollup.Kind kind, LocalDateTime since, int limit) {
+        return rollupRepository.sumByQuerySince(kind, since, PageRequest.of(0, limit)).stream()
+                .map(row -> new SearchAnalyticsDto.QueryCount((String) row[0], ((Number) row[1]).longValue()))
+                .toList();
+    }
+
+    private void addRows(List<SearchQueryRollup> rows, SearchQueryRollup.Kind kind, TopKQueries queries,
+                         LocalDateTime windowEnd) {
+        for (TopKQueries.Entry entry : queries.top()) {
+            rows.add(SearchQueryRollup.builder()
+                    .kind(kind)
+                    .query(entry.query())
+                    .count(entry.count())
+                    .windowStart(windowStart)
+                    .windowEnd(windowEnd)
+                    .build());
+        }
+    }
+}
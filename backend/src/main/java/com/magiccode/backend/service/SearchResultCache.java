@@ -0,0 +1,135 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.search.SearchQuery;
+import com.magiccode.backend.search.SearchResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of search result pages keyed by normalized query text,
+ * category and collection filters, and page window. The scope only tags the
+ * hit and miss metrics.
+ *
+ * <p>Every entry records the content version it was loaded at. A write to the
+ * search index bumps the version with {@link #bump()}, which makes every older
+ * entry a miss without walking the map; stale entries are replaced on their
+ * next read or age out of the LRU order. The version is captured before the
+ * loader runs, so a result computed across a bump is never served as current.</p>
+ *
+ * <p>Only ranked ids and snippets are cached; summaries, and the counters on
+ * them, are still read per request.</p>
+ */
+@Service
+public class SearchResultCache {
+    public enum Scope {POSTS, CATEGORY, COLLECTION}
+
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, Entry> entries;
+    private final Map<Scope, LongAdder> hits = new EnumMap<>(Scope.class);
+    private final Map<Scope, LongAdder> misses = new EnumMap<>(Scope.class);
+
+    public SearchResultCache(@Value("${blog.search.result-cache.max-entries:2000}") int maxEntries,
+                             MeterRegistry meterRegistry) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        for (Scope scope : Scope.values()) {
+            LongAdder scopeHits = new LongAdder();
+            LongAdder scopeMisses = new LongAdder();
+            hits.put(scope, scopeHits);
+            misses.put(scope, scopeMisses);
+            String tag = scope.name().toLowerCase(Locale.ROOT);
+            FunctionCounter.builder("blog.search.cache", scopeHits, LongAdder::sum)
+                    .tags("endpoint", tag, "result", "hit").register(meterRegistry);
+            FunctionCounter.builder("blog.search.cache", scopeMisses, LongAdder::sum)
+                    .tags("endpoint", tag, "result", "miss").register(meterRegistry);
+            Gauge.builder("blog.search.cache.hit.ratio", this, cache -> cache.stats(scope).hitRatio())
+                    .tag("endpoint", tag).register(meterRegistry);
+        }
+        Gauge.builder("blog.search.cache.size", this, SearchResultCache::size).register(meterRegistry);
+    }
+
+    public SearchResult get(SearchQuery query, Function<SearchQuery, SearchResult> loader) {
+        Scope scope = scopeOf(query);
+        String key = key(query);
+        long current = version.get();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == current) {
+                hits.get(scope).increment();
+                return entry.result;
+            }
+        }
+        misses.get(scope).increment();
+        SearchResult result = loader.apply(query);
+        synchronized (entries) {
+            entries.put(key, new Entry(result, current));
+        }
+        return result;
+    }
+
+    /**
+     * Marks every cached page stale. Call once a change is visible to the
+     * search backend.
+     */
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Current content version; changes whenever {@link #bump()} is called.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public CacheStats stats(Scope scope) {
+        return new CacheStats(hits.get(scope).sum(), misses.get(scope).sum());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static Scope scopeOf(SearchQuery query) {
+        if (query.collectionId() != null) {
+            return Scope.COLLECTION;
+        }
+        return query.categoryId() != null ? Scope.CATEGORY : Scope.POSTS;
+    }
+
+    private static String key(SearchQuery query) {
+        return query.categoryId() + ":" + query.collectionId() + ":" + query.offset() + ":" + query.limit() + ":" + query.facets()
+                + ":" + normalize(query.text());
+    }
+
+    private record Entry(SearchResult result, long version) {
+    }
+
+    public record CacheStats(long hits, long misses) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
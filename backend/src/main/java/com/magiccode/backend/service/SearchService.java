@@ -0,0 +1,22 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.search.SearchQuery;
+import com.magiccode.backend.search.SearchResult;
+
+import java.util.Collection;
+
+/**
+ * Keyword search over published posts. Implementations return post ids in
+ * rank order; callers load summaries from the read model.
+ */
+public interface SearchService {
+    SearchResult search(SearchQuery query);
+
+    /**
+     * Re-reads the given posts and updates the index after the current
+     * transaction commits. Posts that are gone or no longer public are removed.
+     */
+    void refresh(Collection<Long> postIds);
+
+    void rebuild();
+}
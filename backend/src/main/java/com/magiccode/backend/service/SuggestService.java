@@ -0,0 +1,150 @@
+package com.magiccode.backend.service;
+
+import com.magiccode.backend.dto.SuggestionDto;
+import com.magiccode.backend.repository.CategoryRepository;
+import com.magiccode.backend.repository.PostGroupRepository;
+import com.magiccode.backend.repository.PostRepository;
+import com.magiccode.backend.search.SuggestionTrie;
+import com.magiccode.backend.search.SuggestionTrie.Kind;
+import com.magiccode.backend.search.SuggestionTrie.Suggestion;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves search-as-you-type suggestions from a {@link SuggestionTrie}.
+ *
+ * <p>Post titles are refreshed per post once the writing transaction commits;
+ * categories and collections are few, so a change to any of them reloads that
+ * whole kind. Suggestions are ranked by views plus five times likes, and those
+ * counters move without a write through the services, so the trie is also
+ * rebuilt on a fixed delay and swapped in whole.</p>
+ */
+@Slf4j
+@Service
+public class SuggestService implements ApplicationRunner {
+    private static final String DRAFT_SLUG = "00100000";
+    public static final int DEFAULT_LIMIT = 8;
+
+    private volatile SuggestionTrie trie = new SuggestionTrie();
+    // Walking the trie holds its write monitor, so the footprint is measured after writes, not per scrape.
+    private volatile SuggestionTrie.Footprint footprint = trie.footprint();
+    private final Object refreshLock = new Object();
+    private final PostRepository postRepository;
+    private final CategoryRepository categoryRepository;
+    private final PostGroupRepository postGroupRepository;
+    private final TransactionTemplate readOnly;
+
+    public SuggestService(PostRepository postRepository,
+                          CategoryRepository categoryRepository,
+                          PostGroupRepository postGroupRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.categoryRepository = categoryRepository;
+        this.postGroupRepository = postGroupRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        // Refreshes run from afterCommit, where the finished transaction is still bound to the thread.
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("blog.search.suggest.entries", this, service -> service.trie.size()).register(meterRegistry);
+        Gauge.builder("blog.search.suggest.memory", this, service -> service.footprint.estimatedBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        int capped = Math.max(1, Math.min(limit, SuggestionTrie.TOP_K));
+        return trie.lookup(prefix, capped).stream()
+                .map(s -> new SuggestionDto(s.kind().name(), s.text(), s.slug()))
+                .toList();
+    }
+
+    public SuggestionTrie.Footprint footprint() {
+        return footprint;
+    }
+
+    /**
+     * Re-reads the given entries after the current transaction commits. For
+     * {@link Kind#POST} only the listed posts are reloaded; for categories and
+     * collections the ids are ignored and the whole kind is reloaded.
+     */
+    public void refresh(Kind kind, Collection<Long> ids) {
+        if (kind == Kind.POST && (ids == null || ids.isEmpty())) {
+            return;
+        }
+        Set<Long> copy = ids == null ? Set.of() : new HashSet<>(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(kind, copy);
+                }
+            });
+        } else {
+            reload(kind, copy);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${blog.search.suggest.rebuild-interval-ms:600000}",
+            fixedDelayString = "${blog.search.suggest.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        synchronized (refreshLock) {
+            SuggestionTrie fresh = new SuggestionTrie();
+            readOnly.executeWithoutResult(status -> {
+                load(Kind.POST, postRepository.findSuggestionRows(DRAFT_SLUG)).forEach(fresh::put);
+                load(Kind.CATEGORY, categoryRepository.findSuggestionRows()).forEach(fresh::put);
+                load(Kind.COLLECTION, postGroupRepository.findSuggestionRows(DRAFT_SLUG)).forEach(fresh::put);
+            });
+            trie = fresh;
+            footprint = fresh.footprint();
+            log.info("suggestion trie rebuilt entries={} nodes={} bytes={}",
+                    footprint.entries(), footprint.nodes(), footprint.estimatedBytes());
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    private void reload(Kind kind, Set<Long> ids) {
+        synchronized (refreshLock) {
+            List<Suggestion> loaded = readOnly.execute(status -> switch (kind) {
+                case POST -> load(kind, postRepository.findSuggestionRowsByIds(ids, DRAFT_SLUG));
+                case CATEGORY -> load(kind, categoryRepository.findSuggestionRows());
+                case COLLECTION -> load(kind, postGroupRepository.findSuggestionRows(DRAFT_SLUG));
+            });
+            SuggestionTrie current = trie;
+            Set<Long> missing = kind == Kind.POST ? new HashSet<>(ids) : current.ids(kind);
+            for (Suggestion suggestion : loaded) {
+                current.put(suggestion);
+                missing.remove(suggestion.id());
+            }
+            missing.forEach(id -> current.remove(kind, id));
+            footprint = current.footprint();
+        }
+    }
+
+    // Rows are (id, text, slug, popularity).
+    private static List<Suggestion> load(Kind kind, List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> new Suggestion(kind, (Long) row[0], (String) row[1], (String) row[2],
+                        1 + ((Number) row[3]).longValue()))
+                .toList();
+    }
+}
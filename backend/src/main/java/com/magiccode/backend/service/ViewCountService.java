@@ -0,0 +1,101 @@
+package com.magiccode.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers post views in memory and writes them back in batches, so a page view
+ * never takes a row lock on {@code posts}. Pending deltas are added on top of
+ * the persisted counter when a post is rendered.
+ */
+@Slf4j
+@Service
+public class ViewCountService {
+    private static final String FLUSH_SQL = "UPDATE posts SET view_count = view_count + ? WHERE id = ?";
+    private static final String VIEW_COUNT_SQL = "SELECT view_count FROM posts WHERE id = ?";
+
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    // Views recorded by this instance since startup; never reset, so callers can diff two readings.
+    private final Map<Long, LongAdder> recordedViews = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+
+    public ViewCountService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void recordView(Long postId) {
+        pendingViews.computeIfAbsent(postId, id -> new LongAdder()).increment();
+        recordedViews.computeIfAbsent(postId, id -> new LongAdder()).increment();
+    }
+
+    public long recordedViews(Long postId) {
+        LongAdder adder = recordedViews.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public long pendingViews(Long postId) {
+        LongAdder adder = pendingViews.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Stored views plus views not yet flushed, minus {@link #recordedViews}:
+     * adding the recorded views later gives the live count. Holds the flush
+     * monitor so a flush is counted either as stored or as pending, never
+     * neither. Call it outside a transaction, so the stored count is not read
+     * from an older snapshot.
+     */
+    public synchronized long baseline(Long postId) {
+        List<Long> stored = jdbcTemplate.queryForList(VIEW_COUNT_SQL, Long.class, postId);
+        long persisted = stored.isEmpty() || stored.get(0) == null ? 0 : stored.get(0);
+        return persisted + pendingViews(postId) - recordedViews(postId);
+    }
+
+    public void discard(Long postId) {
+        pendingViews.remove(postId);
+        recordedViews.remove(postId);
+    }
+
+    public void discardAll(List<Long> postIds) {
+        postIds.forEach(this::discard);
+    }
+
+    @Scheduled(fixedDelayString = "${blog.post.view-count.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                batch.add(new Object[]{delta, entry.getKey()});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            log.debug("view counts flushed posts={}", batch.size());
+        } catch (RuntimeException e) {
+            // Put the deltas back so the next run retries them instead of losing views.
+            for (Object[] row : batch) {
+                pendingViews.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+            log.warn("view count flush failed posts={} type={}", batch.size(), e.getClass().getSimpleName());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,87 @@
+package com.magiccode.backend.util;
+
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for post listings. A cursor is the sort key of the last
+ * row a client has seen: {@code (createdAt, id)} for time-ordered listings or
+ * {@code (orderIndex, id)} for collections. The encoding is an implementation
+ * detail; clients only pass back what they received.
+ */
+public record PostCursor(Kind kind, long position, int nanos, long id) {
+    public enum Kind {
+        CREATED_AT("t"),
+        ORDER_INDEX("o");
+
+        private final String prefix;
+
+        Kind(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    public static final int MAX_SIZE = 100;
+
+    // Sorts after every real row in (createdAt DESC, id DESC) order.
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    public static PostCursor ofCreatedAt(LocalDateTime createdAt, Long id) {
+        Instant instant = createdAt.toInstant(ZoneOffset.UTC);
+        return new PostCursor(Kind.CREATED_AT, instant.getEpochSecond(), instant.getNano(), id);
+    }
+
+    public static PostCursor ofOrderIndex(Integer orderIndex, Long id) {
+        return new PostCursor(Kind.ORDER_INDEX, orderIndex, 0, id);
+    }
+
+    /**
+     * Decodes a client cursor, or returns the position before the first row
+     * when the cursor is absent.
+     */
+    public static PostCursor decode(String cursor, Kind expected) {
+        if (cursor == null || cursor.isBlank()) {
+            return expected == Kind.CREATED_AT
+                    ? ofCreatedAt(LATEST, Long.MAX_VALUE)
+                    : ofOrderIndex(Integer.MIN_VALUE, Long.MIN_VALUE);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4 || !parts[0].equals(expected.prefix)) {
+                throw new IllegalArgumentException("unexpected cursor shape");
+            }
+            return new PostCursor(expected, Long.parseLong(parts[1]), Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Keyset slices always start at offset 0; Spring Data fetches one extra row
+     * to answer {@code hasNext} instead of running a count query.
+     */
+    public static PageRequest slice(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new RuntimeException("Size must be between 1 and " + MAX_SIZE);
+        }
+        return PageRequest.of(0, size);
+    }
+
+    public String encode() {
+        String raw = kind.prefix + ":" + position + ":" + nanos + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime createdAt() {
+        return LocalDateTime.ofEpochSecond(position, nanos, ZoneOffset.UTC);
+    }
+
+    public int orderIndex() {
+        return (int) position;
+    }
+}
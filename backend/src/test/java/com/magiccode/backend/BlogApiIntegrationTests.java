@@ -2,6 +2,7 @@ package com.magiccode.backend;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiccode.backend.dto.BlockedKeywordsRequest;
 import com.magiccode.backend.dto.CreateCommentRequest;
 import com.magiccode.backend.model.Category;
 import com.magiccode.backend.model.Comment;
@@ -13,6 +14,11 @@ import com.magiccode.backend.repository.CommentRepository;
 import com.magiccode.backend.repository.LikeLogRepository;
 import com.magiccode.backend.repository.PostRepository;
 import com.magiccode.backend.repository.UserRepository;
+import com.magiccode.backend.service.CommentCounterService;
+import com.magiccode.backend.service.CommentModerationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,18 +28,24 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -57,6 +69,12 @@ class BlogApiIntegrationTests {
     private CommentRepository commentRepository;
     @Autowired
     private LikeLogRepository likeLogRepository;
+    @Autowired
+    private CommentCounterService commentCounterService;
+    @Autowired
+    private CommentModerationService commentModerationService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     private Post post;
 
@@ -67,6 +85,8 @@ class BlogApiIntegrationTests {
         postRepository.deleteAll();
         categoryRepository.deleteAll();
         userRepository.deleteAll();
+        commentCounterService.reconcile();
+        commentModerationService.replaceBlockedKeywords(List.of());
 
         userRepository.save(User.builder()
                 .username("admin")
@@ -142,6 +162,46 @@ class BlogApiIntegrationTests {
                 .andExpect(jsonPath("$[0].content").value("Waiting"));
     }
 
+    @Test
+    void commentThreadsNestRepliesUpToTheDepthCapAndPageByTopLevelComment() throws Exception {
+        long first = adminComment("first", null);
+        long reply = adminComment("reply", first);
+        long second = adminComment("second", null);
+        long deeper = adminComment("deeper", reply);
+        long deepest = adminComment("deepest", deeper);
+        long beyond = adminComment("beyond", deepest);
+        long third = adminComment("third", null);
+        saveComment("Reader", "reader@example.com", "hidden", CommentStatus.PENDING);
+
+        String body = mockMvc.perform(get("/api/comments/post/{postId}/threads", post.getId()).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(first))
+                .andExpect(jsonPath("$.items[0].replyCount").value(4))
+                .andExpect(jsonPath("$.items[0].replies[0].id").value(reply))
+                .andExpect(jsonPath("$.items[0].replies[0].replyCount").value(3))
+                .andExpect(jsonPath("$.items[0].replies[0].replies[0].replies.length()").value(2))
+                .andExpect(jsonPath("$.items[0].replies[0].replies[0].replies[0].id").value(deepest))
+                .andExpect(jsonPath("$.items[0].replies[0].replies[0].replies[1].id").value(beyond))
+                .andExpect(jsonPath("$.items[0].replies[0].replies[0].replies[1].parentId").value(deepest))
+                .andExpect(jsonPath("$.items[1].id").value(second))
+                .andExpect(jsonPath("$.items[1].replyCount").value(0))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/comments/post/{postId}/threads", post.getId())
+                        .param("size", "2")
+                        .param("cursor", objectMapper.readTree(body).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(third))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/comments/post/{postId}/threads", post.getId()).param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void adminDeleteRequiresAuthenticationAndThenDeletes() throws Exception {
         Comment comment = commentRepository.save(Comment.builder()
@@ -168,21 +228,21 @@ class BlogApiIntegrationTests {
         saveComment("Approved Reader", "approved@example.com", "Visible comment", CommentStatus.APPROVED);
         saveComment("Rejected Reader", "rejected@example.com", "Spam phrase", CommentStatus.REJECTED);
 
-        mockMvc.perform(get("/api/comments/admin")
+        performAsync(get("/api/comments/admin")
                         .param("status", "PENDING")
                         .header("Authorization", "Bearer " + adminToken()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.total").value(1))
                 .andExpect(jsonPath("$.items[0].status").value("PENDING"));
 
-        mockMvc.perform(get("/api/comments/admin")
+        performAsync(get("/api/comments/admin")
                         .param("status", "APPROVED")
                         .header("Authorization", "Bearer " + adminToken()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.total").value(1))
                 .andExpect(jsonPath("$.items[0].status").value("APPROVED"));
 
-        mockMvc.perform(get("/api/comments/admin")
+        performAsync(get("/api/comments/admin")
                         .param("status", "ALL")
                         .param("keyword", "spam")
                         .header("Authorization", "Bearer " + adminToken()))
@@ -190,7 +250,7 @@ class BlogApiIntegrationTests {
                 .andExpect(jsonPath("$.total").value(1))
                 .andExpect(jsonPath("$.items[0].email").value("rejected@example.com"));
 
-        mockMvc.perform(get("/api/comments/admin")
+        performAsync(get("/api/comments/admin")
                         .param("status", "ALL")
                         .param("page", "0")
                         .param("size", "2")
@@ -201,11 +261,70 @@ class BlogApiIntegrationTests {
                 .andExpect(jsonPath("$.items.length()").value(2));
     }
 
+    @Test
+    void moderationQueuePagesByKeysetWithoutPerRowSelects() throws Exception {
+        Comment parent = saveComment("Parent", "parent@example.com", "Thread start", CommentStatus.APPROVED);
+        List<Long> pending = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Comment comment = saveComment("Reader " + i, "reader" + i + "@example.com", "Queued comment " + i, CommentStatus.PENDING);
+            comment.setParent(parent);
+            pending.add(commentRepository.save(comment).getId());
+        }
+        saveComment("Spammer", "spam@example.com", "Cheap pills here", CommentStatus.PENDING);
+        commentCounterService.reconcile();
+        String token = adminToken();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/comments/admin/queue")
+                    .param("sort", "createdAt asc")
+                    .param("keyword", "QUEUED")
+                    .param("size", "2")
+                    .header("Authorization", "Bearer " + token);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            statistics.clear();
+            JsonNode page = objectMapper.readTree(performAsync(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").doesNotExist())
+                    .andReturn().getResponse().getContentAsString());
+            // Token user lookup, queue ids, then the rows with post and parent.
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+            for (JsonNode item : page.get("items")) {
+                seen.add(item.get("id").asLong());
+                assertThat(item.get("parentId").asLong()).isEqualTo(parent.getId());
+                assertThat(item.get("postTitle").asText()).isEqualTo("Hello");
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        assertThat(seen).isEqualTo(pending);
+
+        performAsync(get("/api/comments/admin/queue")
+                        .param("postId", String.valueOf(post.getId()))
+                        .param("size", "1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(6))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.items[0].email").value("spam@example.com"));
+
+        performAsync(get("/api/comments/admin/queue")
+                        .param("cursor", "not-a-cursor")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
     @Test
     void commentStatsRequireAuthenticationAndReturnCounts() throws Exception {
         saveComment("Pending Reader", "pending@example.com", "Need review", CommentStatus.PENDING);
         saveComment("Approved Reader", "approved@example.com", "Visible comment", CommentStatus.APPROVED);
         saveComment("Rejected Reader", "rejected@example.com", "Spam phrase", CommentStatus.REJECTED);
+        // Rows saved behind the service's back are drift until reconciled.
+        assertThat(commentCounterService.reconcile()).isPositive();
 
         mockMvc.perform(get("/api/comments/admin/stats"))
                 .andExpect(status().isForbidden());
@@ -219,6 +338,49 @@ class BlogApiIntegrationTests {
                 .andExpect(jsonPath("$.total").value(3));
     }
 
+    @Test
+    void commentCountersFollowEveryWriteAndFeedPostSummaries() throws Exception {
+        String body = mockMvc.perform(post("/api/comments/post/{postId}", post.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new CreateCommentRequest("Reader", "reader@example.com", "Counted", null))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long pending = objectMapper.readTree(body).get("id").asLong();
+        long approved = adminComment("Reply", pending);
+
+        mockMvc.perform(get("/api/comments/admin/stats").header("Authorization", "Bearer " + adminToken()))
+                .andExpect(jsonPath("$.pending").value(1))
+                .andExpect(jsonPath("$.approved").value(1))
+                .andExpect(jsonPath("$.total").value(2));
+
+        mockMvc.perform(put("/api/comments/admin/{commentId}/status", pending)
+                        .param("status", "APPROVED")
+                        .header("Authorization", "Bearer " + adminToken()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/posts/recent/cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].commentCount").value(2));
+
+        mockMvc.perform(post("/api/comments/admin/bulk")
+                        .header("Authorization", "Bearer " + adminToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("commentIds", List.of(approved), "action", "REJECT"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/comments/admin/{commentId}", approved)
+                        .header("Authorization", "Bearer " + adminToken()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/comments/admin/stats").header("Authorization", "Bearer " + adminToken()))
+                .andExpect(jsonPath("$.pending").value(0))
+                .andExpect(jsonPath("$.approved").value(1))
+                .andExpect(jsonPath("$.rejected").value(0))
+                .andExpect(jsonPath("$.total").value(1));
+        mockMvc.perform(get("/api/posts/recent/cursor"))
+                .andExpect(jsonPath("$.items[0].commentCount").value(1));
+        assertThat(commentCounterService.reconcile()).isZero();
+    }
+
     @Test
     void bulkCommentActionsRequireAuthenticationAndValidateInput() throws Exception {
         Comment first = saveComment("First", "first@example.com", "First pending", CommentStatus.PENDING);
@@ -260,6 +422,66 @@ class BlogApiIntegrationTests {
         assertThat(commentRepository.findAll()).isEmpty();
     }
 
+    @Test
+    void bulkModerationSpansChunksAndRejectsUnknownIdsBeforeChangingAnything() throws Exception {
+        List<Comment> wave = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            wave.add(Comment.builder()
+                    .post(post)
+                    .name("Spammer")
+                    .email("spam@example.com")
+                    .content("Wave " + i)
+                    .status(CommentStatus.PENDING)
+                    .moderationReason("Blocked keyword")
+                    .build());
+        }
+        List<Long> ids = commentRepository.saveAll(wave).stream().map(Comment::getId).toList();
+        commentCounterService.reconcile();
+
+        List<Long> withUnknown = new ArrayList<>(ids);
+        withUnknown.add(-1L);
+        mockMvc.perform(post("/api/comments/admin/bulk")
+                        .header("Authorization", "Bearer " + adminToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("commentIds", withUnknown, "action", "REJECT"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Comments not found: [-1]"));
+        assertThat(commentRepository.findAll().stream().map(Comment::getStatus)).containsOnly(CommentStatus.PENDING);
+
+        mockMvc.perform(post("/api/comments/admin/bulk")
+                        .header("Authorization", "Bearer " + adminToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("commentIds", ids, "action", "APPROVE"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(600));
+        assertThat(commentRepository.findAll())
+                .allSatisfy(comment -> {
+                    assertThat(comment.getStatus()).isEqualTo(CommentStatus.APPROVED);
+                    assertThat(comment.getModerationReason()).isNull();
+                });
+
+        mockMvc.perform(post("/api/comments/admin/bulk")
+                        .header("Authorization", "Bearer " + adminToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("commentIds", ids.subList(0, 550), "action", "DELETE"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(550));
+        mockMvc.perform(get("/api/comments/admin/stats").header("Authorization", "Bearer " + adminToken()))
+                .andExpect(jsonPath("$.approved").value(50))
+                .andExpect(jsonPath("$.total").value(50));
+        assertThat(commentCounterService.reconcile()).isZero();
+
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            tooMany.add(id);
+        }
+        mockMvc.perform(post("/api/comments/admin/bulk")
+                        .header("Authorization", "Bearer " + adminToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("commentIds", tooMany, "action", "DELETE"))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void moderationRulesRejectObviousSpamAndKeepPublicResponseClean() throws Exception {
         mockMvc.perform(post("/api/comments/post/{postId}", post.getId())
@@ -293,13 +515,114 @@ class BlogApiIntegrationTests {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.status").value("PENDING"));
 
-        mockMvc.perform(get("/api/comments/admin")
+        performAsync(get("/api/comments/admin")
                         .param("status", "REJECTED")
                         .header("Authorization", "Bearer " + adminToken()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.items[0].moderationReason").exists());
     }
 
+    @Test
+    void managedBlockedKeywordsApplyWithoutRestartAndIgnoreCaseAndWidth() throws Exception {
+        BlockedKeywordsRequest request = new BlockedKeywordsRequest(List.of("Casino Bonus", "casino bonus"));
+
+        mockMvc.perform(put("/api/comments/admin/moderation/keywords")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(request)))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(put("/api/comments/admin/moderation/keywords")
+                        .header("Authorization", "Bearer " + adminToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keywords.length()").value(1))
+                .andExpect(jsonPath("$.keywords[0]").value("casino bonus"))
+                .andExpect(jsonPath("$.configuredCount").value(1))
+                .andExpect(jsonPath("$.activeCount").value(2));
+
+        mockMvc.perform(post("/api/comments/post/{postId}", post.getId())
+                        .with(req -> {
+                            req.setRemoteAddr("10.0.1.1");
+                            return req;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new CreateCommentRequest("Reader", "reader@example.com", "Claim your ＣＡＳＩＮＯ ＢＯＮＵＳ today", null))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("REJECTED"));
+
+        mockMvc.perform(post("/api/comments/post/{postId}", post.getId())
+                        .with(req -> {
+                            req.setRemoteAddr("10.0.1.2");
+                            return req;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new CreateCommentRequest("Reader", "reader@example.com", "Still has BLOCKEDWORD in it", null))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("REJECTED"));
+
+        mockMvc.perform(get("/api/comments/admin/moderation/keywords")
+                        .header("Authorization", "Bearer " + adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keywords[0]").value("casino bonus"));
+
+        mockMvc.perform(put("/api/comments/admin/moderation/keywords")
+                        .header("Authorization", "Bearer " + adminToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new BlockedKeywordsRequest(List.of()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activeCount").value(1));
+
+        mockMvc.perform(post("/api/comments/post/{postId}", post.getId())
+                        .with(req -> {
+                            req.setRemoteAddr("10.0.1.3");
+                            return req;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new CreateCommentRequest("Reader", "reader@example.com", "Claim your casino bonus today", null))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void nearDuplicateWaveIsRejectedOnceEnoughRecentCopiesWereSeen() throws Exception {
+        List<String> wave = List.of(
+                "Great article! I made 5000 dollars last week working from home, check out my profile to learn how you can do the same starting today",
+                "GREAT ARTICLE! I made 5000 dollars last week working from home. Check out my profile to learn how you can do the same starting today!!!",
+                "Great post! I made 5000 dollars last week working from home, check out my profile to learn how you can do the same starting today",
+                "Great article!!! I made 5000 dollars last week working from home - check out my profile to learn how you can do the same starting today");
+        List<String> statuses = new ArrayList<>();
+        for (int i = 0; i < wave.size(); i++) {
+            String address = "10.0.2." + (i + 1);
+            MvcResult result = mockMvc.perform(post("/api/comments/post/{postId}", post.getId())
+                            .with(req -> {
+                                req.setRemoteAddr(address);
+                                return req;
+                            })
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(json(new CreateCommentRequest("Reader", "reader@example.com", wave.get(i), null))))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            statuses.add(objectMapper.readTree(result.getResponse().getContentAsString()).get("status").asText());
+        }
+        assertThat(statuses).containsExactly("PENDING", "PENDING", "PENDING", "REJECTED");
+        assertThat(commentRepository.findAll())
+                .filteredOn(comment -> comment.getStatus() == CommentStatus.REJECTED)
+                .extracting(Comment::getModerationReason)
+                .containsExactly("near duplicate");
+
+        mockMvc.perform(post("/api/comments/post/{postId}", post.getId())
+                        .with(req -> {
+                            req.setRemoteAddr("10.0.2.9");
+                            return req;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new CreateCommentRequest("Reader", "reader@example.com",
+                                "Thanks for the detailed explanation of keyset pagination, it fixed a slow listing query in my project", null))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
     @Test
     void duplicateLikeDoesNotIncreaseCountAndSwitchingReactionUpdatesCounts() throws Exception {
         mockMvc.perform(post("/api/posts/{postId}/like", post.getId()).param("positive", "true"))
@@ -381,6 +704,12 @@ class BlogApiIntegrationTests {
         return node.get("token").asText();
     }
 
+    // Admin comment listing and search run as async requests so they can be cancelled on disconnect.
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
     private String json(Object value) throws Exception {
         return objectMapper.writeValueAsString(value);
     }
@@ -394,4 +723,14 @@ class BlogApiIntegrationTests {
                 .status(status)
                 .build());
     }
+
+    private long adminComment(String content, Long parentId) throws Exception {
+        String body = mockMvc.perform(post("/api/comments/admin/post/{postId}", post.getId())
+                        .header("Authorization", "Bearer " + adminToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new CreateCommentRequest("Admin", "admin@example.com", content, parentId))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
 }
@@ -0,0 +1,192 @@
+package com.magiccode.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.magiccode.backend.dto.CreateCommentRequest;
+import com.magiccode.backend.model.Comment;
+import com.magiccode.backend.model.Post;
+import com.magiccode.backend.repository.NotificationOutboxRepository;
+import com.magiccode.backend.service.CommentCounterService;
+import com.magiccode.backend.service.CommentIngestService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "blog.comment.ingest.enabled=true",
+        "blog.comment.ingest.batch-size=50",
+        "blog.comment.ingest.linger-ms=20",
+        "blog.notification.enabled=true",
+        "blog.notification.admin-email=owner@example.com",
+        "blog.notification.poll-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CommentIngestTests extends TestDataSupport {
+    private static final String[] WORDS = {"apple", "birch", "cedar", "delta", "ember", "fjord", "grove", "harbor"};
+
+    @Autowired
+    private CommentIngestService commentIngestService;
+    @Autowired
+    private CommentCounterService commentCounterService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        clearData();
+        commentCounterService.reconcile();
+        post = createPost(createCategory("ingest"), "ingest", "Ingest", true);
+        // Created through the repository rather than PostService, so register it by hand.
+        commentIngestService.postCreated(post.getId());
+    }
+
+    @Test
+    void concurrentSubmissionsAreGroupCommittedAndAnswered202WithIds() throws Exception {
+        DistributionSummary batches = meterRegistry.get("blog.comment.ingest.batch").summary();
+        long batchesBefore = batches.count();
+        double commentsBefore = batches.totalAmount();
+        int submissions = 40;
+
+        List<Future<MvcResult>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(20)) {
+            for (int i = 0; i < submissions; i++) {
+                int n = i;
+                results.add(executor.submit(() -> mockMvc.perform(submitRequest("10.0.4." + n, null,
+                        "Reader " + n, WORDS[n % WORDS.length] + " " + WORDS[n / WORDS.length] + " note " + n))
+                        .andReturn()));
+            }
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<MvcResult> result : results) {
+            MvcResult response = result.get();
+            assertThat(response.getResponse().getStatus()).isEqualTo(202);
+            ids.add(objectMapper.readTree(response.getResponse().getContentAsString()).get("id").asLong());
+        }
+        assertThat(ids).hasSize(submissions);
+        assertThat(commentRepository.findAllById(ids)).hasSize(submissions)
+                .allSatisfy(comment -> assertThat(comment.getCreatedAt()).isNotNull());
+        assertThat(commentCounterService.totals(post.getId()).values().stream().mapToLong(Long::longValue).sum())
+                .isEqualTo(submissions);
+        assertThat(batches.totalAmount() - commentsBefore).isEqualTo(submissions);
+        assertThat(batches.count() - batchesBefore).isLessThan(submissions);
+        assertThat(commentCounterService.reconcile()).isZero();
+    }
+
+    @Test
+    void repliesToQueuedCommentsResolveTheirThreadWithoutLookups() throws Exception {
+        long parentId = idOf(mockMvc.perform(submitRequest("10.0.4.100", null, "Reader", "Top level comment"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn());
+        long replyId = idOf(mockMvc.perform(submitRequest("10.0.4.101", parentId, "Other", "A reply to it"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.parentId").value(parentId))
+                .andReturn());
+        long nestedId = idOf(mockMvc.perform(submitRequest("10.0.4.102", replyId, "Third", "A reply to the reply"))
+                .andExpect(status().isAccepted())
+                .andReturn());
+
+        Comment nested = commentRepository.findById(nestedId).orElseThrow();
+        assertThat(nested.getRootId()).isEqualTo(parentId);
+        assertThat(commentRepository.findById(replyId).orElseThrow().getRootId()).isEqualTo(parentId);
+    }
+
+    @Test
+    void unknownPostsAndParentsAreRejectedWithoutTouchingTheDatabase() throws Exception {
+        Post other = createPost(post.getCategory(), "other", "Other", true);
+        commentIngestService.postCreated(other.getId());
+        long otherParent = idOf(mockMvc.perform(post("/api/comments/post/{postId}", other.getId())
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.4.200");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new CreateCommentRequest("Reader", "reader@example.com", "On the other post", null))))
+                .andExpect(status().isAccepted())
+                .andReturn());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(post("/api/comments/post/{postId}", post.getId() + 1000)
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.4.201");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new CreateCommentRequest("Reader", "reader@example.com", "Lost comment", null))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Post Not Found"));
+        mockMvc.perform(submitRequest("10.0.4.202", 987654L, "Reader", "Reply to nothing"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Parent comment not found"));
+        mockMvc.perform(submitRequest("10.0.4.203", otherParent, "Reader", "Reply across posts"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Parent comment does not belong to this post"));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void notificationsForQueuedCommentsDoNotFetchPostsOneByOne() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long id = idOf(mockMvc.perform(submitRequest("10.0.4.150", null, "Reader", "Waiting for review"))
+                .andExpect(status().isAccepted())
+                .andReturn());
+
+        assertThat(outboxRepository.findAll()).singleElement().satisfies(row -> {
+            assertThat(row.getCommentId()).isEqualTo(id);
+            assertThat(row.getRecipient()).isEqualTo("owner@example.com");
+            assertThat(row.getSubject()).isEqualTo("New comment awaiting moderation on \"Ingest\"");
+        });
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    private RequestBuilder submitRequest(String address, Long parentId,
+                                         String name, String content) throws Exception {
+        return post("/api/comments/post/{postId}", post.getId())
+                .with(request -> {
+                    request.setRemoteAddr(address);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new CreateCommentRequest(name, "reader@example.com", content, parentId)));
+    }
+
+    private long idOf(MvcResult result) throws Exception {
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        return body.get("id").asLong();
+    }
+}
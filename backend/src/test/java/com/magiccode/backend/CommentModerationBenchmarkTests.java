@@ -0,0 +1,101 @@
+package com.magiccode.backend;
+
+import com.magiccode.backend.moderation.KeywordAutomaton;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyword-by-keyword {@code contains} plus regexes, as moderation used to
+ * work, against one automaton pass, at 10k blocked keywords. Runs on request:
+ * {@code mvn test -Dtest=CommentModerationBenchmarkTests -Dblog.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "blog.benchmark", matches = "true")
+class CommentModerationBenchmarkTests {
+    private static final int KEYWORDS = 10_000;
+    private static final int COMMENTS = 200;
+    private static final int ROUNDS = 7;
+    private static final int MAX_LINKS = 2;
+    private static final Pattern LINK_PATTERN = Pattern.compile("(https?://|www\\.)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern REPEATED_CHARACTER_PATTERN = Pattern.compile("(.)\\1{9,}");
+
+    @Test
+    void automatonAgreesWithTheNaiveScanAndReportsLatency() {
+        Random random = new Random(7);
+        List<String> keywords = new ArrayList<>(KEYWORDS);
+        for (int i = 0; i < KEYWORDS; i++) {
+            keywords.add(word(random, 6 + random.nextInt(8)));
+        }
+        List<String> lowered = keywords.stream().map(keyword -> keyword.toLowerCase(Locale.ROOT)).toList();
+        KeywordAutomaton automaton = KeywordAutomaton.build(keywords);
+
+        List<String> comments = new ArrayList<>(COMMENTS);
+        for (int i = 0; i < COMMENTS; i++) {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < 1_000) {
+                text.append(word(random, 2 + random.nextInt(8))).append(' ');
+            }
+            if (i % 10 == 0) {
+                text.append(keywords.get(random.nextInt(KEYWORDS)).toUpperCase(Locale.ROOT));
+            }
+            comments.add(text.toString());
+        }
+
+        Predicate<String> naive = comment -> {
+            String combined = comment.toLowerCase(Locale.ROOT);
+            boolean blocked = lowered.stream().anyMatch(combined::contains);
+            Matcher links = LINK_PATTERN.matcher(comment);
+            int linkCount = 0;
+            while (links.find()) {
+                linkCount++;
+            }
+            return blocked || REPEATED_CHARACTER_PATTERN.matcher(comment).find() || linkCount > MAX_LINKS;
+        };
+        Predicate<String> scanned = comment -> {
+            KeywordAutomaton.Scan scan = automaton.scan(KeywordAutomaton.fold(comment), 0);
+            return scan.blockedKeyword() || scan.repeatedCharacters() || scan.links() > MAX_LINKS;
+        };
+
+        for (String comment : comments) {
+            assertThat(scanned.test(comment)).as(comment).isEqualTo(naive.test(comment));
+        }
+
+        long naiveNanos = median(comments, naive);
+        long automatonNanos = median(comments, scanned);
+        System.out.printf("keywords=%d states=%d naive=%.1fus/comment automaton=%.1fus/comment%n",
+                KEYWORDS, automaton.stateCount(),
+                naiveNanos / 1e3 / COMMENTS, automatonNanos / 1e3 / COMMENTS);
+    }
+
+    private static String word(Random random, int length) {
+        char[] letters = new char[length];
+        for (int i = 0; i < length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+
+    private static long median(List<String> comments, Predicate<String> review) {
+        comments.forEach(review::test);
+        long[] samples = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            for (String comment : comments) {
+                review.test(comment);
+            }
+            samples[round] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples[ROUNDS / 2];
+    }
+}
@@ -0,0 +1,153 @@
+package com.magiccode.backend;
+
+import com.magiccode.backend.dto.CreateCommentRequest;
+import com.magiccode.backend.model.Comment;
+import com.magiccode.backend.model.CommentStatus;
+import com.magiccode.backend.model.NotificationOutbox;
+import com.magiccode.backend.model.NotificationStatus;
+import com.magiccode.backend.model.Post;
+import com.magiccode.backend.repository.NotificationOutboxRepository;
+import com.magiccode.backend.service.NotificationDispatcher;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "blog.notification.enabled=true",
+        "blog.notification.admin-email=owner@example.com",
+        "blog.notification.from=blog@example.com",
+        "blog.notification.digest-window-ms=0",
+        "blog.notification.retry-base-ms=1",
+        "blog.notification.max-attempts=3",
+        "blog.notification.poll-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CommentNotificationTests extends TestDataSupport {
+    private static final SmtpStandIn SMTP = SmtpStandIn.start();
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    private Post post;
+
+    @DynamicPropertySource
+    static void mailServer(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "127.0.0.1");
+        registry.add("spring.mail.port", SMTP::port);
+    }
+
+    @AfterAll
+    static void stopMailServer() throws IOException {
+        SMTP.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        clearData();
+        createAdmin();
+        post = createPost(createCategory("notes"), "notes", "Notes", true);
+        SMTP.clear();
+        SMTP.rejecting(false);
+    }
+
+    @Test
+    void burstOfVisitorCommentsReachesTheAdminAsOneDigestAfterARetry() throws Exception {
+        SMTP.rejecting(true);
+        for (int i = 1; i <= 3; i++) {
+            submit("10.0.3." + i, "Reader " + i, "reader" + i + "@example.com", "Visitor comment number " + i, null);
+        }
+        assertThat(outboxRepository.findAll()).hasSize(3)
+                .allSatisfy(row -> assertThat(row.getRecipient()).isEqualTo("owner@example.com"));
+        assertThat(SMTP.messages()).isEmpty();
+
+        assertThat(dispatcher.dispatch()).isZero();
+        assertThat(outboxRepository.findAll()).allSatisfy(row -> {
+            assertThat(row.getStatus()).isEqualTo(NotificationStatus.PENDING);
+            assertThat(row.getAttempts()).isEqualTo(1);
+            assertThat(row.getLastError()).isNotBlank();
+            assertThat(row.getClaimToken()).isNull();
+        });
+
+        SMTP.rejecting(false);
+        Thread.sleep(20);
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+        assertThat(SMTP.messages()).singleElement().satisfies(message -> {
+            assertThat(message.recipients()).containsExactly("owner@example.com");
+            assertThat(message.data()).contains("Subject: 3 new comment notifications")
+                    .contains("Visitor comment number 1")
+                    .contains("Visitor comment number 3");
+        });
+        assertThat(outboxRepository.findAll()).extracting(NotificationOutbox::getStatus)
+                .containsOnly(NotificationStatus.SENT);
+        assertThat(dispatcher.dispatch()).isZero();
+    }
+
+    @Test
+    void approvingAReplyNotifiesTheParentCommenterWithoutTheirEmail() throws Exception {
+        Comment parent = createComment(post, CommentStatus.APPROVED, "First thoughts on these notes");
+        long replyId = submit("10.0.3.10", "Other", "other@example.com", "A reply to the first comment", parent.getId());
+
+        mockMvc.perform(put("/api/comments/admin/{commentId}/status", replyId)
+                        .param("status", "APPROVED")
+                        .header("Authorization", authHeader()))
+                .andExpect(status().isOk());
+
+        assertThat(dispatcher.dispatch()).isEqualTo(2);
+        assertThat(SMTP.messages()).hasSize(2);
+        SmtpStandIn.Message reply = SMTP.messages().stream()
+                .filter(message -> message.recipients().contains("reader@example.com"))
+                .findFirst().orElseThrow();
+        assertThat(reply.data()).contains("Other replied to your comment on \"Notes\"")
+                .doesNotContain("other@example.com");
+    }
+
+    @Test
+    void deliveryGivesUpAfterMaxAttempts() throws Exception {
+        SMTP.rejecting(true);
+        submit("10.0.3.20", "Reader", "reader@example.com", "Comment that never gets mailed", null);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertThat(dispatcher.dispatch()).isZero();
+            Thread.sleep(20);
+        }
+
+        assertThat(outboxRepository.findAll()).singleElement().satisfies(row -> {
+            assertThat(row.getStatus()).isEqualTo(NotificationStatus.FAILED);
+            assertThat(row.getAttempts()).isEqualTo(3);
+        });
+        SMTP.rejecting(false);
+        assertThat(dispatcher.dispatch()).isZero();
+        assertThat(SMTP.messages()).isEmpty();
+    }
+
+    private long submit(String address, String name, String email, String content, Long parentId) throws Exception {
+        String body = mockMvc.perform(post("/api/comments/post/{postId}", post.getId())
+                        .with(request -> {
+                            request.setRemoteAddr(address);
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new CreateCommentRequest(name, email, content, parentId))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+}
@@ -1,25 +1,43 @@
 package com.magiccode.backend;
 
 import com.magiccode.backend.dto.CreateCommentRequest;
+import com.magiccode.backend.exceptions.QueryCancelledException;
 import com.magiccode.backend.model.Category;
 import com.magiccode.backend.model.Comment;
 import com.magiccode.backend.model.CommentStatus;
 import com.magiccode.backend.model.Post;
+import com.magiccode.backend.service.CommentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -27,6 +45,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ActiveProfiles("test")
 class ErrorAndInfrastructureContractTests extends TestDataSupport {
     private Post post;
+    @MockitoSpyBean
+    private CommentService commentService;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
@@ -149,4 +171,54 @@ class ErrorAndInfrastructureContractTests extends TestDataSupport {
                 .andExpect(status().isUnauthorized())
                 .andExpect(header().exists("X-Request-Id"));
     }
+
+    @Test
+    void queryTimeoutsAndClientDisconnectsMapToGatewayTimeoutAndServiceUnavailable() throws Exception {
+        doThrow(new QueryTimeoutException("statement cancelled")).when(commentService).searchComments("slow");
+        MvcResult timedOut = mockMvc.perform(get("/api/comments/search").param("q", "slow")
+                        .header("Authorization", authHeader()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(timedOut))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("took too long")));
+        assertThat(meterRegistry.counter("blog.query.aborted",
+                "reason", "timeout", "endpoint", "/api/comments/search").count()).isEqualTo(1);
+
+        CountDownLatch release = new CountDownLatch(1);
+        // Blocks like a JDBC call does: a thread interrupt alone does not end it.
+        doAnswer(invocation -> {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (release.getCount() > 0 && System.nanoTime() < deadline) {
+                try {
+                    release.await(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ignored) {
+                    // keep blocking
+                }
+            }
+            return List.of();
+        }).when(commentService).searchComments("stuck");
+        MvcResult abandoned = mockMvc.perform(get("/api/comments/search").param("q", "stuck")
+                        .header("Authorization", authHeader()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockAsyncContext asyncContext = (MockAsyncContext) abandoned.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext, new IOException("Broken pipe")));
+        }
+        assertThat(WebAsyncUtils.getAsyncManager(abandoned.getRequest()).getConcurrentResult())
+                .isInstanceOf(QueryCancelledException.class);
+        release.countDown();
+
+        doThrow(new QueryCancelledException("Request cancelled")).when(commentService).searchComments("gone");
+        MvcResult cancelled = mockMvc.perform(get("/api/comments/search").param("q", "gone")
+                        .header("Authorization", authHeader()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(cancelled))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Request cancelled"));
+        assertThat(meterRegistry.counter("blog.query.aborted",
+                "reason", "disconnect", "endpoint", "/api/comments/search").count()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,150 @@
+package com.magiccode.backend;
+
+import com.magiccode.backend.config.IdempotencyFilter;
+import com.magiccode.backend.dto.CreateCommentRequest;
+import com.magiccode.backend.model.Post;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyTests extends TestDataSupport {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        clearData();
+        post = createPost(createCategory("idempotency"), "idempotency", "Idempotency", true);
+    }
+
+    @Test
+    void retriedCommentWithSameKeyIsStoredOnceAndReplayed() throws Exception {
+        String first = mockMvc.perform(comment("10.0.6.1", "comment-key-1", "Posted over a flaky network"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+
+        // The client changed networks before retrying.
+        String replay = mockMvc.perform(comment("10.0.6.2", "comment-key-1", "Posted over a flaky network"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(replay).isEqualTo(first);
+        assertThat(commentRepository.count()).isEqualTo(1);
+
+        mockMvc.perform(comment("10.0.6.1", "comment-key-1", "Something else entirely"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key was already used for a different request"));
+        mockMvc.perform(comment("10.0.6.1", " ", "Blank key"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/comments/post/{postId}", post.getId())
+                        .header(IdempotencyFilter.HEADER_NAME, "comment-key-big")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new byte[70 * 1024]))
+                .andExpect(status().isPayloadTooLarge());
+        assertThat(commentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void rateLimitedCommentIsNotReplayedForItsKey() throws Exception {
+        mockMvc.perform(comment("10.0.6.30", "comment-key-3", "First comment"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(comment("10.0.6.30", "comment-key-4", "Second comment too soon"))
+                .andExpect(status().isTooManyRequests());
+
+        // Retried from another network once the limit bites.
+        mockMvc.perform(comment("10.0.6.31", "comment-key-4", "Second comment too soon"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertThat(commentRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnceAndShareTheResponse() throws Exception {
+        double executedBefore = requests("executed");
+        double replayedBefore = requests("replayed");
+        int duplicates = 8;
+
+        List<Future<MvcResult>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(duplicates)) {
+            for (int i = 0; i < duplicates; i++) {
+                results.add(executor.submit(() -> mockMvc.perform(
+                        comment("10.0.6.10", "comment-key-2", "Double tapped submit")).andReturn()));
+            }
+        }
+
+        List<String> bodies = new ArrayList<>();
+        for (Future<MvcResult> result : results) {
+            assertThat(result.get().getResponse().getStatus()).isEqualTo(201);
+            bodies.add(result.get().getResponse().getContentAsString());
+        }
+        assertThat(bodies).containsOnly(bodies.get(0));
+        assertThat(commentRepository.count()).isEqualTo(1);
+        assertThat(requests("executed") - executedBefore).isEqualTo(1);
+        assertThat(requests("replayed") - replayedBefore).isEqualTo(duplicates - 1);
+    }
+
+    @Test
+    void retriedLikeIsReplayedInsteadOfConflicting() throws Exception {
+        mockMvc.perform(like("10.0.6.20", "like-key-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likes").value(1));
+        mockMvc.perform(like("10.0.6.20", "like-key-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.likes").value(1));
+        mockMvc.perform(like("10.0.6.20", null))
+                .andExpect(status().isConflict());
+        assertThat(likeLogRepository.count()).isEqualTo(1);
+    }
+
+    private RequestBuilder comment(String address, String key, String content) throws Exception {
+        return post("/api/comments/post/{postId}", post.getId())
+                .with(request -> {
+                    request.setRemoteAddr(address);
+                    return request;
+                })
+                .header(IdempotencyFilter.HEADER_NAME, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new CreateCommentRequest("Reader", "reader@example.com", content, null)));
+    }
+
+    private RequestBuilder like(String address, String key) {
+        var request = post("/api/posts/{postId}/like", post.getId())
+                .param("positive", "true")
+                .with(r -> {
+                    r.setRemoteAddr(address);
+                    return r;
+                });
+        return key == null ? request : request.header(IdempotencyFilter.HEADER_NAME, key);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("blog.idempotency.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,66 @@
+package com.magiccode.backend;
+
+import com.magiccode.backend.config.IdempotencyFilter;
+import com.magiccode.backend.dto.CreateCommentRequest;
+import com.magiccode.backend.model.Post;
+import com.magiccode.backend.service.CommentIngestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every batch lingers past the request's wait, so each submission answers 503 and commits afterwards.
+@SpringBootTest(properties = {
+        "blog.comment.ingest.enabled=true",
+        "blog.comment.ingest.linger-ms=1500",
+        "blog.comment.ingest.wait-ms=200"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotentIngestTests extends TestDataSupport {
+    @Autowired
+    private CommentIngestService commentIngestService;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        clearData();
+        post = createPost(createCategory("idempotent-ingest"), "idempotent-ingest", "Idempotent ingest", true);
+        commentIngestService.postCreated(post.getId());
+    }
+
+    @Test
+    void retryAfterA503WaitsForTheQueuedCommentInsteadOfSubmittingAgain() throws Exception {
+        mockMvc.perform(comment("queued-key-1"))
+                .andExpect(status().isServiceUnavailable());
+
+        mockMvc.perform(comment("queued-key-1"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").isNumber());
+
+        assertThat(commentRepository.count()).isEqualTo(1);
+    }
+
+    private RequestBuilder comment(String key) throws Exception {
+        return post("/api/comments/post/{postId}", post.getId())
+                .with(request -> {
+                    request.setRemoteAddr("10.0.7.1");
+                    return request;
+                })
+                .header(IdempotencyFilter.HEADER_NAME, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new CreateCommentRequest("Reader", "reader@example.com", "Sent from a train", null)));
+    }
+}
@@ -2,14 +2,23 @@ package com.magiccode.backend;
 
 import com.magiccode.backend.dto.PostDetailDto;
 import com.magiccode.backend.model.Category;
+import com.magiccode.backend.model.CommentStatus;
 import com.magiccode.backend.model.Post;
+import com.magiccode.backend.service.ViewCountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -22,6 +31,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
 class PostApiTests extends TestDataSupport {
+    @Autowired
+    private ViewCountService viewCountService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Category category;
 
     @BeforeEach
@@ -64,6 +78,154 @@ class PostApiTests extends TestDataSupport {
                 .andExpect(jsonPath("$.error").doesNotExist());
     }
 
+    @Test
+    void postDetailStatementCountStaysFlatAsMediaAndCommentsGrow() throws Exception {
+        Post post = createPost(category, "busy", "Busy", true);
+        long baseline = detailStatementCount("busy");
+
+        for (int i = 0; i < 5; i++) {
+            createComment(post, CommentStatus.APPROVED, "Approved " + i);
+            createComment(post, CommentStatus.PENDING, "Pending " + i);
+            createImage(post);
+        }
+
+        assertThat(detailStatementCount("busy")).isEqualTo(baseline).isLessThanOrEqualTo(4);
+        postDetailCache.invalidateAll();
+        mockMvc.perform(get("/api/posts/{slug}", "busy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categoryName").value(category.getName()))
+                .andExpect(jsonPath("$.images.length()").value(5))
+                .andExpect(jsonPath("$.comments").isEmpty());
+    }
+
+    @Test
+    void postDetailIsServedFromCacheUntilTheAdminUpdatesThePost() throws Exception {
+        Post post = createPost(category, "cached", "Cached", true);
+
+        mockMvc.perform(get("/api/posts/{slug}", "cached")).andExpect(status().isOk());
+        long hits = postDetailCache.stats().hits();
+        mockMvc.perform(get("/api/posts/{slug}", "cached"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Cached"))
+                .andExpect(jsonPath("$.viewCount").value(2));
+        assertThat(postDetailCache.stats().hits()).isEqualTo(hits + 1);
+
+        mockMvc.perform(put("/api/posts/update/{id}", post.getId())
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(PostDetailDto.builder().title("Renamed").build())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/posts/{slug}", "cached"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Renamed"))
+                .andExpect(jsonPath("$.viewCount").value(3));
+
+        mockMvc.perform(post("/api/posts/{postId}/like", post.getId()).param("positive", "true"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/posts/{slug}", "cached"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likeCount").value(1));
+    }
+
+    @Test
+    void postListingsReadSummaryColumnsKeptInSyncWithCategoryAndCollections() throws Exception {
+        Post post = createPost(category, "listed", "Listed", true);
+        String collection = mockMvc.perform(post("/api/collections")
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("name", "Series", "slug", "series"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long collectionId = objectMapper.readTree(collection).get("id").asLong();
+
+        mockMvc.perform(post("/api/collections/{postGroupId}/posts/{postId}", collectionId, post.getId())
+                        .header("Authorization", authHeader()))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/categories/{name}", category.getName())
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("name", "Renamed", "slug", category.getSlug()))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "Listed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].excerpt").value("Body for Listed"))
+                .andExpect(jsonPath("$[0].categoryName").value("Renamed"))
+                .andExpect(jsonPath("$[0].collectionNames[0]").value("Series"));
+        mockMvc.perform(get("/api/collections/{slug}", "series"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts[0].slug").value("listed"))
+                .andExpect(jsonPath("$.posts[0].collectionNames[0]").value("Series"));
+        mockMvc.perform(get("/api/collections/{slug}/posts/cursor", "series"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].slug").value("listed"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        mockMvc.perform(delete("/api/collections/{id}", collectionId)
+                        .header("Authorization", authHeader()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/posts/recent").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].collectionNames").isEmpty());
+    }
+
+    @Test
+    void cursorListingsWalkPostsInKeysetOrderWithoutGapsOrDuplicates() throws Exception {
+        LocalDateTime sameInstant = LocalDateTime.of(2026, 1, 1, 12, 0);
+        Post older = createPost(category, "older", "Older", true);
+        older.setCreatedAt(sameInstant.minusDays(1));
+        postRepository.save(older);
+        for (String slug : new String[]{"tie-a", "tie-b"}) {
+            Post post = createPost(category, slug, slug, true);
+            post.setCreatedAt(sameInstant);
+            postRepository.save(post);
+        }
+        createPost(category, "hidden", "Hidden", false);
+
+        String first = mockMvc.perform(get("/api/posts/category/{slug}/cursor", category.getSlug()).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].slug").value("tie-b"))
+                .andExpect(jsonPath("$.items[1].slug").value("tie-a"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(first).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/posts/category/{slug}/cursor", category.getSlug())
+                        .param("cursor", cursor).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].slug").value("older"))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/posts/recent/cursor").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].slug").value("older"));
+        mockMvc.perform(get("/api/posts/recent/cursor").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    void postViewsAreBufferedAndFlushedInOneUpdate() throws Exception {
+        Post post = createPost(category, "viewed", "Viewed", true);
+
+        mockMvc.perform(get("/api/posts/{slug}", "viewed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.viewCount").value(1));
+        mockMvc.perform(get("/api/posts/{slug}", "viewed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.viewCount").value(2));
+
+        viewCountService.flush();
+
+        assertThat(postRepository.findById(post.getId()).orElseThrow().getViewCount()).isEqualTo(2);
+        assertThat(viewCountService.pendingViews(post.getId())).isZero();
+    }
+
     @Test
     void adminPostManagementRequiresAuthAndSupportsCreateUpdateDelete() throws Exception {
         PostDetailDto create = PostDetailDto.builder()
@@ -129,4 +291,12 @@ class PostApiTests extends TestDataSupport {
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.message").value("Slug already exists, please use another slug."));
     }
+
+    private long detailStatementCount(String slug) throws Exception {
+        postDetailCache.invalidateAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/posts/{slug}", slug)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
 }
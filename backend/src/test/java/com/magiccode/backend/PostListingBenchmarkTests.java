@@ -0,0 +1,118 @@
+package com.magiccode.backend;
+
+import com.magiccode.backend.model.Category;
+import com.magiccode.backend.repository.PostSummaryRow;
+import com.magiccode.backend.util.PostCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Offset vs keyset listing at archive scale. Seeding 100k posts takes a while,
+ * so the benchmark only runs on request:
+ * {@code mvn test -Dtest=PostListingBenchmarkTests -Dblog.benchmark=true}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "blog.benchmark", matches = "true")
+class PostListingBenchmarkTests extends TestDataSupport {
+    private static final int POSTS = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int ROUNDS = 5;
+    private static final String DRAFT_SLUG = "00100000";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category category;
+
+    @BeforeEach
+    void seed() {
+        clearData();
+        category = createCategory("archive");
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>(1_000);
+        for (int i = 0; i < POSTS; i++) {
+            rows.add(new Object[]{"Post " + i, "Body " + i, "post-" + i, category.getId(),
+                    Timestamp.valueOf(start.plusMinutes(i)), "Body " + i, category.getName()});
+            if (rows.size() == 1_000) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+        insert(rows);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM posts");
+        clearData();
+    }
+
+    @Test
+    void keysetSliceStaysFlatWhileOffsetPagesSlowDownWithDepth() {
+        for (int depth : new int[]{0, POSTS / 2, POSTS - PAGE_SIZE}) {
+            PageRequest offsetPage = PageRequest.of(depth / PAGE_SIZE, PAGE_SIZE,
+                    Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+            PostCursor cursor = cursorBefore(depth);
+
+            Page<PostSummaryRow> page = postRepository.findSummariesByCategoryId(category.getId(), DRAFT_SLUG, offsetPage);
+            Slice<PostSummaryRow> slice = postRepository.findSummariesByCategoryIdBefore(category.getId(), DRAFT_SLUG,
+                    cursor.createdAt(), cursor.id(), PostCursor.slice(PAGE_SIZE));
+            assertThat(slice.getContent()).isEqualTo(page.getContent());
+
+            long offsetNanos = median(() -> postRepository.findSummariesByCategoryId(category.getId(), DRAFT_SLUG, offsetPage));
+            long keysetNanos = median(() -> postRepository.findSummariesByCategoryIdBefore(category.getId(), DRAFT_SLUG,
+                    cursor.createdAt(), cursor.id(), PostCursor.slice(PAGE_SIZE)));
+            System.out.printf("posts=%d depth=%d offset+count=%.2fms keyset=%.2fms%n",
+                    POSTS, depth, offsetNanos / 1e6, keysetNanos / 1e6);
+        }
+    }
+
+    private PostCursor cursorBefore(int depth) {
+        if (depth == 0) {
+            return PostCursor.decode(null, PostCursor.Kind.CREATED_AT);
+        }
+        PostSummaryRow last = postRepository.findSummariesByCategoryId(category.getId(), DRAFT_SLUG,
+                PageRequest.of(depth - 1, 1, Sort.by(Sort.Direction.DESC, "createdAt", "id"))).getContent().get(0);
+        return PostCursor.ofCreatedAt(last.createdAt(), last.id());
+    }
+
+    private long median(Supplier<?> query) {
+        query.get();
+        long[] samples = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            query.get();
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples[ROUNDS / 2];
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO posts (title, content, slug, category_id, created_at, published, " +
+                "like_count, dislike_count, view_count, excerpt, category_name) " +
+                "VALUES (?, ?, ?, ?, ?, TRUE, 0, 0, 0, ?, ?)", rows);
+    }
+}
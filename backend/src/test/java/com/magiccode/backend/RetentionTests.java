@@ -0,0 +1,133 @@
+package com.magiccode.backend;
+
+import com.magiccode.backend.model.Comment;
+import com.magiccode.backend.model.CommentStatus;
+import com.magiccode.backend.model.LikeLog;
+import com.magiccode.backend.model.Post;
+import com.magiccode.backend.repository.LikeLogRollupRepository;
+import com.magiccode.backend.service.CommentCounterService;
+import com.magiccode.backend.service.RetentionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "blog.retention.rejected-comment-days=30",
+        "blog.retention.like-log-days=30",
+        "blog.retention.batch-size=2",
+        "blog.retention.pause-ms=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RetentionTests extends TestDataSupport {
+    @Autowired
+    private RetentionService retentionService;
+    @Autowired
+    private CommentCounterService commentCounterService;
+    @Autowired
+    private LikeLogRollupRepository likeLogRollupRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        likeLogRollupRepository.deleteAll();
+        clearData();
+        post = createPost(createCategory("retention"), "retention", "Retention", true);
+    }
+
+    @Test
+    void oldRejectedCommentsArePurgedInBatchesKeepingThreadsAndCounters() {
+        List<Comment> oldRejected = List.of(
+                createComment(post, CommentStatus.REJECTED, "old spam 1"),
+                createComment(post, CommentStatus.REJECTED, "old spam 2"),
+                createComment(post, CommentStatus.REJECTED, "old spam 3"));
+        Comment repliedTo = createComment(post, CommentStatus.REJECTED, "old but replied to");
+        Comment reply = createComment(post, CommentStatus.PENDING, "reply");
+        reply.setParent(repliedTo);
+        reply.setRootId(repliedTo.getId());
+        commentRepository.save(reply);
+        Comment recent = createComment(post, CommentStatus.REJECTED, "recent spam");
+        Comment oldApproved = createComment(post, CommentStatus.APPROVED, "old approved");
+        backdateComments(40, oldRejected.get(0).getId(), oldRejected.get(1).getId(), oldRejected.get(2).getId(),
+                repliedTo.getId(), reply.getId(), oldApproved.getId());
+        commentCounterService.reconcile();
+        double purgedBefore = purged("rejected_comments");
+
+        RetentionService.Result result = retentionService.purge();
+
+        assertThat(result.rejectedComments()).isEqualTo(3);
+        assertThat(commentRepository.findAll()).extracting(Comment::getId)
+                .containsExactlyInAnyOrder(repliedTo.getId(), reply.getId(), recent.getId(), oldApproved.getId());
+        assertThat(commentCounterService.totals(post.getId()).get(CommentStatus.REJECTED)).isEqualTo(2);
+        assertThat(commentCounterService.reconcile()).isZero();
+        assertThat(purged("rejected_comments") - purgedBefore).isEqualTo(3);
+        assertThat(retentionService.purge().rejectedComments()).isZero();
+    }
+
+    @Test
+    void oldLikeLogsAreCompactedIntoRollupsWithoutChangingCounts() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            like("10.0.5." + i, i < 3);
+        }
+        long recent = like("10.0.5.99", true);
+        jdbcTemplate.update("UPDATE like_logs SET created_at = ? WHERE id <> ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(40)), recent);
+
+        RetentionService.Result result = retentionService.purge();
+
+        assertThat(result.likeLogs()).isEqualTo(5);
+        assertThat(likeLogRepository.findAll()).extracting(LikeLog::getId).containsExactly(recent);
+        assertThat(likeLogRollupRepository.findById(post.getId())).hasValueSatisfying(rollup -> {
+            assertThat(rollup.getLikes()).isEqualTo(3);
+            assertThat(rollup.getDislikes()).isEqualTo(2);
+        });
+
+        mockMvc.perform(post("/api/posts/{postId}/like", post.getId())
+                        .param("positive", "false")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.5.200");
+                            return request;
+                        }))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likes").value(4))
+                .andExpect(jsonPath("$.dislikes").value(3));
+    }
+
+    private long like(String identifier, boolean positive) {
+        return likeLogRepository.save(LikeLog.builder()
+                .post(post)
+                .identifier(identifier)
+                .positive(positive)
+                .build()).getId();
+    }
+
+    private void backdateComments(int days, Long... ids) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now().minusDays(days));
+        for (Long id : ids) {
+            jdbcTemplate.update("UPDATE comments SET created_at = ? WHERE id = ?", createdAt, id);
+        }
+    }
+
+    private double purged(String kind) {
+        return meterRegistry.get("blog.retention.purged").tag("kind", kind).counter().count();
+    }
+}
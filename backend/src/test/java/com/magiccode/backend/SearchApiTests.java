@@ -0,0 +1,422 @@
+package com.magiccode.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.magiccode.backend.dto.PostDetailDto;
+import com.magiccode.backend.model.Category;
+import com.magiccode.backend.model.Post;
+import com.magiccode.backend.repository.SearchQueryRollupRepository;
+import com.magiccode.backend.service.SearchAnalyticsService;
+import com.magiccode.backend.service.SearchResultCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SearchApiTests extends TestDataSupport {
+    private Category notes;
+    private Category travel;
+    @Autowired
+    private SearchResultCache searchResultCache;
+    @Autowired
+    private SearchAnalyticsService searchAnalyticsService;
+    @Autowired
+    private SearchQueryRollupRepository searchQueryRollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        clearData();
+        createAdmin();
+        notes = createCategory("notes");
+        travel = createCategory("travel");
+    }
+
+    @Test
+    void searchMatchesMixedChineseAndEnglishAndRanksTitleHitsFirst() throws Exception {
+        Post body = createPost(notes, "body-hit", "Weekly notes", true);
+        body.setContent("这周整理了数据库索引的笔记 and some Spring tips");
+        postRepository.save(body);
+        searchService.refresh(List.of(body.getId()));
+        createPost(notes, "title-hit", "数据库 Indexing", true);
+        createPost(notes, "hidden", "数据库 draft", false);
+
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "数据库"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].slug").value("title-hit"))
+                .andExpect(jsonPath("$[1].slug").value("body-hit"));
+
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "SPRING 索引"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].slug").value("body-hit"));
+
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "<div>"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void searchHitsCarryABodySnippetWithHighlightOffsets() throws Exception {
+        Post post = createPost(notes, "deep", "Long read", true);
+        post.setContent("intro ".repeat(200) + "这里讲 Redis 缓存穿透 的处理\n以及 redis 集群" + " outro".repeat(200));
+        postRepository.save(post);
+        searchService.refresh(List.of(post.getId()));
+
+        String body = mockMvc.perform(get("/api/posts/searchPages").param("q", "redis 缓存"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].slug").value("deep"))
+                .andExpect(jsonPath("$[0].snippet.truncatedStart").value(true))
+                .andExpect(jsonPath("$[0].snippet.truncatedEnd").value(true))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode snippet = objectMapper.readTree(body).get(0).get("snippet");
+        String text = snippet.get("text").asText();
+        assertThat(text).hasSizeLessThanOrEqualTo(161).doesNotContain("\n");
+        List<String> highlighted = new ArrayList<>();
+        for (JsonNode highlight : snippet.get("highlights")) {
+            int start = highlight.get("start").asInt();
+            highlighted.add(text.substring(start, start + highlight.get("length").asInt()));
+        }
+        assertThat(highlighted).containsExactly("Redis", "缓存", "redis");
+
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "long"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].snippet").doesNotExist());
+    }
+
+    @Test
+    void categoryAndCollectionScopesFilterTheSameIndex() throws Exception {
+        Post inNotes = createPost(notes, "kyoto-notes", "Kyoto notes", true);
+        createPost(travel, "kyoto-trip", "Kyoto trip", true);
+        String collection = mockMvc.perform(post("/api/collections")
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("name", "Japan", "slug", "japan"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long collectionId = objectMapper.readTree(collection).get("id").asLong();
+        mockMvc.perform(post("/api/collections/{postGroupId}/posts/{postId}", collectionId, inNotes.getId())
+                        .header("Authorization", authHeader()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/posts/category/{slug}/search", "travel").param("q", "kyoto"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].slug").value("kyoto-trip"));
+        mockMvc.perform(get("/api/collections/{slug}/search", "japan").param("q", "kyoto"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].slug").value("kyoto-notes"));
+
+        mockMvc.perform(delete("/api/collections/{postGroupId}/posts/{postId}", collectionId, inNotes.getId())
+                        .header("Authorization", authHeader()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/collections/{slug}/search", "japan").param("q", "kyoto"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void indexFollowsAdminUpdatesAndDeletes() throws Exception {
+        Post post = createPost(notes, "evolving", "Original title", true);
+
+        mockMvc.perform(put("/api/posts/update/{id}", post.getId())
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(PostDetailDto.builder().title("Rewritten headline").content("Fresh body").build())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "original"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "headline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].slug").value("evolving"));
+
+        mockMvc.perform(delete("/api/posts/{slug}", "evolving")
+                        .header("Authorization", authHeader()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "headline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void suggestMatchesWordPrefixesRankedByPopularityAndFollowsWrites() throws Exception {
+        Post quiet = createPost(notes, "quiet", "Caching basics", true);
+        Post popular = createPost(notes, "popular", "Redis caching notes", true);
+        popular.setViewCount(40);
+        popular.setLikeCount(3);
+        postRepository.save(popular);
+        createPost(notes, "hidden-cache", "Cache drafts", false);
+        createPost(travel, "kyoto", "京都缓存之旅", true);
+        suggestService.rebuild();
+
+        mockMvc.perform(get("/api/posts/suggest").param("prefix", "CACH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].slug").value("popular"))
+                .andExpect(jsonPath("$[0].type").value("POST"))
+                .andExpect(jsonPath("$[1].slug").value(quiet.getSlug()));
+        mockMvc.perform(get("/api/posts/suggest").param("prefix", "缓存"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].slug").value("kyoto"));
+        mockMvc.perform(get("/api/posts/suggest").param("prefix", "trav"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("CATEGORY"))
+                .andExpect(jsonPath("$[0].slug").value("travel"));
+
+        mockMvc.perform(post("/api/collections")
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("name", "Caching series", "slug", "caching-series", "description", ""))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/posts/suggest").param("prefix", "caching s"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].type").value("COLLECTION"));
+
+        mockMvc.perform(delete("/api/posts/{slug}", "popular")
+                        .header("Authorization", authHeader()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/posts/suggest").param("prefix", "redis"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        assertThat(suggestService.footprint().entries()).isEqualTo(5);
+    }
+
+    @Test
+    void repeatedSearchesAreServedFromCacheUntilAPostChanges() throws Exception {
+        Post post = createPost(notes, "cached", "Kubernetes notes", true);
+        SearchResultCache.CacheStats before = searchResultCache.stats(SearchResultCache.Scope.POSTS);
+        SearchResultCache.CacheStats categoryBefore = searchResultCache.stats(SearchResultCache.Scope.CATEGORY);
+
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "Kubernetes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].slug").value("cached"));
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "  kubernetes "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].slug").value("cached"));
+        mockMvc.perform(get("/api/posts/category/{slug}/search", "notes").param("q", "kubernetes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].slug").value("cached"));
+
+        SearchResultCache.CacheStats after = searchResultCache.stats(SearchResultCache.Scope.POSTS);
+        assertThat(after.hits() - before.hits()).isEqualTo(1);
+        assertThat(after.misses() - before.misses()).isEqualTo(1);
+        assertThat(searchResultCache.stats(SearchResultCache.Scope.CATEGORY).misses() - categoryBefore.misses())
+                .isEqualTo(1);
+
+        mockMvc.perform(put("/api/posts/update/{id}", post.getId())
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(PostDetailDto.builder().title("Nomad notes").content("Fresh body").build())))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "kubernetes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        assertThat(searchResultCache.stats(SearchResultCache.Scope.POSTS).misses() - before.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void misspelledLatinTermsFallBackToTheClosestIndexedTerm() throws Exception {
+        createPost(notes, "k8s", "Kubernetes deployment notes", true);
+        createPost(travel, "kyoto", "Kyoto 京都 travel notes", true);
+
+        mockMvc.perform(get("/api/search").param("q", "Kubernets deploymnt"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.didYouMean").value("kubernetes deployment"))
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.items[0].slug").value("k8s"));
+        mockMvc.perform(get("/api/search").param("q", "京都 travle").param("category", "travel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.didYouMean").value("京都 travel"))
+                .andExpect(jsonPath("$.items[0].slug").value("kyoto"));
+        mockMvc.perform(get("/api/search").param("q", "notes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.didYouMean").doesNotExist());
+        mockMvc.perform(get("/api/search").param("q", "kubrnts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0))
+                .andExpect(jsonPath("$.didYouMean").doesNotExist());
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "kubernets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].slug").value("k8s"));
+        mockMvc.perform(get("/api/search").param("q", "notes").param("collection", "missing"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchReportsFacetCountsPerCategoryAndCollection() throws Exception {
+        Post first = createPost(notes, "gc-1", "JVM garbage collection", true);
+        Post second = createPost(notes, "gc-2", "Tuning garbage collection pauses", true);
+        createPost(travel, "gc-3", "Garbage sorting in Kyoto", true);
+        createPost(travel, "other", "Kyoto temples", true);
+        String body = mockMvc.perform(post("/api/collections")
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("name", "JVM series", "slug", "jvm-series", "description", ""))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long collectionId = objectMapper.readTree(body).get("id").asLong();
+        for (Post member : List.of(first, second)) {
+            mockMvc.perform(post("/api/collections/{id}/posts/{postId}", collectionId, member.getId())
+                            .header("Authorization", authHeader()))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/search").param("q", "garbage"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.categoryFacets.length()").value(2))
+                .andExpect(jsonPath("$.categoryFacets[0].slug").value("notes"))
+                .andExpect(jsonPath("$.categoryFacets[0].count").value(2))
+                .andExpect(jsonPath("$.categoryFacets[1].slug").value("travel"))
+                .andExpect(jsonPath("$.categoryFacets[1].count").value(1))
+                .andExpect(jsonPath("$.collectionFacets[0].slug").value("jvm-series"))
+                .andExpect(jsonPath("$.collectionFacets[0].count").value(2));
+
+        mockMvc.perform(get("/api/search").param("q", "garbage").param("category", "travel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.categoryFacets.length()").value(2))
+                .andExpect(jsonPath("$.collectionFacets.length()").value(0));
+
+        mockMvc.perform(delete("/api/collections/{id}/posts/{postId}", collectionId, second.getId())
+                        .header("Authorization", authHeader()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/search").param("q", "garbage").param("collection", "jvm-series"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.categoryFacets[0].slug").value("notes"))
+                .andExpect(jsonPath("$.categoryFacets[0].count").value(1))
+                .andExpect(jsonPath("$.collectionFacets[0].count").value(1));
+    }
+
+    @Test
+    void searchesDifferingOnlyInCategoryWithinACollectionAreCachedSeparately() throws Exception {
+        Post inNotes = createPost(notes, "pack-notes", "Packing list for conferences", true);
+        Post inTravel = createPost(travel, "pack-travel", "Packing list for Kyoto", true);
+        String body = mockMvc.perform(post("/api/collections")
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("name", "Checklists", "slug", "checklists", "description", ""))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long collectionId = objectMapper.readTree(body).get("id").asLong();
+        for (Post member : List.of(inNotes, inTravel)) {
+            mockMvc.perform(post("/api/collections/{id}/posts/{postId}", collectionId, member.getId())
+                            .header("Authorization", authHeader()))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/search").param("q", "packing")
+                        .param("category", "notes").param("collection", "checklists"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.items[0].slug").value("pack-notes"));
+        mockMvc.perform(get("/api/search").param("q", "packing")
+                        .param("category", "travel").param("collection", "checklists"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.items[0].slug").value("pack-travel"));
+    }
+
+    @Test
+    void analyticsReportPopularAndZeroResultQueriesAfterAFlush() throws Exception {
+        searchAnalyticsService.flush();
+        searchQueryRollupRepository.deleteAll();
+        createPost(notes, "redis", "Redis cache notes", true);
+        for (String q : List.of("redis", "Redis ", "REDIS", "cache", "kubernetes", "kubernetes")) {
+            mockMvc.perform(get("/api/search").param("q", q)).andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/posts/searchPages").param("q", "  ")).andExpect(status().isOk());
+        searchAnalyticsService.flush();
+
+        mockMvc.perform(get("/api/search/admin/analytics"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/search/admin/analytics").header("Authorization", authHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.popular.length()").value(3))
+                .andExpect(jsonPath("$.popular[0].query").value("redis"))
+                .andExpect(jsonPath("$.popular[0].count").value(3))
+                .andExpect(jsonPath("$.popular[1].query").value("kubernetes"))
+                .andExpect(jsonPath("$.zeroResult.length()").value(1))
+                .andExpect(jsonPath("$.zeroResult[0].query").value("kubernetes"))
+                .andExpect(jsonPath("$.zeroResult[0].count").value(2));
+        mockMvc.perform(get("/api/search/admin/analytics").param("days", "0")
+                        .header("Authorization", authHeader()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void clientIndexIsServedGzippedWithAStrongEtagThatFollowsContent() throws Exception {
+        createPost(notes, "redis-notes", "Redis 缓存 notes", true);
+        createPost(travel, "kyoto", "Kyoto in autumn", true);
+        createPost(notes, "draft", "Unpublished draft", false);
+
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/search/index")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+        assertThat(gzipped.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        String etag = gzipped.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).matches("\"[0-9a-f]{32}-gzip\"");
+        JsonNode index;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            index = objectMapper.readTree(in);
+        }
+        assertThat(index.get("posts")).hasSize(2);
+        JsonNode first = index.get("posts").get(0);
+        assertThat(first.get(0).asText()).isEqualTo("redis-notes");
+        assertThat(first.get(4).toString()).contains("\"redis\"", "\"缓存\"", "\"notes\"");
+        assertThat(index.get("categories").get(first.get(3).asInt()).get(0).asText()).isEqualTo("notes");
+
+        mockMvc.perform(get("/api/search/index")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/search/index"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, etag.replace("-gzip", "")))
+                .andExpect(jsonPath("$.posts[1][0]").value("kyoto"));
+
+        mockMvc.perform(put("/api/categories/{name}", travel.getName())
+                        .header("Authorization", authHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("name", "Journeys", "slug", "journeys"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/search/index"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[1][0]").value("journeys"));
+        mockMvc.perform(get("/api/search/index")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,152 @@
+package com.magiccode.backend;
+
+import com.magiccode.backend.model.Category;
+import com.magiccode.backend.search.SearchHit;
+import com.magiccode.backend.search.SearchQuery;
+import com.magiccode.backend.search.SearchResult;
+import com.magiccode.backend.service.FullTextSearchService;
+import com.magiccode.backend.service.SearchResultCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the in-memory and MySQL FULLTEXT search backends over the same corpus
+ * and prints latency and top-10 overlap per query. FULLTEXT needs a real
+ * MySQL, so this only runs against a scratch schema (its tables are dropped
+ * afterwards):
+ * {@code mvn test -Dtest=SearchBackendComparisonTests
+ * -Dblog.search.compare.url=jdbc:mysql://localhost:3306/blog_compare
+ * -Dblog.search.compare.username=... -Dblog.search.compare.password=...}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "blog.search.compare.url", matches = ".+")
+class SearchBackendComparisonTests extends TestDataSupport {
+    private static final int POSTS = 5_000;
+    private static final int TOP = 10;
+    private static final int ROUNDS = 5;
+    private static final String[] WORDS = {
+            "redis", "cache", "spring", "index", "mysql", "docker", "kotlin", "travel", "kyoto", "coffee",
+            "数据库", "缓存", "索引", "旅行", "京都", "咖啡", "部署", "容器", "笔记", "性能"};
+    private static final List<String> QUERIES = List.of(
+            "redis", "mysql index", "spring cache", "kyoto travel", "数据库", "缓存 索引", "京都 旅行", "docker 部署");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private FullTextSearchService fullText;
+
+    @DynamicPropertySource
+    static void mysql(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("blog.search.compare.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("blog.search.compare.username", "root"));
+        registry.add("spring.datasource.password", () -> System.getProperty("blog.search.compare.password", ""));
+        registry.add("spring.datasource.driver-class-name", () -> "com.mysql.cj.jdbc.Driver");
+    }
+
+    @BeforeEach
+    void seed() {
+        clearData();
+        Category category = createCategory("corpus");
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>(500);
+        for (int i = 0; i < POSTS; i++) {
+            String title = sentence(random, 4);
+            String content = sentence(random, 120);
+            rows.add(new Object[]{title, content, "post-" + i, category.getId(),
+                    Timestamp.valueOf(start.plusMinutes(i)), content.substring(0, Math.min(150, content.length())),
+                    category.getName()});
+            if (rows.size() == 500) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+        insert(rows);
+        jdbcTemplate.execute("ALTER TABLE posts ADD FULLTEXT INDEX ft_posts_title_content (title, content) WITH PARSER ngram");
+        searchService.rebuild();
+        fullText = new FullTextSearchService(postRepository, new SearchResultCache(1, new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM posts");
+        clearData();
+    }
+
+    @Test
+    void bothBackendsFindTheSameCorpusAndReportLatencyAndOverlap() {
+        for (String text : QUERIES) {
+            SearchQuery query = SearchQuery.all(text, TOP);
+            SearchResult memory = searchService.search(query);
+            SearchResult mysql = fullText.search(query);
+            assertThat(mysql.total()).as("fulltext matches for %s", text).isGreaterThan(0);
+
+            long memoryNanos = median(() -> searchService.search(query));
+            long mysqlNanos = median(() -> fullText.search(query));
+            System.out.printf("query=\"%s\" memory=%.2fms/%d hits fulltext=%.2fms/%d hits top%d-overlap=%.0f%%%n",
+                    text, memoryNanos / 1e6, memory.total(), mysqlNanos / 1e6, mysql.total(), TOP,
+                    100 * overlap(memory.hits(), mysql.hits()));
+        }
+    }
+
+    private static double overlap(List<SearchHit> a, List<SearchHit> b) {
+        Set<Long> left = new HashSet<>(a.stream().map(SearchHit::postId).toList());
+        Set<Long> union = new HashSet<>(left);
+        b.forEach(hit -> union.add(hit.postId()));
+        left.retainAll(b.stream().map(SearchHit::postId).toList());
+        return union.isEmpty() ? 1 : (double) left.size() / union.size();
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private long median(Supplier<?> query) {
+        query.get();
+        long[] samples = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            query.get();
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples[ROUNDS / 2];
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO posts (title, content, slug, category_id, created_at, published, " +
+                "like_count, dislike_count, view_count, excerpt, category_name) " +
+                "VALUES (?, ?, ?, ?, ?, TRUE, 0, 0, 0, ?, ?)", rows);
+    }
+}
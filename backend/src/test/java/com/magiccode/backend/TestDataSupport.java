@@ -14,14 +14,21 @@ import com.magiccode.backend.repository.CommentRepository;
 import com.magiccode.backend.repository.EmbeddedImageRepository;
 import com.magiccode.backend.repository.LikeLogRepository;
 import com.magiccode.backend.repository.MaintenanceConfigRepository;
+import com.magiccode.backend.repository.PostGroupItemRepository;
+import com.magiccode.backend.repository.PostGroupRepository;
 import com.magiccode.backend.repository.PostRepository;
 import com.magiccode.backend.repository.UserRepository;
+import com.magiccode.backend.service.PostDetailCache;
+import com.magiccode.backend.service.PostSummaryService;
+import com.magiccode.backend.service.SearchService;
+import com.magiccode.backend.service.SuggestService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -51,15 +58,32 @@ abstract class TestDataSupport {
     protected EmbeddedImageRepository embeddedImageRepository;
     @Autowired
     protected MaintenanceConfigRepository maintenanceConfigRepository;
+    @Autowired
+    protected PostGroupRepository postGroupRepository;
+    @Autowired
+    protected PostGroupItemRepository postGroupItemRepository;
+    @Autowired
+    protected PostDetailCache postDetailCache;
+    @Autowired
+    protected PostSummaryService postSummaryService;
+    @Autowired
+    protected SearchService searchService;
+    @Autowired
+    protected SuggestService suggestService;
 
     protected void clearData() {
         embeddedImageRepository.deleteAll();
         likeLogRepository.deleteAll();
         commentRepository.deleteAll();
+        postGroupItemRepository.deleteAll();
+        postGroupRepository.deleteAll();
         postRepository.deleteAll();
         categoryRepository.deleteAll();
         userRepository.deleteAll();
         maintenanceConfigRepository.deleteAll();
+        postDetailCache.invalidateAll();
+        searchService.rebuild();
+        suggestService.rebuild();
     }
 
     protected User createAdmin() {
@@ -92,14 +116,18 @@ abstract class TestDataSupport {
     }
 
     protected Post createPost(Category category, String slug, String title, boolean published) {
-        return postRepository.save(Post.builder()
+        Post post = Post.builder()
                 .title(title)
                 .slug(slug)
                 .content("Body for " + title)
                 .category(category)
                 .published(published)
                 .createdAt(LocalDateTime.now())
-                .build());
+                .build();
+        postSummaryService.refresh(post);
+        postRepository.save(post);
+        searchService.refresh(List.of(post.getId()));
+        return post;
     }
 
     protected Comment createComment(Post post, CommentStatus status, String content) {
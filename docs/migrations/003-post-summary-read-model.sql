@@ -0,0 +1,79 @@
+-- Migration 003: denormalized summary columns read by post listings and search.
+--
+-- Apply manually before deploying code that reads posts.excerpt,
+-- posts.category_name, or posts.collection_names. Back up production data
+-- first. Do not wire this migration into application startup.
+
+SET @posts_excerpt_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'posts'
+      AND COLUMN_NAME = 'excerpt'
+);
+
+SET @posts_excerpt_sql := IF(
+    @posts_excerpt_exists = 0,
+    'ALTER TABLE posts ADD COLUMN excerpt VARCHAR(200) NULL',
+    'SELECT ''posts.excerpt already exists'' AS message'
+);
+
+PREPARE stmt FROM @posts_excerpt_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @posts_category_name_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'posts'
+      AND COLUMN_NAME = 'category_name'
+);
+
+SET @posts_category_name_sql := IF(
+    @posts_category_name_exists = 0,
+    'ALTER TABLE posts ADD COLUMN category_name VARCHAR(50) NULL',
+    'SELECT ''posts.category_name already exists'' AS message'
+);
+
+PREPARE stmt FROM @posts_category_name_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @posts_collection_names_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'posts'
+      AND COLUMN_NAME = 'collection_names'
+);
+
+SET @posts_collection_names_sql := IF(
+    @posts_collection_names_exists = 0,
+    'ALTER TABLE posts ADD COLUMN collection_names TEXT NULL',
+    'SELECT ''posts.collection_names already exists'' AS message'
+);
+
+PREPARE stmt FROM @posts_collection_names_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Backfill. Safe to re-run; the application keeps the columns current afterwards.
+UPDATE posts
+SET excerpt = CASE
+    WHEN CHAR_LENGTH(content) > 150 THEN CONCAT(LEFT(content, 150), '...')
+    ELSE content
+END;
+
+UPDATE posts p
+JOIN categories c ON c.id = p.category_id
+SET p.category_name = c.name;
+
+UPDATE posts p
+LEFT JOIN (
+    SELECT pgi.post_id, GROUP_CONCAT(pg.name SEPARATOR '\n') AS names
+    FROM post_group_items pgi
+    JOIN post_groups pg ON pg.id = pgi.post_group_id
+    GROUP BY pgi.post_id
+) g ON g.post_id = p.id
+SET p.collection_names = g.names;
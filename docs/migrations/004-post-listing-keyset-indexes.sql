@@ -0,0 +1,60 @@
+-- Migration 004: composite indexes for cursor (keyset) post listings.
+--
+-- Apply manually before relying on the /cursor listing endpoints at scale.
+-- Back up production data first. Do not wire this migration into application
+-- startup. Building the indexes on a large posts table takes a while; InnoDB
+-- builds them online.
+
+SET @idx_posts_published_created_id_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'posts'
+      AND INDEX_NAME = 'idx_posts_published_created_id'
+);
+
+SET @idx_posts_published_created_id_sql := IF(
+    @idx_posts_published_created_id_exists = 0,
+    'ALTER TABLE posts ADD INDEX idx_posts_published_created_id (published, created_at, id)',
+    'SELECT ''idx_posts_published_created_id already exists'' AS message'
+);
+
+PREPARE stmt FROM @idx_posts_published_created_id_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @idx_posts_category_created_id_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'posts'
+      AND INDEX_NAME = 'idx_posts_category_created_id'
+);
+
+SET @idx_posts_category_created_id_sql := IF(
+    @idx_posts_category_created_id_exists = 0,
+    'ALTER TABLE posts ADD INDEX idx_posts_category_created_id (category_id, created_at, id)',
+    'SELECT ''idx_posts_category_created_id already exists'' AS message'
+);
+
+PREPARE stmt FROM @idx_posts_category_created_id_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @idx_post_group_items_group_order_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'post_group_items'
+      AND INDEX_NAME = 'idx_post_group_items_group_order'
+);
+
+SET @idx_post_group_items_group_order_sql := IF(
+    @idx_post_group_items_group_order_exists = 0,
+    'ALTER TABLE post_group_items ADD INDEX idx_post_group_items_group_order (post_group_id, order_index, post_id)',
+    'SELECT ''idx_post_group_items_group_order already exists'' AS message'
+);
+
+PREPARE stmt FROM @idx_post_group_items_group_order_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
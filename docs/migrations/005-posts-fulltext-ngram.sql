@@ -0,0 +1,26 @@
+-- Migration 005: FULLTEXT index for the MySQL search backend.
+--
+-- Only needed when running with blog.search.backend=fulltext. Apply manually
+-- before switching the property. Back up production data first. Do not wire
+-- this migration into application startup. The ngram parser splits text into
+-- ngram_token_size (default 2) character grams, which suits Chinese titles and
+-- bodies. Building the index rewrites the table, and every later post write
+-- also updates the index.
+
+SET @ft_posts_title_content_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'posts'
+      AND INDEX_NAME = 'ft_posts_title_content'
+);
+
+SET @ft_posts_title_content_sql := IF(
+    @ft_posts_title_content_exists = 0,
+    'ALTER TABLE posts ADD FULLTEXT INDEX ft_posts_title_content (title, content) WITH PARSER ngram',
+    'SELECT ''ft_posts_title_content already exists'' AS message'
+);
+
+PREPARE stmt FROM @ft_posts_title_content_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,18 @@
+-- Migration 006: rollup table for search analytics.
+--
+-- Apply manually before deploying code that flushes search analytics
+-- (production validates the schema at startup). Back up production data
+-- first. Do not wire this migration into application startup. Each flush adds
+-- at most 100 small rows; prune old windows with a DELETE on window_start if
+-- the table grows beyond what you want to keep.
+
+CREATE TABLE IF NOT EXISTS search_query_rollups (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    kind VARCHAR(20) NOT NULL,
+    query VARCHAR(100) NOT NULL,
+    query_count BIGINT NOT NULL,
+    window_start DATETIME(6) NOT NULL,
+    window_end DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_search_query_rollups_kind_window (kind, window_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
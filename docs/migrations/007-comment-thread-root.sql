@@ -0,0 +1,74 @@
+-- Migration 007: thread root column and indexes for threaded comment pages.
+--
+-- Apply manually before deploying code that reads comments.root_id (production
+-- validates the schema at startup). Back up production data first. Do not wire
+-- this migration into application startup. Requires MySQL 8 for the recursive
+-- backfill.
+
+-- 1) Add comments.root_id if it does not exist.
+SET @comments_root_id_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'comments'
+      AND COLUMN_NAME = 'root_id'
+);
+
+SET @comments_root_id_sql := IF(
+    @comments_root_id_exists = 0,
+    'ALTER TABLE comments ADD COLUMN root_id BIGINT NULL',
+    'SELECT ''comments.root_id already exists'' AS message'
+);
+
+PREPARE stmt FROM @comments_root_id_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 2) Point every existing reply at the top-level comment of its thread.
+-- Top-level comments keep root_id NULL. Safe to run again.
+WITH RECURSIVE thread (id, root_id) AS (
+    SELECT id, id FROM comments WHERE parent_id IS NULL
+    UNION ALL
+    SELECT c.id, t.root_id FROM comments c JOIN thread t ON c.parent_id = t.id
+)
+UPDATE comments c
+JOIN thread t ON t.id = c.id
+SET c.root_id = t.root_id
+WHERE c.parent_id IS NOT NULL;
+
+-- 3) Indexes for top-level keyset pages and the batched reply fetch.
+SET @idx_comments_post_status_root_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'comments'
+      AND INDEX_NAME = 'idx_comments_post_status_root'
+);
+
+SET @idx_comments_post_status_root_sql := IF(
+    @idx_comments_post_status_root_exists = 0,
+    'ALTER TABLE comments ADD INDEX idx_comments_post_status_root (post_id, status, root_id, id)',
+    'SELECT ''idx_comments_post_status_root already exists'' AS message'
+);
+
+PREPARE stmt FROM @idx_comments_post_status_root_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @idx_comments_root_status_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'comments'
+      AND INDEX_NAME = 'idx_comments_root_status'
+);
+
+SET @idx_comments_root_status_sql := IF(
+    @idx_comments_root_status_exists = 0,
+    'ALTER TABLE comments ADD INDEX idx_comments_root_status (root_id, status, id)',
+    'SELECT ''idx_comments_root_status already exists'' AS message'
+);
+
+PREPARE stmt FROM @idx_comments_root_status_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,51 @@
+-- Migration 008: materialized comment counters.
+--
+-- Apply manually before deploying code that maintains comment counters
+-- (production validates the schema at startup). Back up production data
+-- first. Do not wire this migration into application startup. The backfill
+-- can be re-run at any time; the application's reconcile job does the same
+-- recount periodically.
+
+-- 1) Add posts.comment_count (APPROVED comments) if it does not exist.
+SET @posts_comment_count_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'posts'
+      AND COLUMN_NAME = 'comment_count'
+);
+
+SET @posts_comment_count_sql := IF(
+    @posts_comment_count_exists = 0,
+    'ALTER TABLE posts ADD COLUMN comment_count INT NOT NULL DEFAULT 0',
+    'SELECT ''posts.comment_count already exists'' AS message'
+);
+
+PREPARE stmt FROM @posts_comment_count_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 2) Counters per post and status; totals are summed from these rows.
+CREATE TABLE IF NOT EXISTS comment_counters (
+    post_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    comment_count BIGINT NOT NULL,
+    PRIMARY KEY (post_id, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 3) Backfill.
+DELETE FROM comment_counters;
+
+INSERT INTO comment_counters (post_id, status, comment_count)
+SELECT post_id, status, COUNT(*)
+FROM comments
+GROUP BY post_id, status;
+
+UPDATE posts p
+LEFT JOIN (
+    SELECT post_id, COUNT(*) AS approved
+    FROM comments
+    WHERE status = 'APPROVED'
+    GROUP BY post_id
+) c ON c.post_id = p.id
+SET p.comment_count = COALESCE(c.approved, 0);
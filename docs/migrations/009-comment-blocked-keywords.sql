@@ -0,0 +1,14 @@
+-- Migration 009: admin-managed comment moderation keywords.
+--
+-- Apply manually before deploying code that reads comment_blocked_keywords
+-- (production validates the schema at startup). Back up production data
+-- first. Do not wire this migration into application startup. Keywords from
+-- blog.comment.moderation.blocked-keywords stay in configuration and are not
+-- copied into this table.
+
+CREATE TABLE IF NOT EXISTS comment_blocked_keywords (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    keyword VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_comment_blocked_keywords_keyword UNIQUE (keyword)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,63 @@
+-- Migration 010: moderation queue indexes.
+--
+-- Apply manually before deploying code that serves the moderation queue.
+-- Back up production data first. Do not wire this migration into application
+-- startup. Step 2 is only needed with blog.comment.search.fulltext=true;
+-- building it rewrites the comments table, and every later comment write also
+-- updates the index.
+
+-- 1) Keyset order (created_at, id) within a status, optionally per post.
+SET @idx_comments_status_created_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'comments'
+      AND INDEX_NAME = 'idx_comments_status_created'
+);
+
+SET @idx_comments_status_created_sql := IF(
+    @idx_comments_status_created_exists = 0,
+    'ALTER TABLE comments ADD INDEX idx_comments_status_created (status, created_at, id)',
+    'SELECT ''idx_comments_status_created already exists'' AS message'
+);
+
+PREPARE stmt FROM @idx_comments_status_created_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @idx_comments_post_status_created_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'comments'
+      AND INDEX_NAME = 'idx_comments_post_status_created'
+);
+
+SET @idx_comments_post_status_created_sql := IF(
+    @idx_comments_post_status_created_exists = 0,
+    'ALTER TABLE comments ADD INDEX idx_comments_post_status_created (post_id, status, created_at, id)',
+    'SELECT ''idx_comments_post_status_created already exists'' AS message'
+);
+
+PREPARE stmt FROM @idx_comments_post_status_created_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 2) ngram FULLTEXT index for the queue keyword filter.
+SET @ft_comments_name_email_content_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'comments'
+      AND INDEX_NAME = 'ft_comments_name_email_content'
+);
+
+SET @ft_comments_name_email_content_sql := IF(
+    @ft_comments_name_email_content_exists = 0,
+    'ALTER TABLE comments ADD FULLTEXT INDEX ft_comments_name_email_content (name, email, content) WITH PARSER ngram',
+    'SELECT ''ft_comments_name_email_content already exists'' AS message'
+);
+
+PREPARE stmt FROM @ft_comments_name_email_content_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
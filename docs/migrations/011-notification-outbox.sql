@@ -0,0 +1,27 @@
+-- Migration 011: outbox for comment email notifications.
+--
+-- Apply manually before deploying code that writes notification_outbox
+-- (production validates the schema at startup). Back up production data
+-- first. Do not wire this migration into application startup. The table
+-- starts empty; notifications are only queued while
+-- blog.notification.enabled=true.
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    recipient VARCHAR(100) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    comment_id BIGINT NULL,
+    created_at DATETIME(6) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claim_token VARCHAR(36) NULL,
+    claimed_until DATETIME(6) NULL,
+    sent_at DATETIME(6) NULL,
+    last_error VARCHAR(255) NULL,
+    PRIMARY KEY (id),
+    KEY idx_notification_outbox_due (status, next_attempt_at),
+    KEY idx_notification_outbox_recipient (recipient, status),
+    KEY idx_notification_outbox_claim (claim_token)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
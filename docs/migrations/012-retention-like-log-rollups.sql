@@ -0,0 +1,33 @@
+-- Migration 012: retention purge support.
+--
+-- Apply manually before deploying code that compacts like logs (production
+-- validates the schema at startup). Back up production data first. Do not
+-- wire this migration into application startup. Nothing is deleted until
+-- blog.retention.enabled=true.
+
+-- 1) Oldest-first scan of like logs for compaction.
+SET @idx_like_logs_created_exists := (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE()
+      AND TABLE_NAME = 'like_logs'
+      AND INDEX_NAME = 'idx_like_logs_created'
+);
+
+SET @idx_like_logs_created_sql := IF(
+    @idx_like_logs_created_exists = 0,
+    'ALTER TABLE like_logs ADD INDEX idx_like_logs_created (created_at, id)',
+    'SELECT ''idx_like_logs_created already exists'' AS message'
+);
+
+PREPARE stmt FROM @idx_like_logs_created_sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 2) Per-post totals of compacted like logs.
+CREATE TABLE IF NOT EXISTS like_log_rollups (
+    post_id BIGINT NOT NULL,
+    likes BIGINT NOT NULL,
+    dislikes BIGINT NOT NULL,
+    PRIMARY KEY (post_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -49,9 +49,15 @@ CREATE TABLE IF NOT EXISTS posts (
     like_count INT NOT NULL DEFAULT 0,
     dislike_count INT NOT NULL DEFAULT 0,
     view_count INT NOT NULL DEFAULT 0,
+    comment_count INT NOT NULL DEFAULT 0,
+    excerpt VARCHAR(200) NULL,
+    category_name VARCHAR(50) NULL,
+    collection_names TEXT NULL,
     PRIMARY KEY (id),
     UNIQUE KEY uk_posts_slug (slug),
     KEY idx_posts_category_id (category_id),
+    KEY idx_posts_published_created_id (published, created_at, id),
+    KEY idx_posts_category_created_id (category_id, created_at, id),
     CONSTRAINT fk_posts_category FOREIGN KEY (category_id) REFERENCES categories (id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -63,6 +69,7 @@ CREATE TABLE IF NOT EXISTS comments (
     content TEXT NOT NULL,
     created_at DATETIME(6) NULL,
     parent_id BIGINT NULL,
+    root_id BIGINT NULL,
     author BIT NOT NULL DEFAULT b'0',
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
     moderation_reason VARCHAR(255) NULL,
@@ -70,6 +77,10 @@ CREATE TABLE IF NOT EXISTS comments (
     KEY idx_comments_post_id (post_id),
     KEY idx_comments_parent_id (parent_id),
     KEY idx_comments_status (status),
+    KEY idx_comments_post_status_root (post_id, status, root_id, id),
+    KEY idx_comments_root_status (root_id, status, id),
+    KEY idx_comments_status_created (status, created_at, id),
+    KEY idx_comments_post_status_created (post_id, status, created_at, id),
     CONSTRAINT fk_comments_post FOREIGN KEY (post_id) REFERENCES posts (id),
     CONSTRAINT fk_comments_parent FOREIGN KEY (parent_id) REFERENCES comments (id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -83,6 +94,7 @@ CREATE TABLE IF NOT EXISTS like_logs (
     PRIMARY KEY (id),
     UNIQUE KEY uk_like_logs_post_identifier (post_id, identifier),
     KEY idx_like_logs_post_id (post_id),
+    KEY idx_like_logs_created (created_at, id),
     CONSTRAINT fk_like_logs_post FOREIGN KEY (post_id) REFERENCES posts (id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -108,6 +120,7 @@ CREATE TABLE IF NOT EXISTS post_group_items (
     UNIQUE KEY uk_post_group_items_group_post (post_group_id, post_id),
     KEY idx_post_group_items_group (post_group_id),
     KEY idx_post_group_items_post (post_id),
+    KEY idx_post_group_items_group_order (post_group_id, order_index, post_id),
     CONSTRAINT fk_post_group_items_group FOREIGN KEY (post_group_id) REFERENCES post_groups (id),
     CONSTRAINT fk_post_group_items_post FOREIGN KEY (post_id) REFERENCES posts (id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -194,4 +207,56 @@ CREATE TABLE IF NOT EXISTS maintenance_config (
     PRIMARY KEY (id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+CREATE TABLE IF NOT EXISTS search_query_rollups (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    kind VARCHAR(20) NOT NULL,
+    query VARCHAR(100) NOT NULL,
+    query_count BIGINT NOT NULL,
+    window_start DATETIME(6) NOT NULL,
+    window_end DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_search_query_rollups_kind_window (kind, window_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS comment_counters (
+    post_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    comment_count BIGINT NOT NULL,
+    PRIMARY KEY (post_id, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS comment_blocked_keywords (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    keyword VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_comment_blocked_keywords_keyword UNIQUE (keyword)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    recipient VARCHAR(100) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    comment_id BIGINT NULL,
+    created_at DATETIME(6) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claim_token VARCHAR(36) NULL,
+    claimed_until DATETIME(6) NULL,
+    sent_at DATETIME(6) NULL,
+    last_error VARCHAR(255) NULL,
+    PRIMARY KEY (id),
+    KEY idx_notification_outbox_due (status, next_attempt_at),
+    KEY idx_notification_outbox_recipient (recipient, status),
+    KEY idx_notification_outbox_claim (claim_token)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS like_log_rollups (
+    post_id BIGINT NOT NULL,
+    likes BIGINT NOT NULL,
+    dislikes BIGINT NOT NULL,
+    PRIMARY KEY (post_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 SET FOREIGN_KEY_CHECKS = 1;